@@ -0,0 +1,77 @@
+package com.popmart.benchmark;
+
+import com.popmart.service.StockStatus;
+import com.popmart.utils.ProductPageParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP 快速路径的内嵌 JSON 解析
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FastPathParseBenchmark {
+
+    @Param({"in-stock", "sold-out", "notify-me", "broken"})
+    public String fixture;
+
+    private String html;
+
+    private String nextData;
+
+    private String listingHtml;
+
+    @Setup
+    public void setUp() {
+        html = Fixtures.load(fixture);
+        nextData = ProductPageParser.extractNextData(html);
+        listingHtml = Fixtures.load("listing");
+    }
+
+    /**
+     * 快速路径完整判定（只看内嵌 SKU 数据）
+     */
+    @Benchmark
+    public StockStatus parse() {
+        return ProductPageParser.parse(html);
+    }
+
+    @Benchmark
+    public String extractNextData() {
+        return ProductPageParser.extractNextData(html);
+    }
+
+    @Benchmark
+    public StockStatus parseProductJson() {
+        return nextData != null ? ProductPageParser.parseProductJson(nextData) : StockStatus.UNKNOWN;
+    }
+
+    /**
+     * 条件请求的库存区域指纹
+     */
+    @Benchmark
+    public String extractStockRegion() {
+        return ProductPageParser.extractStockRegion(html);
+    }
+
+    @Benchmark
+    public List<ProductPageParser.ListingEntry> parseListing() {
+        return ProductPageParser.parseListing(listingHtml);
+    }
+}
@@ -0,0 +1,78 @@
+package com.popmart.benchmark;
+
+import com.popmart.config.PopMartConfig;
+import com.popmart.service.StockStatus;
+import com.popmart.utils.KeywordScanner;
+import com.popmart.utils.ProductPageParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 页面源码中的加购关键词和缺货标识扫描
+ *
+ * pageSourceScan 复现早期整页 toLowerCase + contains 的回退扫描，作为基线；
+ * keywordScan 为同样语义的单次多关键词扫描（命中有库存关键词即停止）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageScanBenchmark {
+
+    @Param({"in-stock", "sold-out", "notify-me", "broken"})
+    public String fixture;
+
+    private String html;
+
+    private String keyword;
+
+    private List<String> outOfStockMarkers;
+
+    private KeywordScanner keywords;
+
+    @Setup
+    public void setUp() {
+        html = Fixtures.load(fixture);
+        PopMartConfig.StockDetection detection = new PopMartConfig().getMonitor().getStockDetection();
+        keyword = detection.getKeyword();
+        outOfStockMarkers = detection.getOutOfStockKeywords();
+        keywords = ProductPageParser.stockKeywordScanner(keyword, outOfStockMarkers);
+    }
+
+    @Benchmark
+    public StockStatus pageSourceScan() {
+        String pageSource = html.toLowerCase();
+        if (pageSource.contains(keyword.toLowerCase())) {
+            return StockStatus.IN_STOCK;
+        }
+        for (String marker : outOfStockMarkers) {
+            if (pageSource.contains(marker)) {
+                return StockStatus.OUT_OF_STOCK;
+            }
+        }
+        return StockStatus.UNKNOWN;
+    }
+
+    @Benchmark
+    public StockStatus keywordScan() {
+        int found = keywords.scan(html, 0, html.length(), ProductPageParser.IN_STOCK_MASK);
+        if ((found & ProductPageParser.IN_STOCK_MASK) != 0) {
+            return StockStatus.IN_STOCK;
+        }
+        return found != 0 ? StockStatus.OUT_OF_STOCK : StockStatus.UNKNOWN;
+    }
+}
@@ -0,0 +1,82 @@
+package com.popmart.benchmark;
+
+import com.popmart.dto.response.StockCheckResult;
+import com.popmart.entity.MonitoredProduct;
+import com.popmart.entity.StockCheckHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每次检查都要构造的检查历史记录（含分阶段耗时 JSON）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StockCheckHistoryBenchmark {
+
+    private MonitoredProduct product;
+
+    private StockCheckResult result;
+
+    @Setup
+    public void setUp() {
+        product = new MonitoredProduct(
+            "https://www.popmart.com/us/products/1739/THE-MONSTERS-Classic-Series-Sparkly-Plush-Pendant-Blind-Box",
+            "THE MONSTERS Classic Series Sparkly Plush Pendant Blind Box", "benchmark");
+        product.setId(1739L);
+
+        Map<String, Long> timings = new LinkedHashMap<>();
+        timings.put("cache", 0L);
+        timings.put("fast_path", 182L);
+        timings.put("probe", 0L);
+        timings.put("bulkhead", 1L);
+        timings.put("rate_limit", 12L);
+        timings.put("borrow", 3L);
+        timings.put("navigation", 1430L);
+        timings.put("element_wait", 210L);
+        timings.put("detection", 18L);
+        timings.put("release", 25L);
+        result = StockCheckResult.builder()
+            .inStock(false)
+            .responseTime(1881)
+            .phaseTimings(timings)
+            .build();
+    }
+
+    @Benchmark
+    public StockCheckHistory construct() {
+        return new StockCheckHistory(product, result.getInStock());
+    }
+
+    /**
+     * MonitoringService 中完整填充一条历史记录
+     */
+    @Benchmark
+    public StockCheckHistory constructAndPopulate() {
+        StockCheckHistory history = new StockCheckHistory();
+        history.setProductId(product.getId());
+        history.setInStock(result.getInStock());
+        history.setResponseTime(result.getResponseTime());
+        history.setPhaseTimings(result.formatPhaseTimings());
+        history.setErrorMessage(result.getErrorMessage());
+        history.setCheckedAt(LocalDateTime.now());
+        history.setStockChanged(false);
+        return history;
+    }
+}
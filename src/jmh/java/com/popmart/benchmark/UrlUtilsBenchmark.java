@@ -0,0 +1,49 @@
+package com.popmart.benchmark;
+
+import com.popmart.utils.urlUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * URL 工具：商品 ID（正则）和商品名称（split）提取
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlUtilsBenchmark {
+
+    @Param({
+        "https://www.popmart.com/us/products/1739/THE-MONSTERS-Classic-Series-Sparkly-Plush-Pendant-Blind-Box",
+        "https://www.popmart.com/us/products/1739/THE-MONSTERS-Classic-Series?utm_source=discord#details",
+        "https://www.popmart.com/us/collection/11/the-monsters"
+    })
+    public String url;
+
+    @Benchmark
+    public String extractProductId() {
+        return urlUtils.extractProductId(url);
+    }
+
+    @Benchmark
+    public String extractProductNameFromUrl() {
+        return urlUtils.extractProductNameFromUrl(url);
+    }
+
+    @Benchmark
+    public boolean isValidPopMartUrl() {
+        return urlUtils.isValidPopMartUrl(url);
+    }
+}
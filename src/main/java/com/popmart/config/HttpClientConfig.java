@@ -0,0 +1,93 @@
+package com.popmart.config;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HttpClientConfig {
+
+    /**
+     * 抓取用的连接池化 HTTP 客户端（keep-alive 复用连接）
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient popMartHttpClient(PopMartConfig config) {
+        PopMartConfig.FastPath fastPath = config.getMonitor().getFastPath();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(fastPath.getMaxConnections())
+                .setMaxConnPerRoute(fastPath.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(fastPath.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(fastPath.getResponseTimeout()))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(fastPath.getConnectTimeout()))
+                .setResponseTimeout(Timeout.ofMilliseconds(fastPath.getResponseTimeout()))
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setUserAgent(config.getMonitor().getSelenium().getUserAgent())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .evictExpiredConnections()
+                .build();
+    }
+
+    /**
+     * 可访问性探测用的异步 HTTP 客户端（HTTP/2 协商，连接复用）
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient popMartAsyncHttpClient(PopMartConfig config) {
+        PopMartConfig.Probe probe = config.getMonitor().getProbe();
+
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(probe.getMaxConnections())
+                .setMaxConnPerRoute(probe.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(probe.getTimeout()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(probe.getTimeout()))
+                        .setTimeToLive(TimeValue.ofMinutes(5))
+                        .build())
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(HttpVersionPolicy.NEGOTIATE)
+                        .build())
+                .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(probe.getTimeout()))
+                .setResponseTimeout(Timeout.ofMilliseconds(probe.getTimeout()))
+                .build();
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(Timeout.ofMilliseconds(probe.getTimeout()))
+                        .build())
+                .setUserAgent(config.getMonitor().getSelenium().getUserAgent())
+                .evictIdleConnections(TimeValue.ofSeconds(30))
+                .evictExpiredConnections()
+                .build();
+        client.start();
+        return client;
+    }
+}
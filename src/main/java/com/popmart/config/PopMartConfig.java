@@ -3,6 +3,12 @@ package com.popmart.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 @Component
 @ConfigurationProperties(prefix = "popmart")
 public class PopMartConfig {
@@ -31,6 +37,20 @@ public class PopMartConfig {
         private StockDetection stockDetection = new StockDetection();
         private Selenium selenium = new Selenium();
         private Notification notification = new Notification();
+        private FastPath fastPath = new FastPath();
+        private String stockSource = "browser";
+        private ProductApi productApi = new ProductApi();
+        private ResultCache resultCache = new ResultCache();
+        private Probe probe = new Probe();
+        private RateLimit rateLimit = new RateLimit();
+        private Resilience resilience = new Resilience();
+        private Batch batch = new Batch();
+        private Listing listing = new Listing();
+        private Discovery discovery = new Discovery();
+        private Replay replay = new Replay();
+        private LoadTest loadTest = new LoadTest();
+        private Hedging hedging = new Hedging();
+        private ParkedTabs parkedTabs = new ParkedTabs();
         
         public int getPollInterval() {
             return pollInterval;
@@ -63,12 +83,127 @@ public class PopMartConfig {
         public void setNotification(Notification notification) {
             this.notification = notification;
         }
+        
+        public FastPath getFastPath() {
+            return fastPath;
+        }
+        
+        public void setFastPath(FastPath fastPath) {
+            this.fastPath = fastPath;
+        }
+        
+        public String getStockSource() {
+            return stockSource;
+        }
+        
+        public void setStockSource(String stockSource) {
+            this.stockSource = stockSource;
+        }
+        
+        public ProductApi getProductApi() {
+            return productApi;
+        }
+        
+        public void setProductApi(ProductApi productApi) {
+            this.productApi = productApi;
+        }
+        
+        public ResultCache getResultCache() {
+            return resultCache;
+        }
+        
+        public void setResultCache(ResultCache resultCache) {
+            this.resultCache = resultCache;
+        }
+        
+        public Probe getProbe() {
+            return probe;
+        }
+        
+        public void setProbe(Probe probe) {
+            this.probe = probe;
+        }
+        
+        public RateLimit getRateLimit() {
+            return rateLimit;
+        }
+        
+        public void setRateLimit(RateLimit rateLimit) {
+            this.rateLimit = rateLimit;
+        }
+        
+        public Resilience getResilience() {
+            return resilience;
+        }
+        
+        public void setResilience(Resilience resilience) {
+            this.resilience = resilience;
+        }
+        
+        public Batch getBatch() {
+            return batch;
+        }
+        
+        public void setBatch(Batch batch) {
+            this.batch = batch;
+        }
+        
+        public Listing getListing() {
+            return listing;
+        }
+        
+        public void setListing(Listing listing) {
+            this.listing = listing;
+        }
+        
+        public Discovery getDiscovery() {
+            return discovery;
+        }
+        
+        public void setDiscovery(Discovery discovery) {
+            this.discovery = discovery;
+        }
+        
+        public Replay getReplay() {
+            return replay;
+        }
+        
+        public void setReplay(Replay replay) {
+            this.replay = replay;
+        }
+        
+        public LoadTest getLoadTest() {
+            return loadTest;
+        }
+        
+        public void setLoadTest(LoadTest loadTest) {
+            this.loadTest = loadTest;
+        }
+        
+        public Hedging getHedging() {
+            return hedging;
+        }
+        
+        public void setHedging(Hedging hedging) {
+            this.hedging = hedging;
+        }
+        
+        public ParkedTabs getParkedTabs() {
+            return parkedTabs;
+        }
+        
+        public void setParkedTabs(ParkedTabs parkedTabs) {
+            this.parkedTabs = parkedTabs;
+        }
     }
     
     public static class StockDetection {
         private String selector = "button:contains('Add to Bag')";
         private String keyword = "Add to Bag";
         private int timeout = 30;
+        private boolean adaptiveOrdering = true;
+        private int strategyStatsSize = 1000;
+        private List<String> outOfStockKeywords = new ArrayList<>(Arrays.asList("sold out", "out of stock", "notify me", "unavailable"));
         
         public String getSelector() {
             return selector;
@@ -93,6 +228,30 @@ public class PopMartConfig {
         public void setTimeout(int timeout) {
             this.timeout = timeout;
         }
+        
+        public boolean isAdaptiveOrdering() {
+            return adaptiveOrdering;
+        }
+        
+        public void setAdaptiveOrdering(boolean adaptiveOrdering) {
+            this.adaptiveOrdering = adaptiveOrdering;
+        }
+        
+        public int getStrategyStatsSize() {
+            return strategyStatsSize;
+        }
+        
+        public void setStrategyStatsSize(int strategyStatsSize) {
+            this.strategyStatsSize = strategyStatsSize;
+        }
+        
+        public List<String> getOutOfStockKeywords() {
+            return outOfStockKeywords;
+        }
+        
+        public void setOutOfStockKeywords(List<String> outOfStockKeywords) {
+            this.outOfStockKeywords = outOfStockKeywords;
+        }
     }
     
     public static class Selenium {
@@ -100,6 +259,10 @@ public class PopMartConfig {
         private int timeout = 30;
         private String userAgent = "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36";
         private Performance performance = new Performance();
+        private Pool pool = new Pool();
+        private Network network = new Network();
+        private Session session = new Session();
+        private String driverPath = "";
         
         public boolean isHeadless() {
             return headless;
@@ -132,6 +295,212 @@ public class PopMartConfig {
         public void setPerformance(Performance performance) {
             this.performance = performance;
         }
+        
+        public Pool getPool() {
+            return pool;
+        }
+        
+        public void setPool(Pool pool) {
+            this.pool = pool;
+        }
+        
+        public Network getNetwork() {
+            return network;
+        }
+        
+        public void setNetwork(Network network) {
+            this.network = network;
+        }
+        
+        public Session getSession() {
+            return session;
+        }
+        
+        public void setSession(Session session) {
+            this.session = session;
+        }
+        
+        public String getDriverPath() {
+            return driverPath;
+        }
+        
+        public void setDriverPath(String driverPath) {
+            this.driverPath = driverPath;
+        }
+    }
+    
+    public static class Network {
+        private boolean enabled = true;
+        private List<String> blockedResourceTypes = new ArrayList<>(Arrays.asList("Image", "Media", "Font"));
+        private List<String> blockedUrlPatterns = new ArrayList<>(Arrays.asList(
+            "*google-analytics.com*", "*googletagmanager.com*", "*doubleclick.net*",
+            "*facebook.net*", "*connect.facebook.com*", "*hotjar.com*", "*tiktok.com*",
+            "*.mp4*", "*.webm*", "*.woff*", "*.ttf*"));
+        private int maxRequestsPerPage = 150;
+        private int maxKilobytesPerPage = 4096;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public List<String> getBlockedResourceTypes() {
+            return blockedResourceTypes;
+        }
+        
+        public void setBlockedResourceTypes(List<String> blockedResourceTypes) {
+            this.blockedResourceTypes = blockedResourceTypes;
+        }
+        
+        public List<String> getBlockedUrlPatterns() {
+            return blockedUrlPatterns;
+        }
+        
+        public void setBlockedUrlPatterns(List<String> blockedUrlPatterns) {
+            this.blockedUrlPatterns = blockedUrlPatterns;
+        }
+        
+        public int getMaxRequestsPerPage() {
+            return maxRequestsPerPage;
+        }
+        
+        public void setMaxRequestsPerPage(int maxRequestsPerPage) {
+            this.maxRequestsPerPage = maxRequestsPerPage;
+        }
+        
+        public int getMaxKilobytesPerPage() {
+            return maxKilobytesPerPage;
+        }
+        
+        public void setMaxKilobytesPerPage(int maxKilobytesPerPage) {
+            this.maxKilobytesPerPage = maxKilobytesPerPage;
+        }
+    }
+    
+    public static class Pool {
+        private String mode = "process";
+        private int browsers = 1;
+        private int contextsPerBrowser = 10;
+        private int minSize = 2;
+        private int maxSize = 5;
+        private int borrowTimeout = 5;
+        private int idleTimeout = 300;
+        private int maxNavigations = 200;
+        private int maxRssMb = 600;
+        private int validationInterval = 60;
+        
+        public String getMode() {
+            return mode;
+        }
+        
+        public void setMode(String mode) {
+            this.mode = mode;
+        }
+        
+        public int getBrowsers() {
+            return browsers;
+        }
+        
+        public void setBrowsers(int browsers) {
+            this.browsers = browsers;
+        }
+        
+        public int getContextsPerBrowser() {
+            return contextsPerBrowser;
+        }
+        
+        public void setContextsPerBrowser(int contextsPerBrowser) {
+            this.contextsPerBrowser = contextsPerBrowser;
+        }
+        
+        public int getMinSize() {
+            return minSize;
+        }
+        
+        public void setMinSize(int minSize) {
+            this.minSize = minSize;
+        }
+        
+        public int getMaxSize() {
+            return maxSize;
+        }
+        
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+        
+        public int getBorrowTimeout() {
+            return borrowTimeout;
+        }
+        
+        public void setBorrowTimeout(int borrowTimeout) {
+            this.borrowTimeout = borrowTimeout;
+        }
+        
+        public int getIdleTimeout() {
+            return idleTimeout;
+        }
+        
+        public void setIdleTimeout(int idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+        
+        public int getMaxNavigations() {
+            return maxNavigations;
+        }
+        
+        public void setMaxNavigations(int maxNavigations) {
+            this.maxNavigations = maxNavigations;
+        }
+        
+        public int getMaxRssMb() {
+            return maxRssMb;
+        }
+        
+        public void setMaxRssMb(int maxRssMb) {
+            this.maxRssMb = maxRssMb;
+        }
+        
+        public int getValidationInterval() {
+            return validationInterval;
+        }
+        
+        public void setValidationInterval(int validationInterval) {
+            this.validationInterval = validationInterval;
+        }
+    }
+    
+    public static class Session {
+        private boolean warm = false;
+        private String originUrl = "https://www.popmart.com/us";
+        private int refreshInterval = 1800;
+        
+        public boolean isWarm() {
+            return warm;
+        }
+        
+        public void setWarm(boolean warm) {
+            this.warm = warm;
+        }
+        
+        public String getOriginUrl() {
+            return originUrl;
+        }
+        
+        public void setOriginUrl(String originUrl) {
+            this.originUrl = originUrl;
+        }
+        
+        public int getRefreshInterval() {
+            return refreshInterval;
+        }
+        
+        public void setRefreshInterval(int refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
     }
     
     public static class Performance {
@@ -209,6 +578,730 @@ public class PopMartConfig {
         }
     }
     
+    public static class FastPath {
+        private boolean enabled = true;
+        private int connectTimeout = 2000;
+        private int responseTimeout = 3000;
+        private int maxConnections = 50;
+        private int maxConnectionsPerRoute = 20;
+        private boolean conditionalRequests = true;
+        private int fingerprintMaxAge = 300;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+        
+        public void setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+        
+        public int getResponseTimeout() {
+            return responseTimeout;
+        }
+        
+        public void setResponseTimeout(int responseTimeout) {
+            this.responseTimeout = responseTimeout;
+        }
+        
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+        
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+        
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+        
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+        
+        public boolean isConditionalRequests() {
+            return conditionalRequests;
+        }
+        
+        public void setConditionalRequests(boolean conditionalRequests) {
+            this.conditionalRequests = conditionalRequests;
+        }
+        
+        public int getFingerprintMaxAge() {
+            return fingerprintMaxAge;
+        }
+        
+        public void setFingerprintMaxAge(int fingerprintMaxAge) {
+            this.fingerprintMaxAge = fingerprintMaxAge;
+        }
+    }
+    
+    public static class ProductApi {
+        private String baseUrl = "https://prod-na-api.popmart.com";
+        private String detailPath = "/shop/v1/shop/productDetails?spuId={productId}";
+        private Map<String, String> headers = new HashMap<>();
+        
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+        
+        public void setBaseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+        }
+        
+        public String getDetailPath() {
+            return detailPath;
+        }
+        
+        public void setDetailPath(String detailPath) {
+            this.detailPath = detailPath;
+        }
+        
+        public Map<String, String> getHeaders() {
+            return headers;
+        }
+        
+        public void setHeaders(Map<String, String> headers) {
+            this.headers = headers;
+        }
+    }
+    
+    public static class ResultCache {
+        private int maxSize = 1000;
+        private int minTtl = 5;
+        private int maxTtl = 300;
+        private int inStockTtl = 1;
+        private int errorTtl = 15;
+        
+        public int getMaxSize() {
+            return maxSize;
+        }
+        
+        public void setMaxSize(int maxSize) {
+            this.maxSize = maxSize;
+        }
+        
+        public int getMinTtl() {
+            return minTtl;
+        }
+        
+        public void setMinTtl(int minTtl) {
+            this.minTtl = minTtl;
+        }
+        
+        public int getMaxTtl() {
+            return maxTtl;
+        }
+        
+        public void setMaxTtl(int maxTtl) {
+            this.maxTtl = maxTtl;
+        }
+        
+        public int getInStockTtl() {
+            return inStockTtl;
+        }
+        
+        public void setInStockTtl(int inStockTtl) {
+            this.inStockTtl = inStockTtl;
+        }
+        
+        public int getErrorTtl() {
+            return errorTtl;
+        }
+        
+        public void setErrorTtl(int errorTtl) {
+            this.errorTtl = errorTtl;
+        }
+
+    }
+    
+    public static class Probe {
+        private boolean enabled = true;
+        private int refreshInterval = 45;
+        private int maxStaleness = 300;
+        private int timeout = 3000;
+        private int maxConnections = 20;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getRefreshInterval() {
+            return refreshInterval;
+        }
+        
+        public void setRefreshInterval(int refreshInterval) {
+            this.refreshInterval = refreshInterval;
+        }
+        
+        public int getMaxStaleness() {
+            return maxStaleness;
+        }
+        
+        public void setMaxStaleness(int maxStaleness) {
+            this.maxStaleness = maxStaleness;
+        }
+        
+        public int getTimeout() {
+            return timeout;
+        }
+        
+        public void setTimeout(int timeout) {
+            this.timeout = timeout;
+        }
+        
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+        
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+    }
+    
+    public static class RateLimit {
+        private boolean enabled = true;
+        private double requestsPerSecond = 2.0;
+        private int burst = 5;
+        private int maxWait = 10;
+        private double minRequestsPerSecond = 0.2;
+        private int backoffBase = 2;
+        private int backoffMax = 60;
+        private int retryAfterMax = 120;
+        private List<String> exemptHosts = new ArrayList<>(Arrays.asList("localhost", "127.0.0.1"));
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+        
+        public void setRequestsPerSecond(double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+        }
+        
+        public int getBurst() {
+            return burst;
+        }
+        
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+        
+        public int getMaxWait() {
+            return maxWait;
+        }
+        
+        public void setMaxWait(int maxWait) {
+            this.maxWait = maxWait;
+        }
+        
+        public double getMinRequestsPerSecond() {
+            return minRequestsPerSecond;
+        }
+        
+        public void setMinRequestsPerSecond(double minRequestsPerSecond) {
+            this.minRequestsPerSecond = minRequestsPerSecond;
+        }
+        
+        public int getBackoffBase() {
+            return backoffBase;
+        }
+        
+        public void setBackoffBase(int backoffBase) {
+            this.backoffBase = backoffBase;
+        }
+        
+        public int getBackoffMax() {
+            return backoffMax;
+        }
+        
+        public void setBackoffMax(int backoffMax) {
+            this.backoffMax = backoffMax;
+        }
+        
+        public int getRetryAfterMax() {
+            return retryAfterMax;
+        }
+        
+        public void setRetryAfterMax(int retryAfterMax) {
+            this.retryAfterMax = retryAfterMax;
+        }
+        
+        public List<String> getExemptHosts() {
+            return exemptHosts;
+        }
+        
+        public void setExemptHosts(List<String> exemptHosts) {
+            this.exemptHosts = exemptHosts;
+        }
+    }
+    
+    public static class Resilience {
+        private int failureRateThreshold = 50;
+        private int minimumCalls = 5;
+        private int slidingWindowSize = 20;
+        private int openDuration = 30;
+        private int halfOpenCalls = 2;
+        private int browserConcurrency = 5;
+        private int httpConcurrency = 20;
+        private int bulkheadMaxWait = 2000;
+        
+        public int getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+        
+        public void setFailureRateThreshold(int failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+        
+        public int getMinimumCalls() {
+            return minimumCalls;
+        }
+        
+        public void setMinimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+        }
+        
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+        
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+        
+        public int getOpenDuration() {
+            return openDuration;
+        }
+        
+        public void setOpenDuration(int openDuration) {
+            this.openDuration = openDuration;
+        }
+        
+        public int getHalfOpenCalls() {
+            return halfOpenCalls;
+        }
+        
+        public void setHalfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+        }
+        
+        public int getBrowserConcurrency() {
+            return browserConcurrency;
+        }
+        
+        public void setBrowserConcurrency(int browserConcurrency) {
+            this.browserConcurrency = browserConcurrency;
+        }
+        
+        public int getHttpConcurrency() {
+            return httpConcurrency;
+        }
+        
+        public void setHttpConcurrency(int httpConcurrency) {
+            this.httpConcurrency = httpConcurrency;
+        }
+        
+        public int getBulkheadMaxWait() {
+            return bulkheadMaxWait;
+        }
+        
+        public void setBulkheadMaxWait(int bulkheadMaxWait) {
+            this.bulkheadMaxWait = bulkheadMaxWait;
+        }
+    }
+    
+    public static class Batch {
+        private int navigationsPerDriver = 10;
+        private int prefetchConcurrency = 10;
+        
+        public int getNavigationsPerDriver() {
+            return navigationsPerDriver;
+        }
+        
+        public void setNavigationsPerDriver(int navigationsPerDriver) {
+            this.navigationsPerDriver = navigationsPerDriver;
+        }
+        
+        public int getPrefetchConcurrency() {
+            return prefetchConcurrency;
+        }
+        
+        public void setPrefetchConcurrency(int prefetchConcurrency) {
+            this.prefetchConcurrency = prefetchConcurrency;
+        }
+    }
+    
+    public static class Hedging {
+        private boolean enabled = true;
+        private int percentile = 95;
+        private int windowSize = 200;
+        private int minSamples = 20;
+        private long minDelay = 100;
+        private long httpDelay = 1000;
+        private long browserDelay = 10000;
+        private double budgetRatio = 0.1;
+        private int budgetBurst = 5;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getPercentile() {
+            return percentile;
+        }
+        
+        public void setPercentile(int percentile) {
+            this.percentile = percentile;
+        }
+        
+        public int getWindowSize() {
+            return windowSize;
+        }
+        
+        public void setWindowSize(int windowSize) {
+            this.windowSize = windowSize;
+        }
+        
+        public int getMinSamples() {
+            return minSamples;
+        }
+        
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+        
+        public long getMinDelay() {
+            return minDelay;
+        }
+        
+        public void setMinDelay(long minDelay) {
+            this.minDelay = minDelay;
+        }
+        
+        public long getHttpDelay() {
+            return httpDelay;
+        }
+        
+        public void setHttpDelay(long httpDelay) {
+            this.httpDelay = httpDelay;
+        }
+        
+        public long getBrowserDelay() {
+            return browserDelay;
+        }
+        
+        public void setBrowserDelay(long browserDelay) {
+            this.browserDelay = browserDelay;
+        }
+        
+        public double getBudgetRatio() {
+            return budgetRatio;
+        }
+        
+        public void setBudgetRatio(double budgetRatio) {
+            this.budgetRatio = budgetRatio;
+        }
+        
+        public int getBudgetBurst() {
+            return budgetBurst;
+        }
+        
+        public void setBudgetBurst(int budgetBurst) {
+            this.budgetBurst = budgetBurst;
+        }
+    }
+    
+    public static class ParkedTabs {
+        private boolean enabled = false;
+        private int maxTabs = 2;
+        private int pollInterval = 5;
+        private int reloadAfter = 720;
+        private int maxFailures = 3;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getMaxTabs() {
+            return maxTabs;
+        }
+        
+        public void setMaxTabs(int maxTabs) {
+            this.maxTabs = maxTabs;
+        }
+        
+        public int getPollInterval() {
+            return pollInterval;
+        }
+        
+        public void setPollInterval(int pollInterval) {
+            this.pollInterval = pollInterval;
+        }
+        
+        public int getReloadAfter() {
+            return reloadAfter;
+        }
+        
+        public void setReloadAfter(int reloadAfter) {
+            this.reloadAfter = reloadAfter;
+        }
+        
+        public int getMaxFailures() {
+            return maxFailures;
+        }
+        
+        public void setMaxFailures(int maxFailures) {
+            this.maxFailures = maxFailures;
+        }
+    }
+    
+    public static class Listing {
+        private boolean enabled = true;
+        private List<String> pages = new ArrayList<>();
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public List<String> getPages() {
+            return pages;
+        }
+        
+        public void setPages(List<String> pages) {
+            this.pages = pages;
+        }
+    }
+    
+    public static class Discovery {
+        private boolean enabled = true;
+        private int interval = 600;
+        private List<String> pages = new ArrayList<>();
+        private List<String> keywords = new ArrayList<>();
+        private int maxDepth = 3;
+        private String pageParam = "page";
+        private int expectedProducts = 100000;
+        private double falsePositiveRate = 0.000001;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getInterval() {
+            return interval;
+        }
+        
+        public void setInterval(int interval) {
+            this.interval = interval;
+        }
+        
+        public List<String> getPages() {
+            return pages;
+        }
+        
+        public void setPages(List<String> pages) {
+            this.pages = pages;
+        }
+        
+        public List<String> getKeywords() {
+            return keywords;
+        }
+        
+        public void setKeywords(List<String> keywords) {
+            this.keywords = keywords;
+        }
+        
+        public int getMaxDepth() {
+            return maxDepth;
+        }
+        
+        public void setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+        }
+        
+        public String getPageParam() {
+            return pageParam;
+        }
+        
+        public void setPageParam(String pageParam) {
+            this.pageParam = pageParam;
+        }
+        
+        public int getExpectedProducts() {
+            return expectedProducts;
+        }
+        
+        public void setExpectedProducts(int expectedProducts) {
+            this.expectedProducts = expectedProducts;
+        }
+        
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+        
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+    }
+    
+    public static class Replay {
+        private boolean enabled = false;
+        private int port = 18089;
+        private String fixtureDir = "";
+        private int latencyMin = 50;
+        private int latencyMax = 300;
+        private double errorRate = 0.0;
+        private double throttleRate = 0.0;
+        private int retryAfter = 2;
+        private long seed = 42L;
+        private int threads = 16;
+        
+        public boolean isEnabled() {
+            return enabled;
+        }
+        
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+        
+        public int getPort() {
+            return port;
+        }
+        
+        public void setPort(int port) {
+            this.port = port;
+        }
+        
+        public String getFixtureDir() {
+            return fixtureDir;
+        }
+        
+        public void setFixtureDir(String fixtureDir) {
+            this.fixtureDir = fixtureDir;
+        }
+        
+        public int getLatencyMin() {
+            return latencyMin;
+        }
+        
+        public void setLatencyMin(int latencyMin) {
+            this.latencyMin = latencyMin;
+        }
+        
+        public int getLatencyMax() {
+            return latencyMax;
+        }
+        
+        public void setLatencyMax(int latencyMax) {
+            this.latencyMax = latencyMax;
+        }
+        
+        public double getErrorRate() {
+            return errorRate;
+        }
+        
+        public void setErrorRate(double errorRate) {
+            this.errorRate = errorRate;
+        }
+        
+        public double getThrottleRate() {
+            return throttleRate;
+        }
+        
+        public void setThrottleRate(double throttleRate) {
+            this.throttleRate = throttleRate;
+        }
+        
+        public int getRetryAfter() {
+            return retryAfter;
+        }
+        
+        public void setRetryAfter(int retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+        
+        public long getSeed() {
+            return seed;
+        }
+        
+        public void setSeed(long seed) {
+            this.seed = seed;
+        }
+        
+        public int getThreads() {
+            return threads;
+        }
+        
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+    }
+    
+    public static class LoadTest {
+        private int maxConcurrency = 32;
+        private int maxRequests = 5000;
+        private int timeout = 600;
+        
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+        
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+        
+        public int getMaxRequests() {
+            return maxRequests;
+        }
+        
+        public void setMaxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+        }
+        
+        public int getTimeout() {
+            return timeout;
+        }
+        
+        public void setTimeout(int timeout) {
+            this.timeout = timeout;
+        }
+    }
+    
     public static class Notification {
         private String type = "log";
         private DiscordNotification discord = new DiscordNotification();
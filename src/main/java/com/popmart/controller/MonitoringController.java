@@ -1,12 +1,15 @@
 package com.popmart.controller;
 
 import com.popmart.dto.request.AddProductRequest;
+import com.popmart.dto.request.PerformanceTestRequest;
 import com.popmart.dto.request.TestProductRequest;
 import com.popmart.dto.response.ApiResponse;
 import com.popmart.dto.response.MonitoringStats;
+import com.popmart.dto.response.PerformanceTestResult;
 import com.popmart.dto.response.TestStockResponse;
 import com.popmart.entity.MonitoredProduct;
 import com.popmart.entity.StockCheckHistory;
+import com.popmart.service.LoadTestService;
 import com.popmart.service.MonitoringService;
 import com.popmart.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +31,9 @@ public class MonitoringController {
     @Autowired
     private NotificationService notificationService;
     
+    @Autowired
+    private LoadTestService loadTestService;
+    
     @GetMapping("/products")
     public ResponseEntity<ApiResponse<List<MonitoredProduct>>> getAllProducts() {
         List<MonitoredProduct> products = monitoringService.getAllActiveProducts();
@@ -46,7 +52,8 @@ public class MonitoringController {
             MonitoredProduct product = monitoringService.addProduct(
                 request.getUrl(), 
                 request.getProductName(), 
-                request.getUserId()
+                request.getUserId(),
+                request.getStockSource()
             );
             return ResponseEntity.ok(ApiResponse.success("商品添加成功", product));
         } catch (Exception e) {
@@ -133,4 +140,14 @@ public class MonitoringController {
             return ResponseEntity.badRequest().body(ApiResponse.error(400, "发送 Discord 测试通知失败: " + e.getMessage()));
         }
     }
+    
+    @PostMapping("/load-test")
+    public ResponseEntity<ApiResponse<PerformanceTestResult>> runLoadTest(@Valid @RequestBody PerformanceTestRequest request) {
+        try {
+            PerformanceTestResult result = loadTestService.run(request);
+            return ResponseEntity.ok(ApiResponse.success("压测完成", result));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, "压测失败: " + e.getMessage()));
+        }
+    }
 } 
\ No newline at end of file
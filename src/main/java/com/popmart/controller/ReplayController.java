@@ -0,0 +1,51 @@
+package com.popmart.controller;
+
+import com.popmart.dto.response.ApiResponse;
+import com.popmart.service.ReplayFixtureServer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * 离线回放服务器接口，仅在 popmart.monitor.replay.enabled 时注册
+ */
+@RestController
+@RequestMapping("/api/monitor")
+@CrossOrigin(origins = "*")
+@ConditionalOnProperty(name = "popmart.monitor.replay.enabled", havingValue = "true")
+public class ReplayController {
+    
+    @Autowired
+    private ReplayFixtureServer replayFixtureServer;
+    
+    @GetMapping("/replay/fixtures")
+    public ResponseEntity<ApiResponse<Map<String, String>>> getReplayFixtures() {
+        if (!replayFixtureServer.isRunning()) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, "回放服务器未启动"));
+        }
+        return ResponseEntity.ok(ApiResponse.success(replayFixtureServer.getFixtureUrls()));
+    }
+    
+    @PostMapping("/replay/start")
+    public ResponseEntity<ApiResponse<Map<String, String>>> startReplayServer() {
+        try {
+            replayFixtureServer.start();
+            return ResponseEntity.ok(ApiResponse.success("回放服务器已启动", replayFixtureServer.getFixtureUrls()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, "启动回放服务器失败: " + e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/replay/record")
+    public ResponseEntity<ApiResponse<String>> recordReplayFixture(@RequestParam String name, @RequestParam String url) {
+        try {
+            int size = replayFixtureServer.record(name, url);
+            return ResponseEntity.ok(ApiResponse.success("页面录制完成", name + " (" + size + " bytes)"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, "录制页面失败: " + e.getMessage()));
+        }
+    }
+}
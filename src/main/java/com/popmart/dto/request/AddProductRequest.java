@@ -29,4 +29,10 @@ public class AddProductRequest {
      */
     @NotBlank(message = "用户 ID 不能为空")
     private String userId;
+    
+    /**
+     * 库存数据源（browser / api，可选）
+     */
+    @Pattern(regexp = "^(browser|api)$", message = "数据源只能是 browser 或 api")
+    private String stockSource;
 } 
\ No newline at end of file
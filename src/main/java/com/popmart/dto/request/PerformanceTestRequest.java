@@ -0,0 +1,53 @@
+package com.popmart.dto.request;
+
+import lombok.Data;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+/**
+ * 并发压测请求
+ */
+@Data
+public class PerformanceTestRequest {
+    
+    /**
+     * 压测的 URL（可以是回放服务器的样本地址）
+     */
+    @NotEmpty(message = "URL 列表不能为空")
+    private List<String> urls;
+    
+    /**
+     * 各 URL 的权重，为空时均匀选取
+     */
+    private List<Integer> weights;
+    
+    /**
+     * 并发数（同时进行的检查数）
+     */
+    @Min(value = 1, message = "并发数至少为 1")
+    private Integer concurrency = 4;
+    
+    /**
+     * 计入统计的请求数
+     */
+    @Min(value = 1, message = "请求数至少为 1")
+    private Integer requests = 100;
+    
+    /**
+     * 预热请求数（不计入统计）
+     */
+    @Min(value = 0, message = "预热请求数不能为负数")
+    private Integer warmupRequests = 10;
+    
+    /**
+     * 跳过结果缓存和条件请求，每次都实际获取页面
+     */
+    private Boolean bypassCache = true;
+    
+    /**
+     * 跳过 HTTP 快速路径，只测浏览器检查
+     */
+    private Boolean browserOnly = false;
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 /**
  * 性能测试结果
  */
@@ -15,7 +17,7 @@ import lombok.NoArgsConstructor;
 public class PerformanceTestResult {
     
     /**
-     * 总测试次数
+     * 总测试次数（不含预热）
      */
     private Integer totalIterations;
     
@@ -29,6 +31,21 @@ public class PerformanceTestResult {
      */
     private Integer errorCount;
     
+    /**
+     * 并发数
+     */
+    private Integer concurrency;
+    
+    /**
+     * 统计阶段耗时（毫秒）
+     */
+    private Long durationMillis;
+    
+    /**
+     * 吞吐量（每秒完成的检查数）
+     */
+    private Double throughput;
+    
     /**
      * 平均响应时间（毫秒）
      */
@@ -44,6 +61,26 @@ public class PerformanceTestResult {
      */
     private Long maxTime;
     
+    /**
+     * 端到端响应时间分布
+     */
+    private LatencySummary latency;
+    
+    /**
+     * WebDriver 池借出等待时间分布
+     */
+    private LatencySummary poolWait;
+    
+    /**
+     * 各检查阶段的耗时分布
+     */
+    private Map<String, LatencySummary> phases;
+    
+    /**
+     * 错误信息 -> 次数
+     */
+    private Map<String, Long> errors;
+    
     /**
      * 成功率（百分比）
      */
@@ -56,7 +93,26 @@ public class PerformanceTestResult {
     
     @Override
     public String toString() {
-        return String.format("PerformanceTest[iterations=%d, success=%d, errors=%d, avgTime=%.1fms, minTime=%dms, maxTime=%dms, successRate=%.1f%%]",
-            totalIterations, successCount, errorCount, averageTime, minTime, maxTime, getSuccessRate());
+        return String.format("PerformanceTest[iterations=%d, concurrency=%d, success=%d, errors=%d, throughput=%.2f/s, "
+                + "avgTime=%.1fms, p50=%.1fms, p95=%.1fms, p99=%.1fms, p999=%.1fms, maxTime=%dms, successRate=%.1f%%]",
+            totalIterations, concurrency, successCount, errorCount, throughput, averageTime,
+            latency.getP50(), latency.getP95(), latency.getP99(), latency.getP999(), maxTime, getSuccessRate());
+    }
+    
+    /**
+     * 耗时分布（毫秒）
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LatencySummary {
+        private Long count;
+        private Double mean;
+        private Double p50;
+        private Double p95;
+        private Double p99;
+        private Double p999;
+        private Double max;
     }
-} 
\ No newline at end of file
+}
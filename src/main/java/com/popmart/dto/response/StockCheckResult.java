@@ -1,10 +1,13 @@
 package com.popmart.dto.response;
 
+import com.popmart.service.NetworkBudgetInterceptor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 /**
  * 库存检查结果
  */
@@ -29,6 +32,64 @@ public class StockCheckResult {
      */
     private String errorMessage;
     
+    /**
+     * 各阶段耗时（毫秒，按执行顺序）
+     */
+    private Map<String, Long> phaseTimings;
+    
+    /**
+     * 浏览器检查的网络统计（请求数、字节数、屏蔽数），未经浏览器检查时为 null
+     */
+    private NetworkBudgetInterceptor.NetworkStats networkStats;
+    
+    /**
+     * 是否为本地拒绝（限流、舱壁、熔断或检查被中断），请求未到达站点
+     */
+    private boolean rejected;
+    
+    /**
+     * 无法判定库存的结果（检查失败、熔断或限流）
+     */
+    public static StockCheckResult unknown(String errorMessage, int responseTime) {
+        return StockCheckResult.builder()
+            .responseTime(responseTime)
+            .errorMessage(errorMessage != null ? errorMessage : "库存状态未知")
+            .build();
+    }
+    
+    /**
+     * 本地拒绝的未知结果：请求未到达站点，不作为站点错误缓存
+     */
+    public static StockCheckResult rejected(String errorMessage, int responseTime) {
+        StockCheckResult result = unknown(errorMessage, responseTime);
+        result.setRejected(true);
+        return result;
+    }
+    
+    /**
+     * 库存是否未知
+     */
+    public boolean isUnknown() {
+        return inStock == null;
+    }
+    
+    /**
+     * 各阶段耗时的 JSON 表示，用于写入历史记录
+     */
+    public String formatPhaseTimings() {
+        if (phaseTimings == null || phaseTimings.isEmpty()) {
+            return null;
+        }
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, Long> entry : phaseTimings.entrySet()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append('"').append(entry.getKey()).append("\":").append(entry.getValue());
+        }
+        return json.append('}').toString();
+    }
+    
     /**
      * 是否有错误
      */
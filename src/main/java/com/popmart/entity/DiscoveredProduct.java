@@ -0,0 +1,108 @@
+package com.popmart.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import java.time.LocalDateTime;
+
+@TableName("discovered_products")
+public class DiscoveredProduct {
+    
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    
+    @TableField("product_id")
+    private String productId;
+    
+    @TableField("url")
+    private String url;
+    
+    @TableField("title")
+    private String title;
+    
+    @TableField("source_page")
+    private String sourcePage;
+    
+    @TableField("enrolled")
+    private Boolean enrolled = false;
+    
+    @TableField("first_seen_at")
+    private LocalDateTime firstSeenAt;
+    
+    public DiscoveredProduct() {
+        this.firstSeenAt = LocalDateTime.now();
+    }
+    
+    public DiscoveredProduct(String productId, String url, String title, String sourcePage) {
+        this();
+        this.productId = productId;
+        this.url = url;
+        this.title = title;
+        this.sourcePage = sourcePage;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    public void setUrl(String url) {
+        this.url = url;
+    }
+    
+    public String getTitle() {
+        return title;
+    }
+    
+    public void setTitle(String title) {
+        this.title = title;
+    }
+    
+    public String getSourcePage() {
+        return sourcePage;
+    }
+    
+    public void setSourcePage(String sourcePage) {
+        this.sourcePage = sourcePage;
+    }
+    
+    public Boolean getEnrolled() {
+        return enrolled;
+    }
+    
+    public void setEnrolled(Boolean enrolled) {
+        this.enrolled = enrolled;
+    }
+    
+    public LocalDateTime getFirstSeenAt() {
+        return firstSeenAt;
+    }
+    
+    public void setFirstSeenAt(LocalDateTime firstSeenAt) {
+        this.firstSeenAt = firstSeenAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "DiscoveredProduct{" +
+                "id=" + id +
+                ", productId='" + productId + '\'' +
+                ", title='" + title + '\'' +
+                ", enrolled=" + enrolled +
+                '}';
+    }
+}
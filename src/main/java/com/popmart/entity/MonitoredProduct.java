@@ -39,6 +39,9 @@ public class MonitoredProduct {
     @TableField("added_by_user_id")
     private String addedByUserId;
     
+    @TableField("stock_source")
+    private String stockSource;
+    
     @TableLogic
     @TableField("deleted")
     private Integer deleted = 0;
@@ -144,6 +147,14 @@ public class MonitoredProduct {
         this.addedByUserId = addedByUserId;
     }
     
+    public String getStockSource() {
+        return stockSource;
+    }
+    
+    public void setStockSource(String stockSource) {
+        this.stockSource = stockSource;
+    }
+    
     public Integer getDeleted() {
         return deleted;
     }
@@ -162,6 +173,7 @@ public class MonitoredProduct {
                 ", isActive=" + isActive +
                 ", lastKnownStock=" + lastKnownStock +
                 ", lastCheckedAt=" + lastCheckedAt +
+                ", stockSource='" + stockSource + '\'' +
                 '}';
     }
 } 
\ No newline at end of file
@@ -27,6 +27,9 @@ public class StockCheckHistory {
     @TableField("stock_changed")
     private Boolean stockChanged = false;
     
+    @TableField("phase_timings")
+    private String phaseTimings; // JSON, phase -> milliseconds
+    
     public StockCheckHistory() {
         this.checkedAt = LocalDateTime.now();
     }
@@ -101,6 +104,14 @@ public class StockCheckHistory {
         this.stockChanged = stockChanged;
     }
     
+    public String getPhaseTimings() {
+        return phaseTimings;
+    }
+    
+    public void setPhaseTimings(String phaseTimings) {
+        this.phaseTimings = phaseTimings;
+    }
+    
     @Override
     public String toString() {
         return "StockCheckHistory{" +
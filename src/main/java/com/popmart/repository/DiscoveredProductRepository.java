@@ -0,0 +1,30 @@
+package com.popmart.repository;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.popmart.entity.DiscoveredProduct;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+@Mapper
+public interface DiscoveredProductRepository extends BaseMapper<DiscoveredProduct> {
+    
+    @Select("SELECT product_id FROM discovered_products")
+    List<String> findAllProductIds();
+    
+    /**
+     * 插入新发现的商品，已存在时忽略
+     *
+     * @return 实际插入的行数（已存在时为 0）
+     */
+    @Insert("INSERT IGNORE INTO discovered_products (product_id, url, title, source_page, enrolled, first_seen_at) " +
+            "VALUES (#{productId}, #{url}, #{title}, #{sourcePage}, #{enrolled}, #{firstSeenAt})")
+    int insertIgnore(DiscoveredProduct product);
+    
+    @Update("UPDATE discovered_products SET enrolled = 1 WHERE product_id = #{productId}")
+    int markEnrolled(@Param("productId") String productId);
+}
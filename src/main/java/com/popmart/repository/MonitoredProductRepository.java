@@ -35,4 +35,7 @@ public interface MonitoredProductRepository extends BaseMapper<MonitoredProduct>
 
     @Select("SELECT * FROM monitored_products WHERE product_id = #{productId} AND deleted = 0")
     Optional<MonitoredProduct> findByProductId(@Param("productId") String productId);
+
+    @Select("SELECT product_id FROM monitored_products WHERE product_id IS NOT NULL AND deleted = 0")
+    List<String> findAllProductIds();
 } 
\ No newline at end of file
@@ -21,9 +21,13 @@ public interface StockCheckHistoryRepository extends BaseMapper<StockCheckHistor
     @Select("SELECT * FROM stock_check_history WHERE product_id = #{productId} AND checked_at >= #{since} ORDER BY checked_at DESC")
     List<StockCheckHistory> findByProductIdSince(@Param("productId") Long productId, @Param("since") LocalDateTime since);
     
+    @Select("SELECT COUNT(*) FROM stock_check_history WHERE product_id = #{productId} AND stock_changed = 1")
+    int countStockChangesByProductId(@Param("productId") Long productId);
+    
     @Select("SELECT * FROM stock_check_history WHERE stock_changed = 1 AND checked_at >= #{since} ORDER BY checked_at DESC")
     List<StockCheckHistory> findStockChangesAfter(@Param("since") LocalDateTime since);
     
     @Select("SELECT * FROM stock_check_history WHERE product_id = #{productId} ORDER BY checked_at DESC LIMIT 10")
     List<StockCheckHistory> findLatestByProductId(@Param("productId") Long productId);
+
 } 
\ No newline at end of file
@@ -0,0 +1,664 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import com.popmart.utils.ChromeProcessInspector;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.chromium.HasCdp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单浏览器多上下文池
+ *
+ * 少量 Chrome 进程内通过 CDP 创建多个隔离的浏览器上下文（各自独立的 Cookie 和存储），
+ * 借出的是绑定到某个上下文的轻量 WebDriver 代理。共享浏览器使用 NONE 页面加载策略，
+ * 各上下文的页面加载并行进行，只有短小的 WebDriver 命令在同一浏览器内串行执行。
+ * 开启会话保温时，各上下文创建后先访问站点首页，归还时保留 Cookie。
+ */
+@Component
+@ConditionalOnProperty(name = "popmart.monitor.selenium.pool.mode", havingValue = "context")
+public class BrowserContextPool implements DriverPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrowserContextPool.class);
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private WebDriverFactory webDriverFactory;
+
+    @Autowired
+    private SessionWarmer sessionWarmer;
+
+    private final List<BrowserHost> hosts = new CopyOnWriteArrayList<>();
+    private final LinkedBlockingQueue<BrowserContext> idleContexts = new LinkedBlockingQueue<>();
+    private final Map<WebDriver, BrowserContext> leasedContexts = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "browser-context-pool-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService replenishExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "browser-context-pool-replenish");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean closed = false;
+
+    private volatile boolean warmingUp = false;
+
+    @PostConstruct
+    public void initialize() {
+        PopMartConfig.Pool pool = getPoolConfig();
+        logger.info("Initializing browser context pool ({} browsers x {} contexts), browsers start after application is ready",
+            pool.getBrowsers(), pool.getContextsPerBrowser());
+
+        int interval = pool.getValidationInterval();
+        maintenanceExecutor.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 应用就绪后在后台启动共享浏览器，不阻塞启动；启动完成前借出请求等待空闲上下文
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        warmingUp = true;
+        replenishExecutor.execute(() -> {
+            try {
+                long startTime = System.currentTimeMillis();
+                for (int i = 0; i < getPoolConfig().getBrowsers() && !closed; i++) {
+                    try {
+                        startHost();
+                    } catch (Exception e) {
+                        logger.error("Failed to start shared browser: {}", e.getMessage());
+                    }
+                }
+                logger.info("Browser context pool warmed up with {} contexts in {}ms",
+                    idleContexts.size(), System.currentTimeMillis() - startTime);
+            } finally {
+                warmingUp = false;
+            }
+        });
+    }
+
+    @Override
+    public WebDriver borrow() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(getPoolConfig().getBorrowTimeout());
+
+        while (!closed) {
+            long remaining = deadline - System.nanoTime();
+            BrowserContext context = idleContexts.poll(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+            if (context == null) {
+                break;
+            }
+
+            // 所属浏览器已失效或正在退役的上下文不再借出
+            if (!context.getHost().isUsable()) {
+                context.getHost().removeContext(context);
+                retireHostIfDrained(context.getHost());
+                continue;
+            }
+
+            leasedContexts.put(context.getDriver(), context);
+            return context.getDriver();
+        }
+
+        throw new RuntimeException("无法获取可用的浏览器上下文，请稍后重试");
+    }
+
+    @Override
+    public void release(WebDriver driver) {
+        BrowserContext context = leasedContexts.remove(driver);
+        if (context == null) {
+            return;
+        }
+
+        BrowserHost host = context.getHost();
+        if (context.endLease() == 0) {
+            host.incrementNavigations();
+        }
+        if (closed || !host.isUsable()) {
+            host.removeContext(context);
+            retireHostIfDrained(host);
+            return;
+        }
+
+        try {
+            // 导航到空白页释放页面占用的内存和后台活动，会话保温时保留 Cookie
+            if (!sessionWarmer.keepCookies()) {
+                clearCookies(context);
+            }
+            driver.get("about:blank");
+            idleContexts.offer(context);
+        } catch (Exception e) {
+            logger.warn("浏览器上下文已失效，关闭并重建: {}", e.getMessage());
+            discard(context);
+        }
+
+        if (host.getNavigations() >= getMaxHostNavigations()) {
+            logger.info("Retiring shared browser after {} navigations", host.getNavigations());
+            retire(host);
+        }
+    }
+
+    @Override
+    public boolean recordNavigation(WebDriver driver) {
+        BrowserContext context = leasedContexts.get(driver);
+        if (context == null) {
+            return false;
+        }
+        context.markNavigated();
+        BrowserHost host = context.getHost();
+        host.incrementNavigations();
+        return !closed && host.isUsable() && host.getNavigations() < getMaxHostNavigations();
+    }
+
+    /**
+     * 共享浏览器的导航上限（按单实例上限乘以上下文数）
+     */
+    private int getMaxHostNavigations() {
+        return getPoolConfig().getMaxNavigations() * getPoolConfig().getContextsPerBrowser();
+    }
+
+    @Override
+    public void invalidate(WebDriver driver) {
+        BrowserContext context = leasedContexts.remove(driver);
+        if (context != null) {
+            discard(context);
+        }
+    }
+
+    @Override
+    public int getTotalCount() {
+        int total = 0;
+        for (BrowserHost host : hosts) {
+            total += host.getContextCount();
+        }
+        return total;
+    }
+
+    @Override
+    public int getIdleCount() {
+        return idleContexts.size();
+    }
+
+    @Override
+    public int getLeasedCount() {
+        return leasedContexts.size();
+    }
+
+    @Override
+    public boolean isWarmingUp() {
+        return warmingUp;
+    }
+
+    /**
+     * 启动一个共享浏览器并创建其全部上下文
+     */
+    private BrowserHost startHost() {
+        BrowserHost host = new BrowserHost(webDriverFactory.createSharedBrowser());
+        hosts.add(host);
+        for (int i = 0; i < getPoolConfig().getContextsPerBrowser(); i++) {
+            try {
+                idleContexts.offer(warm(openContext(host)));
+            } catch (Exception e) {
+                logger.error("Failed to open browser context: {}", e.getMessage());
+            }
+        }
+        logger.info("Shared browser started with {} contexts", host.getContextCount());
+        return host;
+    }
+
+    /**
+     * 在共享浏览器中创建隔离上下文，CDP 不可用时退化为共享 Cookie 的普通标签页
+     */
+    private BrowserContext openContext(BrowserHost host) {
+        synchronized (host.getLock()) {
+            WebDriver browser = host.getBrowser();
+            Set<String> before = new HashSet<>(browser.getWindowHandles());
+            String browserContextId = null;
+
+            try {
+                Map<String, Object> created = ((HasCdp) browser).executeCdpCommand(
+                    "Target.createBrowserContext", Collections.<String, Object>emptyMap());
+                browserContextId = (String) created.get("browserContextId");
+
+                Map<String, Object> params = new HashMap<>();
+                params.put("url", "about:blank");
+                params.put("browserContextId", browserContextId);
+                ((HasCdp) browser).executeCdpCommand("Target.createTarget", params);
+            } catch (Exception e) {
+                logger.debug("CDP browser context unavailable, falling back to tab: {}", e.getMessage());
+                browserContextId = null;
+                browser.switchTo().newWindow(WindowType.TAB);
+            }
+
+            Set<String> after = new HashSet<>(browser.getWindowHandles());
+            after.removeAll(before);
+            if (after.isEmpty()) {
+                throw new IllegalStateException("New browser context did not expose a window handle");
+            }
+
+            BrowserContext context = new BrowserContext(host, after.iterator().next(), browserContextId);
+            context.setDriver(createContextDriver(context));
+            host.addContext(context);
+            return context;
+        }
+    }
+
+    private BrowserContext warm(BrowserContext context) {
+        if (sessionWarmer.warm(context.getDriver())) {
+            context.markWarmed();
+        }
+        return context;
+    }
+
+    /**
+     * 刷新会话过旧的空闲上下文（刷新期间从空闲队列取出，不会被借出）
+     */
+    private void refreshIdleSessions() {
+        List<BrowserContext> stale = new ArrayList<>();
+        for (BrowserContext context : idleContexts) {
+            if (sessionWarmer.needsRefresh(context.getWarmedAt())) {
+                stale.add(context);
+            }
+        }
+        for (BrowserContext context : stale) {
+            if (idleContexts.remove(context)) {
+                warm(context);
+                idleContexts.offer(context);
+            }
+        }
+    }
+
+    /**
+     * 创建绑定到指定上下文的 WebDriver 代理：每条命令在浏览器锁内切换到对应窗口后执行
+     */
+    private WebDriver createContextDriver(BrowserContext context) {
+        return (WebDriver) Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[]{WebDriver.class, JavascriptExecutor.class, HasCapabilities.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "quit":
+                    case "close":
+                        // 上下文的生命周期由池管理
+                        return null;
+                    case "getWindowHandle":
+                        return context.getWindowHandle();
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "BrowserContext[" + context.getWindowHandle() + "]";
+                    default:
+                        break;
+                }
+                return invokeInContext(context, context.getHost().getBrowser(), method, args);
+            });
+    }
+
+    /**
+     * 在浏览器锁内切换到上下文窗口后执行命令
+     *
+     * 命令返回的 Selenium 对象（Options、Navigation、TargetLocator、WebElement 等）稍后才执行命令，
+     * 同样包装成代理，每次调用时重新切换窗口并加锁，不会作用到其他上下文的窗口上。
+     */
+    private Object invokeInContext(BrowserContext context, Object target, Method method, Object[] args) throws Throwable {
+        BrowserHost host = context.getHost();
+        Object result;
+        synchronized (host.getLock()) {
+            host.switchTo(context.getWindowHandle());
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if (target instanceof WebDriver.TargetLocator) {
+                    // 切换窗口或 frame 后不再假定当前窗口
+                    host.forgetCurrentWindow();
+                }
+            }
+        }
+        return wrapResult(context, method.getReturnType(), result);
+    }
+
+    private Object wrapResult(BrowserContext context, Class<?> type, Object result) {
+        if (result == null) {
+            return null;
+        }
+        if (result == context.getHost().getBrowser()) {
+            // switchTo().window() 等返回共享浏览器本身，换回上下文代理
+            return context.getDriver();
+        }
+        if (List.class.isAssignableFrom(type)) {
+            List<Object> wrapped = new ArrayList<>();
+            for (Object item : (List<?>) result) {
+                wrapped.add(item instanceof WebElement ? wrapResult(context, WebElement.class, item) : item);
+            }
+            return wrapped;
+        }
+        if (!type.isInterface() || !type.getName().startsWith("org.openqa.selenium.")) {
+            return result;
+        }
+
+        // WebElement 代理实现 WrapsElement，作为脚本参数传入时由 Selenium 还原为原始元素
+        Class<?>[] interfaces = result instanceof WebElement
+            ? new Class<?>[]{type, WrapsElement.class}
+            : new Class<?>[]{type};
+        return Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "getWrappedElement":
+                    return result;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return result.toString();
+                default:
+                    return invokeInContext(context, result, method, args);
+            }
+        });
+    }
+
+    /**
+     * 清除上下文的 Cookie：隔离上下文通过 CDP 按 browserContextId 清除，退化的标签页切换窗口后清除
+     */
+    private void clearCookies(BrowserContext context) {
+        BrowserHost host = context.getHost();
+        synchronized (host.getLock()) {
+            if (context.getBrowserContextId() != null) {
+                Map<String, Object> params = new HashMap<>();
+                params.put("browserContextId", context.getBrowserContextId());
+                ((HasCdp) host.getBrowser()).executeCdpCommand("Storage.clearCookies", params);
+            } else {
+                host.switchTo(context.getWindowHandle());
+                host.getBrowser().manage().deleteAllCookies();
+            }
+        }
+    }
+
+    /**
+     * 关闭上下文并在后台补一个新的
+     */
+    private void discard(BrowserContext context) {
+        BrowserHost host = context.getHost();
+        closeContext(context);
+        if (host.isUsable() && !closed) {
+            replenishExecutor.execute(() -> {
+                try {
+                    idleContexts.offer(warm(openContext(host)));
+                } catch (Exception e) {
+                    logger.warn("Failed to replenish browser context, checking browser: {}", e.getMessage());
+                    if (!host.isAlive()) {
+                        retire(host);
+                    }
+                }
+            });
+        }
+    }
+
+    private void closeContext(BrowserContext context) {
+        BrowserHost host = context.getHost();
+        host.removeContext(context);
+        synchronized (host.getLock()) {
+            try {
+                if (context.getBrowserContextId() != null) {
+                    Map<String, Object> params = new HashMap<>();
+                    params.put("browserContextId", context.getBrowserContextId());
+                    ((HasCdp) host.getBrowser()).executeCdpCommand("Target.disposeBrowserContext", params);
+                } else {
+                    host.switchTo(context.getWindowHandle());
+                    host.getBrowser().close();
+                }
+            } catch (Exception e) {
+                logger.debug("Error closing browser context: {}", e.getMessage());
+            } finally {
+                host.forgetCurrentWindow();
+            }
+        }
+    }
+
+    /**
+     * 退役浏览器：不再借出其上下文，待全部归还后关闭，并立即启动替代浏览器
+     */
+    private void retire(BrowserHost host) {
+        if (!host.markRetiring()) {
+            return;
+        }
+        if (!closed) {
+            replenishExecutor.execute(() -> {
+                try {
+                    startHost();
+                } catch (Exception e) {
+                    logger.error("Failed to start replacement browser: {}", e.getMessage());
+                }
+            });
+        }
+        retireHostIfDrained(host);
+    }
+
+    private void retireHostIfDrained(BrowserHost host) {
+        if (!host.isUsable()) {
+            // 清理仍在空闲队列中的上下文
+            List<BrowserContext> stale = new ArrayList<>();
+            for (BrowserContext context : idleContexts) {
+                if (context.getHost() == host) {
+                    stale.add(context);
+                }
+            }
+            for (BrowserContext context : stale) {
+                if (idleContexts.remove(context)) {
+                    host.removeContext(context);
+                }
+            }
+
+            if (host.getContextCount() == 0 && hosts.remove(host)) {
+                host.quit();
+                logger.info("Shared browser retired");
+            }
+        }
+    }
+
+    /**
+     * 后台维护：检查浏览器存活和内存，超限或失效的浏览器退役重建
+     */
+    private void maintain() {
+        if (closed) {
+            return;
+        }
+
+        try {
+            PopMartConfig.Pool pool = getPoolConfig();
+            List<String> dirs = new ArrayList<>();
+            for (BrowserHost host : hosts) {
+                if (host.getUserDataDir() != null) {
+                    dirs.add(host.getUserDataDir());
+                }
+            }
+            Map<String, Long> rssByDir = ChromeProcessInspector.measureRss(dirs);
+            long maxRssBytes = pool.getMaxRssMb() * 1024L * 1024L;
+
+            for (BrowserHost host : hosts) {
+                if (!host.isUsable()) {
+                    retireHostIfDrained(host);
+                    continue;
+                }
+                Long rss = host.getUserDataDir() != null ? rssByDir.get(host.getUserDataDir()) : null;
+                if (!host.isAlive()) {
+                    logger.warn("Shared browser is dead, replacing it");
+                    retire(host);
+                } else if (rss != null && rss > maxRssBytes) {
+                    logger.info("Retiring shared browser using {}MB RSS (limit {}MB)", rss / 1024 / 1024, pool.getMaxRssMb());
+                    retire(host);
+                }
+            }
+
+            refreshIdleSessions();
+
+            logger.debug("Browser context pool maintenance done: browsers={}, idle={}, leased={}",
+                hosts.size(), idleContexts.size(), leasedContexts.size());
+        } catch (Exception e) {
+            logger.error("Browser context pool maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private PopMartConfig.Pool getPoolConfig() {
+        return config.getMonitor().getSelenium().getPool();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.info("Closing all shared browsers");
+        closed = true;
+        maintenanceExecutor.shutdownNow();
+        replenishExecutor.shutdownNow();
+        idleContexts.clear();
+        leasedContexts.clear();
+        for (BrowserHost host : hosts) {
+            host.quit();
+        }
+        hosts.clear();
+        logger.info("All shared browsers closed");
+    }
+
+    /**
+     * 共享浏览器进程
+     */
+    private static class BrowserHost {
+        private final WebDriver browser;
+        private final String userDataDir;
+        private final Object lock = new Object();
+        private final Set<BrowserContext> contexts = ConcurrentHashMap.newKeySet();
+        private volatile String currentWindow;
+        private volatile boolean retiring = false;
+        private final AtomicInteger navigations = new AtomicInteger();
+
+        BrowserHost(WebDriver browser) {
+            this.browser = browser;
+            this.userDataDir = ChromeProcessInspector.getUserDataDir(browser);
+        }
+
+        /**
+         * 切换到目标窗口（调用方需持有 lock）
+         */
+        void switchTo(String windowHandle) {
+            if (!windowHandle.equals(currentWindow)) {
+                browser.switchTo().window(windowHandle);
+                currentWindow = windowHandle;
+            }
+        }
+
+        void forgetCurrentWindow() {
+            currentWindow = null;
+        }
+
+        boolean isAlive() {
+            synchronized (lock) {
+                try {
+                    browser.getWindowHandles();
+                    return true;
+                } catch (Exception e) {
+                    return false;
+                }
+            }
+        }
+
+        synchronized boolean markRetiring() {
+            if (retiring) {
+                return false;
+            }
+            retiring = true;
+            return true;
+        }
+
+        void quit() {
+            try {
+                browser.quit();
+            } catch (Exception e) {
+                logger.debug("Error closing shared browser: {}", e.getMessage());
+            }
+        }
+
+        void addContext(BrowserContext context) { contexts.add(context); }
+        void removeContext(BrowserContext context) { contexts.remove(context); }
+        int getContextCount() { return contexts.size(); }
+        void incrementNavigations() { navigations.incrementAndGet(); }
+        int getNavigations() { return navigations.get(); }
+        boolean isUsable() { return !retiring; }
+        WebDriver getBrowser() { return browser; }
+        String getUserDataDir() { return userDataDir; }
+        Object getLock() { return lock; }
+    }
+
+    /**
+     * 共享浏览器中的一个隔离上下文
+     */
+    private static class BrowserContext {
+        private final BrowserHost host;
+        private final String windowHandle;
+        private final String browserContextId;
+        private WebDriver driver;
+        private volatile long warmedAt;
+        private volatile int leaseNavigations;
+
+        BrowserContext(BrowserHost host, String windowHandle, String browserContextId) {
+            this.host = host;
+            this.windowHandle = windowHandle;
+            this.browserContextId = browserContextId;
+        }
+
+        BrowserHost getHost() { return host; }
+        String getWindowHandle() { return windowHandle; }
+        String getBrowserContextId() { return browserContextId; }
+        WebDriver getDriver() { return driver; }
+        void setDriver(WebDriver driver) { this.driver = driver; }
+        long getWarmedAt() { return warmedAt; }
+        void markWarmed() { warmedAt = System.currentTimeMillis(); }
+        void markNavigated() { leaseNavigations++; }
+
+        /**
+         * 结束租用，返回租用期间记录的导航次数
+         */
+        int endLease() {
+            int count = leaseNavigations;
+            leaseNavigations = 0;
+            return count;
+        }
+    }
+}
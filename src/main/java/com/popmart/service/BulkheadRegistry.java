@@ -0,0 +1,61 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按检查方式隔离并发（舱壁）
+ *
+ * 浏览器检查和 HTTP 检查各自限定并发数，某一方式变慢时不会占满调度线程，
+ * 超出并发且等待超时的请求直接返回未知结果。
+ */
+@Component
+public class BulkheadRegistry {
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Semaphore> bulkheads = new ConcurrentHashMap<>();
+
+    /**
+     * 进入舱壁，最多等待 bulkhead-max-wait 毫秒
+     *
+     * @return 获得许可返回 true，调用方必须在完成后调用 {@link #exit(String)}
+     */
+    public boolean tryEnter(String strategy) {
+        try {
+            boolean entered = getBulkhead(strategy).tryAcquire(
+                config.getMonitor().getResilience().getBulkheadMaxWait(), TimeUnit.MILLISECONDS);
+            if (!entered) {
+                meterRegistry.counter("popmart.bulkhead.rejected", "strategy", strategy).increment();
+            }
+            return entered;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void exit(String strategy) {
+        getBulkhead(strategy).release();
+    }
+
+    private Semaphore getBulkhead(String strategy) {
+        return bulkheads.computeIfAbsent(strategy, k -> {
+            PopMartConfig.Resilience resilience = config.getMonitor().getResilience();
+            int permits = CircuitBreakerRegistry.BROWSER.equals(k)
+                ? resilience.getBrowserConcurrency() : resilience.getHttpConcurrency();
+            return new Semaphore(Math.max(1, permits));
+        });
+    }
+}
@@ -0,0 +1,214 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按域名和检查方式（http / browser）划分的熔断器
+ *
+ * - CLOSED：正常放行，按滑动窗口统计失败率
+ * - OPEN：失败率超过阈值后直接拒绝，不再占用连接和 WebDriver
+ * - HALF_OPEN：熔断时间结束后放行少量试探请求，全部成功则恢复，任一失败重新熔断
+ */
+@Component
+public class CircuitBreakerRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreakerRegistry.class);
+
+    public static final String HTTP = "http";
+    public static final String BROWSER = "browser";
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * 是否允许本次请求
+     */
+    public boolean allowRequest(String url, String strategy) {
+        return getBreaker(url, strategy).allowRequest();
+    }
+
+    /**
+     * 已放行的请求最终没有发出（被限流或舱壁拒绝）时调用，归还半开状态的试探名额
+     */
+    public void releasePermit(String url, String strategy) {
+        getBreaker(url, strategy).releasePermit();
+    }
+
+    public void recordSuccess(String url, String strategy) {
+        getBreaker(url, strategy).record(true);
+    }
+
+    public void recordFailure(String url, String strategy) {
+        getBreaker(url, strategy).record(false);
+    }
+
+    public State getState(String url, String strategy) {
+        return getBreaker(url, strategy).getState();
+    }
+
+    /**
+     * 所有熔断器的当前状态（key 为 域名:检查方式）
+     */
+    public Map<String, State> getStates() {
+        Map<String, State> states = new ConcurrentHashMap<>();
+        breakers.forEach((key, breaker) -> states.put(key, breaker.getState()));
+        return states;
+    }
+
+    private CircuitBreaker getBreaker(String url, String strategy) {
+        String key = hostOf(url) + ":" + strategy;
+        return breakers.computeIfAbsent(key, CircuitBreaker::new);
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase() : url;
+        } catch (Exception e) {
+            return url;
+        }
+    }
+
+    private void onTransition(String name, State from, State to) {
+        if (to == State.OPEN) {
+            logger.warn("Circuit breaker {} opened ({} -> {})", name, from, to);
+        } else {
+            logger.info("Circuit breaker {} transitioned {} -> {}", name, from, to);
+        }
+        meterRegistry.counter("popmart.circuit.transitions", "breaker", name, "state", to.name()).increment();
+    }
+
+    /**
+     * 单个熔断器（基于调用次数的滑动窗口）
+     */
+    private class CircuitBreaker {
+        private final String name;
+        private final boolean[] window;
+        private int windowIndex;
+        private int windowCalls;
+        private int windowFailures;
+        private State state = State.CLOSED;
+        private long openedAt;
+        private long halfOpenedAt;
+        private int halfOpenPermits;
+        private int halfOpenSuccesses;
+
+        CircuitBreaker(String name) {
+            this.name = name;
+            this.window = new boolean[Math.max(1, config.getMonitor().getResilience().getSlidingWindowSize())];
+        }
+
+        synchronized boolean allowRequest() {
+            PopMartConfig.Resilience resilience = config.getMonitor().getResilience();
+            if (state == State.OPEN) {
+                if (System.currentTimeMillis() - openedAt < TimeUnit.SECONDS.toMillis(resilience.getOpenDuration())) {
+                    return false;
+                }
+                transition(State.HALF_OPEN);
+                startHalfOpen(resilience);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits <= 0) {
+                    // 试探请求长时间没有结果（调用方未记录），重新放行
+                    if (System.currentTimeMillis() - halfOpenedAt < TimeUnit.SECONDS.toMillis(resilience.getOpenDuration())) {
+                        return false;
+                    }
+                    startHalfOpen(resilience);
+                }
+                halfOpenPermits--;
+            }
+            return true;
+        }
+
+        synchronized void releasePermit() {
+            if (state == State.HALF_OPEN && halfOpenPermits < config.getMonitor().getResilience().getHalfOpenCalls()) {
+                halfOpenPermits++;
+            }
+        }
+
+        synchronized void record(boolean success) {
+            PopMartConfig.Resilience resilience = config.getMonitor().getResilience();
+
+            if (state == State.HALF_OPEN) {
+                if (!success) {
+                    open();
+                } else if (++halfOpenSuccesses >= resilience.getHalfOpenCalls()) {
+                    resetWindow();
+                    transition(State.CLOSED);
+                }
+                return;
+            }
+            if (state == State.OPEN) {
+                return;
+            }
+
+            // 覆盖窗口中最旧的一次调用
+            if (windowCalls == window.length) {
+                if (!window[windowIndex]) {
+                    windowFailures--;
+                }
+            } else {
+                windowCalls++;
+            }
+            window[windowIndex] = success;
+            if (!success) {
+                windowFailures++;
+            }
+            windowIndex = (windowIndex + 1) % window.length;
+
+            if (windowCalls >= resilience.getMinimumCalls()
+                    && windowFailures * 100 >= resilience.getFailureRateThreshold() * windowCalls) {
+                open();
+            }
+        }
+
+        synchronized State getState() {
+            return state;
+        }
+
+        private void startHalfOpen(PopMartConfig.Resilience resilience) {
+            halfOpenedAt = System.currentTimeMillis();
+            halfOpenPermits = resilience.getHalfOpenCalls();
+            halfOpenSuccesses = 0;
+        }
+
+        private void open() {
+            openedAt = System.currentTimeMillis();
+            resetWindow();
+            transition(State.OPEN);
+        }
+
+        private void resetWindow() {
+            windowIndex = 0;
+            windowCalls = 0;
+            windowFailures = 0;
+        }
+
+        private void transition(State to) {
+            State from = state;
+            state = to;
+            if (from != to) {
+                onTransition(name, from, to);
+            }
+        }
+    }
+}
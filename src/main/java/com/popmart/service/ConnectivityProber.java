@@ -0,0 +1,170 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * URL 可访问性探测
+ *
+ * 通过异步 HTTP/2 客户端发送 HEAD 请求，结果缓存后在到期前于后台刷新，
+ * 检查路径只读取已有结果，从不等待网络往返。尚无结果时乐观地视为可访问。
+ */
+@Component
+public class ConnectivityProber {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectivityProber.class);
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private CloseableHttpAsyncClient popMartAsyncHttpClient;
+
+    @Autowired
+    private HostRateLimiter rateLimiter;
+
+    private final Map<String, ProbeState> states = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService refreshExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "connectivity-probe-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void initialize() {
+        long interval = Math.max(1, config.getMonitor().getProbe().getRefreshInterval() / 3);
+        refreshExecutor.scheduleWithFixedDelay(this::refreshAhead, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 判断 URL 是否可访问（不阻塞）
+     *
+     * @return 最近一次探测结果；尚未探测或结果过旧时返回 true
+     */
+    public boolean isReachable(String url) {
+        PopMartConfig.Probe probe = config.getMonitor().getProbe();
+        if (!probe.isEnabled()) {
+            return true;
+        }
+
+        ProbeState state = states.computeIfAbsent(url, k -> new ProbeState());
+        state.accessedAt = System.currentTimeMillis();
+        long age = System.currentTimeMillis() - state.probedAt;
+
+        if (age >= TimeUnit.SECONDS.toMillis(probe.getRefreshInterval())) {
+            probeAsync(url, state);
+        }
+
+        if (state.probedAt == 0 || age >= TimeUnit.SECONDS.toMillis(probe.getMaxStaleness())) {
+            return true;
+        }
+        return state.reachable;
+    }
+
+    /**
+     * 后台提前刷新：即将到期的结果在被读取前重新探测，长时间未被读取的 URL 不再探测
+     */
+    private void refreshAhead() {
+        PopMartConfig.Probe probe = config.getMonitor().getProbe();
+        if (!probe.isEnabled()) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        long refreshAheadMillis = TimeUnit.SECONDS.toMillis(probe.getRefreshInterval()) * 2 / 3;
+        long idleMillis = TimeUnit.SECONDS.toMillis(probe.getMaxStaleness());
+
+        for (Map.Entry<String, ProbeState> entry : states.entrySet()) {
+            ProbeState state = entry.getValue();
+            if (now - state.accessedAt > idleMillis) {
+                states.remove(entry.getKey(), state);
+            } else if (now - state.probedAt >= refreshAheadMillis) {
+                probeAsync(entry.getKey(), state);
+            }
+        }
+    }
+
+    private void probeAsync(String url, ProbeState state) {
+        if (!state.probing.compareAndSet(false, true)) {
+            return;
+        }
+        // 探测可以推迟，没有立即可用的许可时跳过本轮
+        if (!rateLimiter.tryAcquire(url)) {
+            state.probing.set(false);
+            return;
+        }
+
+        SimpleHttpRequest request = SimpleRequestBuilder.head(url).build();
+        try {
+            popMartAsyncHttpClient.execute(request, new FutureCallback<SimpleHttpResponse>() {
+                @Override
+                public void completed(SimpleHttpResponse response) {
+                    int code = response.getCode();
+                    Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+                    rateLimiter.onResponse(url, code, retryAfter != null ? retryAfter.getValue() : null);
+                    // 405 表示服务端不支持 HEAD，但站点本身可访问
+                    record(url, state, (code >= 200 && code < 400) || code == 405);
+                    logger.debug("Probe {} -> HTTP {} ({})", url, code, response.getVersion());
+                }
+
+                @Override
+                public void failed(Exception e) {
+                    record(url, state, false);
+                    logger.debug("URL连接检查失败: {}", e.getMessage());
+                }
+
+                @Override
+                public void cancelled() {
+                    state.probing.set(false);
+                }
+            });
+        } catch (Exception e) {
+            state.probing.set(false);
+            logger.debug("Failed to start probe for {}: {}", url, e.getMessage());
+        }
+    }
+
+    private void record(String url, ProbeState state, boolean reachable) {
+        if (state.reachable && !reachable) {
+            logger.warn("URL became unreachable: {}", url);
+        }
+        state.reachable = reachable;
+        state.probedAt = System.currentTimeMillis();
+        state.probing.set(false);
+    }
+
+    /**
+     * 单个 URL 的探测状态
+     */
+    private static class ProbeState {
+        private volatile boolean reachable = true;
+        private volatile long probedAt;
+        private volatile long accessedAt;
+        private final AtomicBoolean probing = new AtomicBoolean();
+    }
+}
@@ -325,9 +325,10 @@ public class DiscordBotService extends ListenerAdapter {
                 EmbedBuilder embed = new EmbedBuilder()
                     .setTitle("🧪 Stock Check Test Results")
                     .addField("URL", url, false)
-                    .addField("Status", result.getInStock() ? "🟢 In Stock" : "🔴 Out of Stock", false)
+                    .addField("Status", result.getInStock() == null ? "⚪ Unknown"
+                        : result.getInStock() ? "🟢 In Stock" : "🔴 Out of Stock", false)
                     .addField("Response Time", result.getResponseTime() + "ms", false)
-                    .setColor(result.getInStock() ? Color.GREEN : Color.RED)
+                    .setColor(result.getInStock() == null ? Color.GRAY : result.getInStock() ? Color.GREEN : Color.RED)
                     .setTimestamp(java.time.Instant.now());
                 
                 if (result.getErrorMessage() != null) {
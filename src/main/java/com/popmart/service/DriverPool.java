@@ -0,0 +1,46 @@
+package com.popmart.service;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * WebDriver 池
+ *
+ * 借出的 WebDriver 可能是独立的 Chrome 进程，也可能是共享浏览器中的一个隔离上下文。
+ */
+public interface DriverPool {
+
+    /**
+     * 借出 WebDriver，超时未获取到时抛出异常
+     */
+    WebDriver borrow() throws InterruptedException;
+
+    /**
+     * 归还 WebDriver
+     *
+     * 租用期间未通过 {@link #recordNavigation} 记录导航时按一次导航计数。
+     */
+    void release(WebDriver driver);
+
+    /**
+     * 记录一次页面导航（一次租用内连续检查多个 URL 时逐个计数）
+     *
+     * @return 实例仍可继续导航返回 true，已达到回收条件时返回 false，调用方应尽快归还
+     */
+    boolean recordNavigation(WebDriver driver);
+
+    /**
+     * 丢弃出错的 WebDriver
+     */
+    void invalidate(WebDriver driver);
+
+    int getTotalCount();
+
+    int getIdleCount();
+
+    int getLeasedCount();
+
+    /**
+     * 是否仍在后台预热（预热期间借出请求会按需创建实例或等待）
+     */
+    boolean isWarmingUp();
+}
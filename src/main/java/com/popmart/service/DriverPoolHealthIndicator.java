@@ -0,0 +1,28 @@
+package com.popmart.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * WebDriver 池健康状态
+ *
+ * 池在后台预热，预热期间仍报告 UP（检查请求可以按需创建实例），并在详情中标明预热进度。
+ */
+@Component("driverPool")
+public class DriverPoolHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private DriverPool driverPool;
+
+    @Override
+    public Health health() {
+        return Health.up()
+            .withDetail("warmingUp", driverPool.isWarmingUp())
+            .withDetail("total", driverPool.getTotalCount())
+            .withDetail("idle", driverPool.getIdleCount())
+            .withDetail("leased", driverPool.getLeasedCount())
+            .build();
+    }
+}
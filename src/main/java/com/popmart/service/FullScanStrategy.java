@@ -0,0 +1,24 @@
+package com.popmart.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * 完整检测：覆盖所有按钮和标识并提取价格、SKU，成本最高但总能给出最完整的结果
+ */
+@Component
+public class FullScanStrategy extends ScriptDetectionStrategy {
+
+    public FullScanStrategy() {
+        super("scripts/detection/full-scan.js");
+    }
+
+    @Override
+    public String getName() {
+        return "full_scan";
+    }
+
+    @Override
+    public int getCost() {
+        return 5;
+    }
+}
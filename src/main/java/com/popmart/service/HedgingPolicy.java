@@ -0,0 +1,127 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 对冲请求的触发时机和预算
+ *
+ * - 按检查方式（http / browser）统计最近若干次耗时，主请求超过其百分位（默认 p95）仍未返回时触发对冲
+ * - 令牌预算：每次检查积累 budget-ratio 个令牌，每次对冲消耗 1 个，额外负载不超过检查量的固定比例
+ *
+ * 只作用于单次检查（REST 接口、Discord 命令）；定时任务的批量检查已按浏览器并发排队共享 WebDriver，不做对冲。
+ */
+@Component
+public class HedgingPolicy {
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+
+    private double tokens;
+
+    public boolean isEnabled() {
+        return getHedgingConfig().isEnabled();
+    }
+
+    /**
+     * 记录一次检查（积累对冲预算）
+     */
+    public synchronized void onRequest() {
+        PopMartConfig.Hedging hedging = getHedgingConfig();
+        tokens = Math.min(hedging.getBudgetBurst(), tokens + hedging.getBudgetRatio());
+    }
+
+    /**
+     * 主请求等待多久后触发对冲（毫秒）
+     *
+     * @param primary 主请求的检查方式
+     */
+    public long getDelay(String primary) {
+        PopMartConfig.Hedging hedging = getHedgingConfig();
+        long fallback = CircuitBreakerRegistry.BROWSER.equals(primary) ? hedging.getBrowserDelay() : hedging.getHttpDelay();
+        long delay = getWindow(primary).percentile(hedging.getPercentile(), hedging.getMinSamples(), fallback);
+        return Math.max(hedging.getMinDelay(), delay);
+    }
+
+    /**
+     * 尝试为超时的主请求启动对冲，预算不足时返回 false
+     *
+     * @param primary 主请求的检查方式
+     */
+    public boolean tryHedge(String primary) {
+        boolean permitted;
+        synchronized (this) {
+            permitted = tokens >= 1;
+            if (permitted) {
+                tokens -= 1;
+            }
+        }
+        meterRegistry.counter("popmart.hedge.attempts", "primary", primary,
+            "result", permitted ? "started" : "no_budget").increment();
+        return permitted;
+    }
+
+    /**
+     * 记录一次已完成检查的耗时
+     */
+    public void record(String strategy, long millis) {
+        getWindow(strategy).add(millis);
+    }
+
+    /**
+     * 记录对冲的结果
+     *
+     * @param winner 先给出结论的检查方式
+     */
+    public void recordOutcome(String primary, String winner) {
+        meterRegistry.counter("popmart.hedge.outcomes", "primary", primary, "winner", winner).increment();
+    }
+
+    private LatencyWindow getWindow(String strategy) {
+        return windows.computeIfAbsent(strategy, k -> new LatencyWindow(Math.max(1, getHedgingConfig().getWindowSize())));
+    }
+
+    private PopMartConfig.Hedging getHedgingConfig() {
+        return config.getMonitor().getHedging();
+    }
+
+    /**
+     * 最近 N 次耗时（环形缓冲）
+     */
+    private static class LatencyWindow {
+        private final long[] samples;
+        private int index;
+        private int count;
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void add(long millis) {
+            samples[index] = millis;
+            index = (index + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        synchronized long percentile(int percentile, int minSamples, long fallback) {
+            if (count < Math.max(1, minSamples)) {
+                return fallback;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, rank))];
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按域名的令牌桶限流
+ *
+ * 所有对外请求（浏览器导航、HTTP 快速路径、商品接口、可访问性探测）都先获取许可；
+ * 可能等待的 {@link #acquire} 应在进入舱壁之前调用，避免等待期间占用舱壁许可。
+ * 收到 429/503 时按 Retry-After（不超过 retry-after-max）或指数退避暂停该域名并将速率减半，之后随成功响应逐步恢复。
+ * exempt-hosts 中的域名（本地回放服务器）不限流，压测时只受舱壁和 WebDriver 池约束。
+ */
+@Component
+public class HostRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(HostRateLimiter.class);
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, HostBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * 获取一次请求许可，必要时等待（最长 max-wait 秒）
+     *
+     * @return 获取成功返回 true，超时或被中断返回 false
+     */
+    public boolean acquire(String url) {
+        PopMartConfig.RateLimit rateLimit = getRateLimitConfig();
+        String host = hostOf(url);
+        if (!rateLimit.isEnabled() || isExempt(host)) {
+            return true;
+        }
+
+        HostBucket bucket = getBucket(host);
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(rateLimit.getMaxWait());
+
+        try {
+            while (true) {
+                long waitMillis = bucket.reserve();
+                if (waitMillis == 0) {
+                    return true;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (waitMillis > remaining) {
+                    meterRegistry.counter("popmart.ratelimit.rejected", "host", host).increment();
+                    logger.debug("Rate limit wait for {} exceeds {}s, giving up", host, rateLimit.getMaxWait());
+                    return false;
+                }
+                Thread.sleep(waitMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 尝试立即获取许可，不等待（用于后台探测等可跳过的请求）
+     */
+    public boolean tryAcquire(String url) {
+        String host = hostOf(url);
+        if (!getRateLimitConfig().isEnabled() || isExempt(host)) {
+            return true;
+        }
+        return getBucket(host).reserve() == 0;
+    }
+
+    /**
+     * 根据响应状态调整该域名的速率
+     *
+     * @param status HTTP 状态码
+     * @param retryAfter Retry-After 响应头，可为 null
+     */
+    public void onResponse(String url, int status, String retryAfter) {
+        PopMartConfig.RateLimit rateLimit = getRateLimitConfig();
+        String host = hostOf(url);
+        if (!rateLimit.isEnabled() || status <= 0 || isExempt(host)) {
+            return;
+        }
+
+        HostBucket bucket = getBucket(host);
+        if (status == 429 || status == 503) {
+            long pauseMillis = parseRetryAfter(retryAfter);
+            double rate = bucket.throttle(pauseMillis);
+            meterRegistry.counter("popmart.ratelimit.throttled", "host", host, "status", String.valueOf(status)).increment();
+            logger.warn("Throttled by {} (HTTP {}), pausing {}ms, rate reduced to {}/s",
+                host, status, bucket.getPauseMillis(), String.format("%.2f", rate));
+        } else if (status < 400) {
+            bucket.recover();
+        }
+    }
+
+    /**
+     * 解析 Retry-After（秒数或 HTTP 日期），结果不超过 retry-after-max
+     *
+     * @return 等待毫秒数，未提供或无法解析时返回 -1
+     */
+    private long parseRetryAfter(String retryAfter) {
+        if (retryAfter == null || retryAfter.trim().isEmpty()) {
+            return -1;
+        }
+        String value = retryAfter.trim();
+        long millis;
+        try {
+            millis = TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // 非秒数格式，按 HTTP 日期解析
+            try {
+                ZonedDateTime until = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                millis = Math.max(0, until.toInstant().toEpochMilli() - System.currentTimeMillis());
+            } catch (Exception invalid) {
+                return -1;
+            }
+        }
+        return Math.min(millis, TimeUnit.SECONDS.toMillis(getRateLimitConfig().getRetryAfterMax()));
+    }
+
+    /**
+     * 本地回放服务器等不需要限流的域名
+     */
+    private boolean isExempt(String host) {
+        return getRateLimitConfig().getExemptHosts().contains(host);
+    }
+
+    private HostBucket getBucket(String host) {
+        return buckets.computeIfAbsent(host, k -> new HostBucket(getRateLimitConfig()));
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase() : url;
+        } catch (Exception e) {
+            return url;
+        }
+    }
+
+    private PopMartConfig.RateLimit getRateLimitConfig() {
+        return config.getMonitor().getRateLimit();
+    }
+
+    /**
+     * 单个域名的令牌桶和退避状态
+     */
+    private static class HostBucket {
+        private final PopMartConfig.RateLimit config;
+        private double tokens;
+        private double rate;
+        private long lastRefillNanos;
+        private long pausedUntil;
+        private long pauseMillis;
+        private int consecutiveThrottles;
+
+        HostBucket(PopMartConfig.RateLimit config) {
+            this.config = config;
+            this.tokens = config.getBurst();
+            this.rate = config.getRequestsPerSecond();
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        /**
+         * 尝试取出一个令牌
+         *
+         * @return 0 表示已取得令牌，否则为需要等待的毫秒数
+         */
+        synchronized long reserve() {
+            long now = System.currentTimeMillis();
+            if (now < pausedUntil) {
+                return pausedUntil - now;
+            }
+
+            refill();
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / rate * 1000));
+        }
+
+        /**
+         * 被限流：暂停并将速率减半
+         *
+         * @param retryAfterMillis 服务端要求的等待时间，未提供时为负数
+         * @return 调整后的速率
+         */
+        synchronized double throttle(long retryAfterMillis) {
+            consecutiveThrottles++;
+            if (retryAfterMillis >= 0) {
+                pauseMillis = retryAfterMillis;
+            } else {
+                long backoff = TimeUnit.SECONDS.toMillis(config.getBackoffBase()) << Math.min(consecutiveThrottles - 1, 16);
+                pauseMillis = Math.min(backoff, TimeUnit.SECONDS.toMillis(config.getBackoffMax()));
+            }
+            pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + pauseMillis);
+            rate = Math.max(config.getMinRequestsPerSecond(), rate / 2);
+            tokens = 0;
+            return rate;
+        }
+
+        /**
+         * 成功响应：逐步恢复到配置速率
+         */
+        synchronized void recover() {
+            consecutiveThrottles = 0;
+            double target = config.getRequestsPerSecond();
+            if (rate < target) {
+                rate = Math.min(target, rate + target * 0.1);
+            }
+        }
+
+        synchronized long getPauseMillis() {
+            return pauseMillis;
+        }
+
+        private void refill() {
+            long nowNanos = System.nanoTime();
+            double elapsedSeconds = (nowNanos - lastRefillNanos) / 1e9;
+            lastRefillNanos = nowNanos;
+            tokens = Math.min(config.getBurst(), tokens + elapsedSeconds * rate);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import com.popmart.utils.ProductPageParser;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 无浏览器的库存快速检查
+ *
+ * 通过连接池化的 HTTP 客户端获取商品页，直接解析内嵌 JSON 中的 SKU 库存数据，
+ * SKU 数据给不出明确结论时交给 Selenium 处理。
+ * 页面内嵌 SKU 库存数据给出明确结论时记录指纹，此后返回 304 可在短时间内复用该结论；
+ * 库存由客户端渲染的页面（服务端 HTML 不含库存数据）不复用任何结论。
+ */
+@Service
+public class HttpStockChecker {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpStockChecker.class);
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private CloseableHttpClient popMartHttpClient;
+
+    @Autowired
+    private PageFingerprintStore fingerprintStore;
+
+    @Autowired
+    private HostRateLimiter rateLimiter;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakers;
+
+    @Autowired
+    private BulkheadRegistry bulkheads;
+
+    public boolean isEnabled() {
+        return config.getMonitor().getFastPath().isEnabled();
+    }
+
+    /**
+     * 获取商品页并判定库存
+     *
+     * 开启条件请求且上次响应的内嵌 SKU 数据给出了仍在有效期内的结论时，携带上次的 ETag / Last-Modified，
+     * 页面返回 304 时直接复用该结论，不再交给浏览器渲染。
+     *
+     * @param url 商品 URL
+     * @return 库存状态，请求失败或页面信息不足时返回 UNKNOWN
+     */
+    public StockStatus check(String url) {
+        return check(url, true);
+    }
+
+    /**
+     * @param conditional false 时不携带条件请求头、不复用上次结论，总是完整获取并解析页面（压测使用）
+     */
+    public StockStatus check(String url, boolean conditional) {
+        conditional = conditional && config.getMonitor().getFastPath().isConditionalRequests();
+
+        HttpGet request = new HttpGet(url);
+        request.setHeader("Accept", "text/html,application/xhtml+xml");
+        request.setHeader("Accept-Language", "en-US,en;q=0.9");
+
+        // 没有可复用的结论时 304 没有意义，不发送条件请求头
+        if (conditional && fingerprintStore.getVerdict(url).isDecisive()) {
+            PageFingerprintStore.PageFingerprint fingerprint = fingerprintStore.get(url);
+            if (fingerprint != null && fingerprint.getEtag() != null) {
+                request.setHeader(HttpHeaders.IF_NONE_MATCH, fingerprint.getEtag());
+            }
+            if (fingerprint != null && fingerprint.getLastModified() != null) {
+                request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, fingerprint.getLastModified());
+            }
+        }
+
+        // 先看熔断，熔断中的域名不等待限流许可；再等待限流许可后进入舱壁，被限流的域名不占用舱壁许可
+        if (!circuitBreakers.allowRequest(url, CircuitBreakerRegistry.HTTP)) {
+            logger.debug("Fast path skipped for {}: circuit open", url);
+            return StockStatus.UNKNOWN;
+        }
+        if (!rateLimiter.acquire(url)) {
+            circuitBreakers.releasePermit(url, CircuitBreakerRegistry.HTTP);
+            logger.debug("Fast path skipped for {}: rate limited", url);
+            return StockStatus.UNKNOWN;
+        }
+        if (!bulkheads.tryEnter(CircuitBreakerRegistry.HTTP)) {
+            circuitBreakers.releasePermit(url, CircuitBreakerRegistry.HTTP);
+            logger.debug("Fast path skipped for {}: bulkhead full", url);
+            return StockStatus.UNKNOWN;
+        }
+        try {
+            return fetchAndParse(url, request, conditional);
+        } finally {
+            bulkheads.exit(CircuitBreakerRegistry.HTTP);
+        }
+    }
+
+    private StockStatus fetchAndParse(String url, HttpGet request, boolean conditional) {
+        try {
+            PageResponse page = popMartHttpClient.execute(request, response -> {
+                rateLimiter.onResponse(url, response.getCode(), headerValue(response, HttpHeaders.RETRY_AFTER));
+                if (response.getCode() != 200) {
+                    EntityUtils.consume(response.getEntity());
+                    return new PageResponse(response.getCode(), null, null, null);
+                }
+                return new PageResponse(response.getCode(),
+                    EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8),
+                    headerValue(response, HttpHeaders.ETAG),
+                    headerValue(response, HttpHeaders.LAST_MODIFIED));
+            });
+
+            if (page.code >= 500 || page.code == 429) {
+                circuitBreakers.recordFailure(url, CircuitBreakerRegistry.HTTP);
+            } else {
+                circuitBreakers.recordSuccess(url, CircuitBreakerRegistry.HTTP);
+            }
+
+            if (page.code == 304 && conditional) {
+                StockStatus status = fingerprintStore.getVerdict(url);
+                logger.debug("Fast path got 304 for {}, reusing verdict: {}", url, status);
+                return status;
+            }
+
+            if (page.html == null) {
+                logger.debug("Fast path got HTTP {} for {}", page.code, url);
+                return StockStatus.UNKNOWN;
+            }
+
+            StockStatus status = ProductPageParser.parse(page.html);
+            if (conditional) {
+                // 只有内嵌 SKU 数据本身给出明确结论时才记录
+                String stockRegion = ProductPageParser.extractStockRegion(page.html);
+                fingerprintStore.update(url, page.etag, page.lastModified, stockRegion);
+                if (stockRegion != null) {
+                    fingerprintStore.recordVerdict(url, status);
+                }
+            }
+
+            logger.debug("Fast path result for {}: {}", url, status);
+            return status;
+        } catch (Exception e) {
+            circuitBreakers.recordFailure(url, CircuitBreakerRegistry.HTTP);
+            logger.debug("Fast path check failed for {}: {}", url, e.getMessage());
+            return StockStatus.UNKNOWN;
+        }
+    }
+
+    private static String headerValue(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
+    /**
+     * 一次页面请求的响应
+     */
+    private static class PageResponse {
+        private final int code;
+        private final String html;
+        private final String etag;
+        private final String lastModified;
+
+        PageResponse(int code, String html, String etag, String lastModified) {
+            this.code = code;
+            this.html = html;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import com.popmart.utils.ProductPageParser;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 列表页扫描
+ *
+ * 抓取配置的系列、分类和搜索结果页，一次请求解析出页面上所有商品的库存状态，
+ * 新品发售时一个系列页即可覆盖几十个监控商品。结论不明确的商品仍需单独检查。
+ * 新品发现通过 {@link #fetchIfChanged(String)} 只处理自上次抓取以来有变化的页面。
+ */
+@Service
+public class ListingPageScanner {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListingPageScanner.class);
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private CloseableHttpClient popMartHttpClient;
+
+    @Autowired
+    private HostRateLimiter rateLimiter;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakers;
+
+    @Autowired
+    private BulkheadRegistry bulkheads;
+
+    @Autowired
+    private PageFingerprintStore fingerprintStore;
+
+    public boolean isEnabled() {
+        PopMartConfig.Listing listing = config.getMonitor().getListing();
+        return listing.isEnabled() && listing.getPages() != null && !listing.getPages().isEmpty();
+    }
+
+    /**
+     * 扫描所有配置的列表页
+     *
+     * @return 商品 ID -> 库存状态，只包含结论明确且各页面之间一致的商品
+     */
+    public Map<String, StockStatus> scan() {
+        if (!isEnabled()) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, StockStatus> statuses = new HashMap<>();
+        Set<String> conflicting = new HashSet<>();
+        int pages = 0;
+        for (String pageUrl : config.getMonitor().getListing().getPages()) {
+            List<ProductPageParser.ListingEntry> entries = fetch(pageUrl);
+            if (!entries.isEmpty()) {
+                pages++;
+            }
+            for (ProductPageParser.ListingEntry entry : entries) {
+                if (!entry.getStatus().isDecisive() || conflicting.contains(entry.getProductId())) {
+                    continue;
+                }
+                StockStatus previous = statuses.putIfAbsent(entry.getProductId(), entry.getStatus());
+                if (previous != null && previous != entry.getStatus()) {
+                    // 不同页面结论不一致，交给单独检查
+                    statuses.remove(entry.getProductId());
+                    conflicting.add(entry.getProductId());
+                }
+            }
+        }
+
+        logger.info("Listing scan resolved {} products from {} pages", statuses.size(), pages);
+        return statuses;
+    }
+
+    /**
+     * 获取并解析一个列表页
+     *
+     * @return 页面中的商品，请求失败或被限流时返回空列表
+     */
+    public List<ProductPageParser.ListingEntry> fetch(String pageUrl) {
+        List<ProductPageParser.ListingEntry> entries = fetch(pageUrl, false);
+        return entries != null ? entries : new ArrayList<>();
+    }
+
+    /**
+     * 获取并解析一个列表页，页面自上次获取以来未变化时返回 null
+     *
+     * 携带上次的 ETag / Last-Modified；返回 304 或页面中的商品集合与上次相同时视为未变化。
+     *
+     * @return 页面中的商品；未变化时返回 null；请求失败或被限流时返回空列表
+     */
+    public List<ProductPageParser.ListingEntry> fetchIfChanged(String pageUrl) {
+        return fetch(pageUrl, true);
+    }
+
+    private List<ProductPageParser.ListingEntry> fetch(String pageUrl, boolean conditional) {
+        // 先看熔断，熔断中的域名不等待限流许可；再等待限流许可后进入舱壁，被限流的域名不占用舱壁许可
+        if (!circuitBreakers.allowRequest(pageUrl, CircuitBreakerRegistry.HTTP)) {
+            logger.debug("Listing fetch skipped for {}: circuit open", pageUrl);
+            return new ArrayList<>();
+        }
+        if (!rateLimiter.acquire(pageUrl)) {
+            circuitBreakers.releasePermit(pageUrl, CircuitBreakerRegistry.HTTP);
+            logger.debug("Listing fetch skipped for {}: rate limited", pageUrl);
+            return new ArrayList<>();
+        }
+        if (!bulkheads.tryEnter(CircuitBreakerRegistry.HTTP)) {
+            circuitBreakers.releasePermit(pageUrl, CircuitBreakerRegistry.HTTP);
+            logger.debug("Listing fetch skipped for {}: bulkhead full", pageUrl);
+            return new ArrayList<>();
+        }
+        try {
+            ListingPage page = download(pageUrl, conditional);
+            if (page.code == 304) {
+                logger.debug("Listing page {} not modified", pageUrl);
+                return null;
+            }
+            List<ProductPageParser.ListingEntry> entries = ProductPageParser.parseListing(page.html);
+            if (conditional && page.html != null) {
+                boolean unchanged = fingerprintStore.update(fingerprintKey(pageUrl), page.etag, page.lastModified,
+                    productSet(entries));
+                if (unchanged) {
+                    logger.debug("Listing page {} has the same products as last time", pageUrl);
+                    return null;
+                }
+            }
+            logger.debug("Listing page {} contains {} products", pageUrl, entries.size());
+            return entries;
+        } finally {
+            bulkheads.exit(CircuitBreakerRegistry.HTTP);
+        }
+    }
+
+    private ListingPage download(String pageUrl, boolean conditional) {
+        HttpGet request = new HttpGet(pageUrl);
+        request.setHeader("Accept", "text/html,application/xhtml+xml");
+        request.setHeader("Accept-Language", "en-US,en;q=0.9");
+        if (conditional) {
+            PageFingerprintStore.PageFingerprint fingerprint = fingerprintStore.get(fingerprintKey(pageUrl));
+            if (fingerprint != null && fingerprint.getEtag() != null) {
+                request.setHeader(HttpHeaders.IF_NONE_MATCH, fingerprint.getEtag());
+            }
+            if (fingerprint != null && fingerprint.getLastModified() != null) {
+                request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, fingerprint.getLastModified());
+            }
+        }
+
+        try {
+            return popMartHttpClient.execute(request, response -> {
+                rateLimiter.onResponse(pageUrl, response.getCode(), headerValue(response, HttpHeaders.RETRY_AFTER));
+                if (response.getCode() >= 500 || response.getCode() == 429) {
+                    circuitBreakers.recordFailure(pageUrl, CircuitBreakerRegistry.HTTP);
+                } else {
+                    circuitBreakers.recordSuccess(pageUrl, CircuitBreakerRegistry.HTTP);
+                }
+                if (response.getCode() != 200) {
+                    EntityUtils.consume(response.getEntity());
+                    if (response.getCode() != 304) {
+                        logger.debug("Listing page {} returned HTTP {}", pageUrl, response.getCode());
+                    }
+                    return new ListingPage(response.getCode(), null, null, null);
+                }
+                return new ListingPage(response.getCode(),
+                    EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8),
+                    headerValue(response, HttpHeaders.ETAG),
+                    headerValue(response, HttpHeaders.LAST_MODIFIED));
+            });
+        } catch (Exception e) {
+            circuitBreakers.recordFailure(pageUrl, CircuitBreakerRegistry.HTTP);
+            logger.warn("Failed to fetch listing page {}: {}", pageUrl, e.getMessage());
+            return new ListingPage(0, null, null, null);
+        }
+    }
+
+    private static String fingerprintKey(String pageUrl) {
+        return "listing:" + pageUrl;
+    }
+
+    /**
+     * 页面中的商品 ID 集合（排序后拼接），用于判断页面是否变化
+     */
+    private static String productSet(List<ProductPageParser.ListingEntry> entries) {
+        if (entries.isEmpty()) {
+            return null;
+        }
+        List<String> ids = new ArrayList<>();
+        for (ProductPageParser.ListingEntry entry : entries) {
+            ids.add(entry.getProductId());
+        }
+        Collections.sort(ids);
+        return String.join(",", ids);
+    }
+
+    private static String headerValue(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
+    /**
+     * 一次列表页请求的响应
+     */
+    private static class ListingPage {
+        private final int code;
+        private final String html;
+        private final String etag;
+        private final String lastModified;
+
+        ListingPage(int code, String html, String etag, String lastModified) {
+            this.code = code;
+            this.html = html;
+            this.etag = etag;
+            this.lastModified = lastModified;
+        }
+    }
+}
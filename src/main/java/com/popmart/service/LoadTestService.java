@@ -0,0 +1,297 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import com.popmart.dto.request.PerformanceTestRequest;
+import com.popmart.dto.response.PerformanceTestResult;
+import com.popmart.dto.response.StockCheckResult;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 并发压测
+ *
+ * 固定数量的工作线程按权重循环选取 URL，每个线程完成一次检查后立即发起下一次（闭环负载）。
+ * 先执行预热请求（不计入统计），再用 HdrHistogram 记录端到端耗时和各检查阶段耗时，
+ * 输出百分位、吞吐量、WebDriver 池借出等待和错误分布，用于按数据确定池大小和浏览器并发。
+ *
+ * 检查不合并进行中的请求，默认跳过结果缓存和条件请求，测到的是每次实际获取页面的开销。
+ * 同一时间只允许一个压测运行。
+ */
+@Service
+public class LoadTestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestService.class);
+
+    // 记录范围：0 到 10 分钟（微秒），3 位有效数字
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private static final int MAX_ERROR_KEY_LENGTH = 100;
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private WebScrapingService webScrapingService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * 执行一次压测，完成后返回结果
+     *
+     * @throws IllegalArgumentException 参数无效或超出配置上限
+     * @throws IllegalStateException 已有压测正在运行
+     */
+    public PerformanceTestResult run(PerformanceTestRequest request) {
+        int concurrency = request.getConcurrency() != null ? request.getConcurrency() : 1;
+        int requests = request.getRequests() != null ? request.getRequests() : 1;
+        int warmupRequests = request.getWarmupRequests() != null ? request.getWarmupRequests() : 0;
+        validate(request, concurrency, requests);
+        UrlMix mix = new UrlMix(request.getUrls(), request.getWeights());
+
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("已有压测正在运行");
+        }
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread thread = new Thread(r, "load-test-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            logger.info("Starting performance test: {} URLs, concurrency {}, {} requests (+{} warm-up)",
+                request.getUrls().size(), concurrency, requests, warmupRequests);
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(getLoadTestConfig().getTimeout());
+
+            if (warmupRequests > 0) {
+                execute(executor, request, mix, concurrency, warmupRequests, new Stats(), deadline);
+                logger.info("Performance test warm-up completed ({} requests)", warmupRequests);
+            }
+
+            Stats stats = new Stats();
+            long startNanos = System.nanoTime();
+            execute(executor, request, mix, concurrency, requests, stats, deadline);
+            long durationNanos = System.nanoTime() - startNanos;
+
+            if (System.currentTimeMillis() >= deadline) {
+                logger.warn("Performance test stopped after {}s timeout", getLoadTestConfig().getTimeout());
+            }
+
+            PerformanceTestResult result = stats.toResult(concurrency, durationNanos);
+            logger.info("Performance test completed: {}", result);
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("压测被中断");
+        } finally {
+            executor.shutdownNow();
+            running.set(false);
+        }
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    private void validate(PerformanceTestRequest request, int concurrency, int requests) {
+        PopMartConfig.LoadTest loadTest = getLoadTestConfig();
+        if (request.getUrls() == null || request.getUrls().isEmpty()) {
+            throw new IllegalArgumentException("URL 列表不能为空");
+        }
+        for (String url : request.getUrls()) {
+            if (url == null || !(url.startsWith("http://") || url.startsWith("https://"))) {
+                throw new IllegalArgumentException("无效的 URL: " + url);
+            }
+        }
+        if (concurrency < 1 || concurrency > loadTest.getMaxConcurrency()) {
+            throw new IllegalArgumentException("并发数必须在 1 到 " + loadTest.getMaxConcurrency() + " 之间");
+        }
+        if (requests < 1 || requests > loadTest.getMaxRequests()) {
+            throw new IllegalArgumentException("请求数必须在 1 到 " + loadTest.getMaxRequests() + " 之间");
+        }
+    }
+
+    /**
+     * 启动 concurrency 个工作线程，共发出 total 次检查，全部完成或超时后返回
+     */
+    private void execute(ExecutorService executor, PerformanceTestRequest request, UrlMix mix,
+                         int concurrency, int total, Stats stats, long deadline) throws InterruptedException {
+        boolean bypassCache = !Boolean.FALSE.equals(request.getBypassCache());
+        boolean browserOnly = Boolean.TRUE.equals(request.getBrowserOnly());
+        AtomicInteger issued = new AtomicInteger();
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(executor.submit(() -> {
+                while (!Thread.currentThread().isInterrupted()
+                        && System.currentTimeMillis() < deadline
+                        && issued.getAndIncrement() < total) {
+                    String url = mix.next();
+                    long startNanos = System.nanoTime();
+                    StockCheckResult result;
+                    try {
+                        result = webScrapingService.checkStockDirect(url, bypassCache, browserOnly);
+                    } catch (RuntimeException e) {
+                        result = StockCheckResult.unknown(e.getMessage(), 0);
+                    }
+                    stats.record(result, System.nanoTime() - startNanos);
+                }
+            }));
+        }
+
+        for (Future<?> worker : workers) {
+            try {
+                worker.get();
+            } catch (ExecutionException e) {
+                logger.error("Performance test worker failed: {}", e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+        }
+    }
+
+    private PopMartConfig.LoadTest getLoadTestConfig() {
+        return config.getMonitor().getLoadTest();
+    }
+
+    private static Histogram newHistogram() {
+        return new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+    }
+
+    private static void recordMicros(Histogram histogram, long micros) {
+        histogram.recordValue(Math.max(0, Math.min(HIGHEST_TRACKABLE_MICROS, micros)));
+    }
+
+    private static PerformanceTestResult.LatencySummary summarize(Histogram histogram) {
+        return PerformanceTestResult.LatencySummary.builder()
+            .count(histogram.getTotalCount())
+            .mean(toMillis(histogram.getMean()))
+            .p50(toMillis(histogram.getValueAtPercentile(50)))
+            .p95(toMillis(histogram.getValueAtPercentile(95)))
+            .p99(toMillis(histogram.getValueAtPercentile(99)))
+            .p999(toMillis(histogram.getValueAtPercentile(99.9)))
+            .max(toMillis(histogram.getMaxValue()))
+            .build();
+    }
+
+    private static double toMillis(double micros) {
+        return Math.round(micros) / 1000.0;
+    }
+
+    /**
+     * 按权重选取 URL
+     */
+    static class UrlMix {
+        private final String[] urls;
+        private final int[] cumulativeWeights;
+
+        UrlMix(List<String> urls, List<Integer> weights) {
+            if (weights != null && !weights.isEmpty() && weights.size() != urls.size()) {
+                throw new IllegalArgumentException("权重数量必须与 URL 数量一致");
+            }
+            this.urls = urls.toArray(new String[0]);
+            this.cumulativeWeights = new int[urls.size()];
+            int sum = 0;
+            for (int i = 0; i < urls.size(); i++) {
+                int weight = weights != null && !weights.isEmpty() && weights.get(i) != null ? weights.get(i) : 1;
+                if (weight < 0) {
+                    throw new IllegalArgumentException("权重不能为负数");
+                }
+                sum += weight;
+                cumulativeWeights[i] = sum;
+            }
+            if (sum == 0) {
+                throw new IllegalArgumentException("权重之和必须大于 0");
+            }
+        }
+
+        String next() {
+            int point = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+            for (int i = 0; i < cumulativeWeights.length; i++) {
+                if (point < cumulativeWeights[i]) {
+                    return urls[i];
+                }
+            }
+            return urls[urls.length - 1];
+        }
+    }
+
+    /**
+     * 一个压测阶段的统计（线程安全）
+     */
+    private static class Stats {
+        private final Histogram latency = newHistogram();
+        private final Map<String, Histogram> phases = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        void record(StockCheckResult result, long durationNanos) {
+            recordMicros(latency, TimeUnit.NANOSECONDS.toMicros(durationNanos));
+            if (result.getPhaseTimings() != null) {
+                for (Map.Entry<String, Long> phase : result.getPhaseTimings().entrySet()) {
+                    recordMicros(phases.computeIfAbsent(phase.getKey(), k -> newHistogram()),
+                        TimeUnit.MILLISECONDS.toMicros(phase.getValue()));
+                }
+            }
+
+            if (result.hasError()) {
+                failures.increment();
+                errors.computeIfAbsent(errorKey(result.getErrorMessage()), k -> new LongAdder()).increment();
+            } else {
+                successes.increment();
+            }
+        }
+
+        PerformanceTestResult toResult(int concurrency, long durationNanos) {
+            long count = latency.getTotalCount();
+            Map<String, PerformanceTestResult.LatencySummary> phaseSummaries = new TreeMap<>();
+            phases.forEach((phase, histogram) -> phaseSummaries.put(phase, summarize(histogram)));
+            Map<String, Long> errorCounts = new TreeMap<>();
+            errors.forEach((message, counter) -> errorCounts.put(message, counter.sum()));
+            Histogram borrow = phases.get(PhaseTimer.BORROW);
+
+            return PerformanceTestResult.builder()
+                .totalIterations((int) count)
+                .successCount(successes.intValue())
+                .errorCount(failures.intValue())
+                .concurrency(concurrency)
+                .durationMillis(TimeUnit.NANOSECONDS.toMillis(durationNanos))
+                .throughput(durationNanos > 0 ? count / (durationNanos / 1e9) : 0.0)
+                .averageTime(toMillis(latency.getMean()))
+                .minTime(count > 0 ? TimeUnit.MICROSECONDS.toMillis(latency.getMinValue()) : 0L)
+                .maxTime(TimeUnit.MICROSECONDS.toMillis(latency.getMaxValue()))
+                .latency(summarize(latency))
+                .poolWait(summarize(borrow != null ? borrow : newHistogram()))
+                .phases(phaseSummaries)
+                .errors(errorCounts)
+                .build();
+        }
+
+        private static String errorKey(String message) {
+            if (message == null || message.trim().isEmpty()) {
+                return "unknown";
+            }
+            String key = message.trim();
+            return key.length() > MAX_ERROR_KEY_LENGTH ? key.substring(0, MAX_ERROR_KEY_LENGTH) : key;
+        }
+    }
+}
@@ -15,6 +15,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -22,6 +24,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import static com.popmart.utils.urlUtils.isValidPopMartUrl;
 import static com.popmart.utils.urlUtils.extractProductId;
@@ -41,12 +44,24 @@ public class MonitoringService {
     @Autowired
     private WebScrapingService webScrapingService;
     
+    @Autowired
+    private StockSourceRegistry stockSourceRegistry;
+    
     @Autowired
     private NotificationService notificationService;
     
     @Autowired
     private PopMartConfig config;
     
+    @Autowired
+    private ListingPageScanner listingPageScanner;
+    
+    @Autowired
+    private ParkedTabPoller parkedTabPoller;
+    
+    @Autowired
+    private StockResultCache resultCache;
+    
     // 智能轮询频率管理
     private final Map<Long, ProductPriority> productPriorities = new ConcurrentHashMap<>();
     private final ExecutorService monitoringExecutor = Executors.newFixedThreadPool(5);
@@ -76,6 +91,7 @@ public class MonitoringService {
         private int consecutiveOutOfStock;
         private int totalChecks;
         private int stockChanges;
+        private int consecutiveUnknown;
         
         public ProductPriority() {
             this.priority = Priority.MEDIUM;
@@ -101,6 +117,20 @@ public class MonitoringService {
         public void incrementStockChanges() { this.stockChanges++; }
         public void incrementConsecutiveOutOfStock() { this.consecutiveOutOfStock++; }
         public void resetConsecutiveOutOfStock() { this.consecutiveOutOfStock = 0; }
+        public int getConsecutiveUnknown() { return consecutiveUnknown; }
+        public void incrementConsecutiveUnknown() { this.consecutiveUnknown++; }
+        public void resetConsecutiveUnknown() { this.consecutiveUnknown = 0; }
+        
+        /**
+         * 下次检查时间：连续无法判定时按优先级间隔指数退避，最长不超过 COLD 间隔
+         */
+        public LocalDateTime getNextCheckTime() {
+            long interval = priority.getIntervalMinutes();
+            if (consecutiveUnknown > 0) {
+                interval = Math.min(interval << Math.min(consecutiveUnknown, 4), Priority.COLD.getIntervalMinutes());
+            }
+            return lastCheck.plusMinutes(interval);
+        }
     }
     
     @Scheduled(fixedRateString = "#{${popmart.monitor.poll-interval} * 60 * 1000}")
@@ -115,17 +145,85 @@ public class MonitoringService {
         
         logger.info("Found {} products to monitor with intelligent scheduling", products.size());
         
-        // 并发检查所有需要检查的商品
-        List<CompletableFuture<Void>> futures = products.stream()
+        List<MonitoredProduct> dueProducts = products.stream()
             .filter(this::shouldCheckProduct)
-            .map(product -> CompletableFuture.runAsync(() -> {
-                try {
-                    checkSingleProduct(product);
-                } catch (Exception e) {
-                    logger.error("Error checking product {}: {}", product.getId(), e.getMessage());
+            .collect(Collectors.toList());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        
+        // 驻留标签页的商品直接使用最近一次轮询结果，不再加载页面
+        if (parkedTabPoller.isEnabled()) {
+            parkedTabPoller.retainOnly(products.stream().map(MonitoredProduct::getId).collect(Collectors.toSet()));
+            
+            List<MonitoredProduct> unparked = new ArrayList<>();
+            for (MonitoredProduct product : dueProducts) {
+                StockCheckResult latest = parkedTabPoller.getLatestResult(product.getId());
+                if (latest == null) {
+                    unparked.add(product);
+                    continue;
                 }
-            }, monitoringExecutor))
-            .collect(java.util.stream.Collectors.toList());
+                long pollStart = System.currentTimeMillis();
+                futures.add(CompletableFuture.runAsync(
+                    () -> processCheckResult(product, latest, pollStart), monitoringExecutor));
+            }
+            if (unparked.size() < dueProducts.size()) {
+                logger.info("Parked tabs resolved {} of {} due products", dueProducts.size() - unparked.size(), dueProducts.size());
+            }
+            dueProducts = unparked;
+        }
+        
+        // 先扫描列表页，结论明确的商品直接使用列表页结果
+        if (listingPageScanner.isEnabled() && !dueProducts.isEmpty()) {
+            long listingStart = System.currentTimeMillis();
+            Map<String, StockStatus> listing = listingPageScanner.scan();
+            long listingTime = System.currentTimeMillis() - listingStart;
+            
+            List<MonitoredProduct> unresolved = new ArrayList<>();
+            for (MonitoredProduct product : dueProducts) {
+                String productId = product.getProductId() != null ? product.getProductId() : extractProductId(product.getUrl());
+                StockStatus status = productId != null ? listing.get(productId) : null;
+                if (status == null) {
+                    unresolved.add(product);
+                    continue;
+                }
+                StockCheckResult result = StockCheckResult.builder()
+                    .inStock(status == StockStatus.IN_STOCK)
+                    .responseTime((int) listingTime)
+                    .phaseTimings(Collections.singletonMap(PhaseTimer.LISTING, listingTime))
+                    .build();
+                futures.add(CompletableFuture.runAsync(
+                    () -> processCheckResult(product, result, listingStart), monitoringExecutor));
+            }
+            logger.info("Listing pages resolved {} of {} due products", dueProducts.size() - unresolved.size(), dueProducts.size());
+            dueProducts = unresolved;
+        }
+        
+        // 浏览器数据源的商品合并为一次批量检查（共享WebDriver），其他数据源逐个并发检查
+        List<MonitoredProduct> browserProducts = new ArrayList<>();
+        for (MonitoredProduct product : dueProducts) {
+            StockSource source;
+            try {
+                source = stockSourceRegistry.resolve(product);
+            } catch (Exception e) {
+                logger.error("Error checking product {}: {}", product.getId(), e.getMessage());
+                continue;
+            }
+            if (source.getType() == StockSourceType.BROWSER) {
+                browserProducts.add(product);
+            } else {
+                futures.add(CompletableFuture.runAsync(() -> checkSingleProduct(product, source), monitoringExecutor));
+            }
+        }
+        
+        if (!browserProducts.isEmpty()) {
+            long batchStart = System.currentTimeMillis();
+            Map<String, CompletableFuture<StockCheckResult>> results = webScrapingService.checkStocks(
+                browserProducts.stream().map(MonitoredProduct::getUrl).collect(Collectors.toList()));
+            // 每个商品的结果一返回就处理，不等待整批完成
+            for (MonitoredProduct product : browserProducts) {
+                futures.add(results.get(product.getUrl())
+                    .thenAcceptAsync(result -> processCheckResult(product, result, batchStart), monitoringExecutor));
+            }
+        }
         
         // 等待所有检查完成
         CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
@@ -140,10 +238,10 @@ public class MonitoringService {
      * 判断商品是否需要检查（基于智能调度）
      */
     private boolean shouldCheckProduct(MonitoredProduct product) {
-        ProductPriority priority = productPriorities.computeIfAbsent(product.getId(), k -> new ProductPriority());
+        ProductPriority priority = priorityOf(product.getId());
         
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime nextCheckTime = priority.getLastCheck().plusMinutes(priority.getPriority().getIntervalMinutes());
+        LocalDateTime nextCheckTime = priority.getNextCheckTime();
         
         boolean shouldCheck = now.isAfter(nextCheckTime);
         
@@ -157,22 +255,54 @@ public class MonitoringService {
     /**
      * 检查单个商品并更新优先级
      */
-    private void checkSingleProduct(MonitoredProduct product) {
+    private void checkSingleProduct(MonitoredProduct product, StockSource source) {
         long startTime = System.currentTimeMillis();
         
+        StockCheckResult result;
         try {
             logger.debug("Checking product: {} - {}", product.getId(), product.getProductName());
-            
-            StockCheckResult result = webScrapingService.checkStock(product.getUrl());
+            result = source.checkStock(product.getUrl());
+        } catch (Exception e) {
+            recordCheckError(product, e);
+            return;
+        }
+        processCheckResult(product, result, startTime);
+    }
+    
+    /**
+     * 处理检查结果：更新库存状态、发送通知、记录历史并调整优先级
+     */
+    private void processCheckResult(MonitoredProduct product, StockCheckResult result, long startTime) {
+        try {
+            // 无法判定（检查失败、熔断或限流）：只记录错误并退避，不改变库存状态和优先级
+            if (result.isUnknown()) {
+                logger.warn("Stock unknown for product {}: {}", product.getId(), result.getErrorMessage());
+                backOff(product);
+                product.setLastError(result.getErrorMessage());
+                product.setLastCheckedAt(LocalDateTime.now());
+                productRepository.updateById(product);
+                
+                StockCheckHistory history = new StockCheckHistory(product, result.getErrorMessage());
+                history.setResponseTime(result.getResponseTime());
+                history.setPhaseTimings(result.formatPhaseTimings());
+                historyRepository.insert(history);
+                return;
+            }
             
             // 更新优先级信息
-            ProductPriority priority = productPriorities.get(product.getId());
+            ProductPriority priority = priorityOf(product.getId());
             priority.setLastCheck(LocalDateTime.now());
+            priority.resetConsecutiveUnknown();
             priority.incrementTotalChecks();
             
-            // 检查库存状态变化
+            // 检查库存状态变化（在覆盖上次状态之前比较）
             boolean currentInStock = result.getInStock();
-            priority.incrementStockChanges();
+            Boolean previousInStock = product.getLastKnownStock();
+            boolean stockChanged = previousInStock != null && previousInStock != currentInStock;
+            if (stockChanged) {
+                priority.incrementStockChanges();
+            }
+            resultCache.updateVolatility(product.getUrl(), priority.getStockChanges());
             // 发送通知
             if (currentInStock) {
                 logger.info("Sending notification: Product {} is now IN STOCK", product.getId());
@@ -189,46 +319,106 @@ public class MonitoringService {
             history.setProductId(product.getId());
             history.setInStock(currentInStock);
             history.setResponseTime(result.getResponseTime());
+            history.setPhaseTimings(result.formatPhaseTimings());
             history.setErrorMessage(result.getErrorMessage());
             history.setCheckedAt(LocalDateTime.now());
             
-            // Check if stock status changed
-            boolean stockChanged = !Boolean.valueOf(result.getInStock()).equals(product.getLastKnownStock());
+            // Check if stock status changed（有库存时上面已发送通知）
             history.setStockChanged(stockChanged);
             
             if (stockChanged) {
                 logger.info("Stock status changed for {}: {} -> {}", 
                     product.getProductName(), 
-                    product.getLastKnownStock() ? "IN STOCK" : "OUT OF STOCK",
-                    result.getInStock() ? "IN STOCK" : "OUT OF STOCK");
-                
-                // Send notification if product came back in stock
-                if (result.getInStock()) {
-                    notificationService.sendStockAlert(product);
-                }
+                    previousInStock ? "IN STOCK" : "OUT OF STOCK",
+                    currentInStock ? "IN STOCK" : "OUT OF STOCK");
             }
             
             historyRepository.insert(history);
             
             // 动态调整优先级
             adjustProductPriority(product, priority, currentInStock);
+            updateParking(product, priority.getPriority());
             
             long duration = System.currentTimeMillis() - startTime;
             logger.debug("Product {} check completed in {}ms, status: {}, priority: {}", 
                 product.getId(), duration, currentInStock ? "IN_STOCK" : "OUT_OF_STOCK", priority.getPriority());
             
         } catch (Exception e) {
-            logger.error("Error checking product {}: {}", product.getId(), e.getMessage());
-            
-            // 记录错误历史
-            StockCheckHistory history = new StockCheckHistory();
-            history.setProductId(product.getId());
-            history.setInStock(false);
-            history.setResponseTime(-1);
-            history.setErrorMessage(e.getMessage());
-            history.setCheckedAt(LocalDateTime.now());
-            historyRepository.insert(history);
+            recordCheckError(product, e);
+        }
+    }
+    
+    /**
+     * HIGH 优先级商品驻留标签页轮询，降为 LOW / COLD 后释放（MEDIUM 时保留，刚售罄的热门商品可能很快补货）
+     */
+    private void updateParking(MonitoredProduct product, Priority priority) {
+        if (!parkedTabPoller.isEnabled()) {
+            return;
+        }
+        if (priority == Priority.HIGH) {
+            Long id = product.getId();
+            parkedTabPoller.park(product, result -> monitoringExecutor.execute(() -> onParkedStockChange(id, result)));
+        } else if (priority == Priority.LOW || priority == Priority.COLD) {
+            parkedTabPoller.unpark(product.getId());
+        }
+    }
+    
+    /**
+     * 驻留标签页发现库存变化：立即按正常检查结果处理（重新读取商品，避免覆盖期间的修改）
+     */
+    private void onParkedStockChange(Long id, StockCheckResult result) {
+        MonitoredProduct product = productRepository.selectById(id);
+        if (product == null || !Boolean.TRUE.equals(product.getIsActive())) {
+            parkedTabPoller.unpark(id);
+            return;
         }
+        processCheckResult(product, result, System.currentTimeMillis());
+    }
+    
+    /**
+     * 记录检查异常
+     */
+    private void recordCheckError(MonitoredProduct product, Exception e) {
+        logger.error("Error checking product {}: {}", product.getId(), e.getMessage());
+        backOff(product);
+        
+        // 记录错误历史
+        StockCheckHistory history = new StockCheckHistory();
+        history.setProductId(product.getId());
+        history.setInStock(false);
+        history.setResponseTime(-1);
+        history.setErrorMessage(e.getMessage());
+        history.setCheckedAt(LocalDateTime.now());
+        historyRepository.insert(history);
+    }
+    
+    /**
+     * 获取商品的优先级信息，首次访问时用检查历史中的库存变化次数初始化，
+     * 重启后缓存 TTL 仍按商品的真实波动计算，而不是从零变化开始
+     */
+    private ProductPriority priorityOf(Long productId) {
+        ProductPriority priority = productPriorities.get(productId);
+        if (priority != null) {
+            return priority;
+        }
+        
+        ProductPriority seeded = new ProductPriority();
+        try {
+            seeded.setStockChanges(historyRepository.countStockChangesByProductId(productId));
+        } catch (Exception e) {
+            logger.warn("Failed to load stock changes for product {}: {}", productId, e.getMessage());
+        }
+        ProductPriority existing = productPriorities.putIfAbsent(productId, seeded);
+        return existing != null ? existing : seeded;
+    }
+    
+    /**
+     * 检查未得到结论时更新检查时间并退避，避免下一轮立即重试同一商品
+     */
+    private void backOff(MonitoredProduct product) {
+        ProductPriority priority = priorityOf(product.getId());
+        priority.setLastCheck(LocalDateTime.now());
+        priority.incrementConsecutiveUnknown();
     }
     
     /**
@@ -293,11 +483,11 @@ public class MonitoringService {
     public StockCheckHistory checkProductStock(MonitoredProduct product) {
         logger.debug("Checking stock for product: {} ({})", product.getProductName(), product.getUrl());
         
-        StockCheckResult result = webScrapingService.checkStock(product.getUrl());
+        StockCheckResult result = stockSourceRegistry.resolve(product).checkStock(product.getUrl());
         
         StockCheckHistory history;
         
-        if (result.hasError()) {
+        if (result.hasError() || result.isUnknown()) {
             history = new StockCheckHistory(product, result.getErrorMessage());
             product.setLastError(result.getErrorMessage());
         } else {
@@ -324,6 +514,7 @@ public class MonitoringService {
         }
         
         history.setResponseTime(result.getResponseTime());
+        history.setPhaseTimings(result.formatPhaseTimings());
         product.setLastCheckedAt(LocalDateTime.now());
         
         // Save to database using MyBatis Plus
@@ -346,6 +537,7 @@ public class MonitoringService {
         StockCheckHistory history = new StockCheckHistory();
         history.setInStock(result.getInStock());
         history.setResponseTime(result.getResponseTime());
+        history.setPhaseTimings(result.formatPhaseTimings());
         history.setCheckedAt(LocalDateTime.now());
         
         if (result.hasError()) {
@@ -357,6 +549,11 @@ public class MonitoringService {
     
     @Transactional
     public MonitoredProduct addProduct(String url, String productName, String userId) {
+        return addProduct(url, productName, userId, null);
+    }
+    
+    @Transactional
+    public MonitoredProduct addProduct(String url, String productName, String userId, String stockSource) {
         // Check if product already exists
         Optional<MonitoredProduct> existing = productRepository.findByUrl(url);
         if (existing.isPresent()) {
@@ -387,6 +584,12 @@ public class MonitoringService {
         // 设置从URL中提取的Product ID
         product.setProductId(extractedProductId);
         
+        // 指定数据源时校验并保存，未指定则使用全局配置
+        StockSourceType sourceType = StockSourceType.fromValue(stockSource);
+        if (sourceType != null) {
+            product.setStockSource(sourceType.getValue());
+        }
+        
         productRepository.insert(product);
         
         logger.info("Added new product to monitor: {} (ID: {}) by user {}", 
@@ -0,0 +1,273 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于 Chrome DevTools Protocol 的网络请求拦截与单页资源预算
+ *
+ * - 按资源类型（Fetch 域拦截）和 URL 模式（Network.setBlockedURLs）屏蔽字体、媒体、统计和第三方脚本
+ * - 检查期间单页请求数/字节数超出预算后屏蔽该页后续所有请求，检查结束即恢复，
+ *   不影响检查之外的导航（会话保温、驻留标签页）
+ * - 统计每次检查加载和节省的请求数、字节数
+ */
+@Component
+public class NetworkBudgetInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(NetworkBudgetInterceptor.class);
+
+    // 被屏蔽请求的大小无法得知，按资源类型估算节省的字节数
+    private static final Map<String, Long> ESTIMATED_BYTES = new HashMap<>();
+    static {
+        ESTIMATED_BYTES.put("Image", 40L * 1024);
+        ESTIMATED_BYTES.put("Media", 500L * 1024);
+        ESTIMATED_BYTES.put("Font", 60L * 1024);
+        ESTIMATED_BYTES.put("Script", 80L * 1024);
+        ESTIMATED_BYTES.put("Stylesheet", 30L * 1024);
+    }
+    private static final long DEFAULT_ESTIMATED_BYTES = 10L * 1024;
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<WebDriver, PageBudget> budgets = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * 为新建的 WebDriver 安装拦截规则和事件监听
+     */
+    public void install(WebDriver driver) {
+        PopMartConfig.Network network = getNetworkConfig();
+        if (!network.isEnabled() || !(driver instanceof HasDevTools)) {
+            return;
+        }
+
+        try {
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+
+            PageBudget budget = new PageBudget(devTools);
+            devTools.send(new Command<Void>("Network.enable", Collections.<String, Object>emptyMap()));
+            applyBlockedUrls(budget, network.getBlockedUrlPatterns());
+
+            if (!network.getBlockedResourceTypes().isEmpty()) {
+                List<Map<String, Object>> patterns = new ArrayList<>();
+                for (String resourceType : network.getBlockedResourceTypes()) {
+                    Map<String, Object> pattern = new HashMap<>();
+                    pattern.put("urlPattern", "*");
+                    pattern.put("resourceType", resourceType);
+                    pattern.put("requestStage", "Request");
+                    patterns.add(pattern);
+                }
+                devTools.addListener(mapEvent("Fetch.requestPaused"), params -> onRequestPaused(budget, params));
+                devTools.send(new Command<Void>("Fetch.enable", Collections.<String, Object>singletonMap("patterns", patterns)));
+            }
+
+            devTools.addListener(mapEvent("Network.requestWillBeSent"), params -> onRequest(budget, params));
+            devTools.addListener(mapEvent("Network.loadingFinished"), params -> onLoaded(budget, params));
+            devTools.addListener(mapEvent("Network.loadingFailed"), params -> onFailed(budget, params));
+
+            budgets.put(driver, budget);
+            logger.debug("Network interceptor installed: {} resource types, {} URL patterns blocked",
+                network.getBlockedResourceTypes().size(), network.getBlockedUrlPatterns().size());
+        } catch (Exception e) {
+            logger.warn("Failed to install network interceptor: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 开始一次检查：重置计数、恢复正常的屏蔽规则并开始执行预算
+     */
+    public void beginCheck(WebDriver driver) {
+        PageBudget budget = budgets.get(driver);
+        if (budget == null) {
+            return;
+        }
+        budget.reset();
+        restoreBlockedUrls(budget);
+        budget.active = true;
+    }
+
+    /**
+     * 结束一次检查：停止执行预算并恢复正常的屏蔽规则，返回本次的网络统计
+     *
+     * @return 网络统计，未安装拦截器时返回 null
+     */
+    public NetworkStats endCheck(WebDriver driver) {
+        PageBudget budget = budgets.get(driver);
+        if (budget == null) {
+            return null;
+        }
+
+        budget.active = false;
+        NetworkStats stats = new NetworkStats(budget.requests.get(), budget.bytes.get(),
+            budget.blockedRequests.get(), budget.savedBytes.get(), budget.exhausted.get());
+        restoreBlockedUrls(budget);
+
+        meterRegistry.counter("popmart.network.requests", "outcome", "sent").increment(stats.getRequests());
+        meterRegistry.counter("popmart.network.requests", "outcome", "blocked").increment(stats.getBlockedRequests());
+        meterRegistry.counter("popmart.network.bytes", "outcome", "loaded").increment(stats.getBytes());
+        meterRegistry.counter("popmart.network.bytes", "outcome", "saved").increment(stats.getEstimatedSavedBytes());
+
+        logger.debug("Network stats for check: {}", stats);
+        return stats;
+    }
+
+    private void onRequestPaused(PageBudget budget, Map<String, Object> params) {
+        String requestId = (String) params.get("requestId");
+        String resourceType = (String) params.get("resourceType");
+        try {
+            Map<String, Object> fail = new HashMap<>();
+            fail.put("requestId", requestId);
+            fail.put("errorReason", "BlockedByClient");
+            budget.devTools.send(new Command<Void>("Fetch.failRequest", fail));
+            budget.recordBlocked(resourceType);
+        } catch (Exception e) {
+            logger.debug("Failed to block request {}: {}", requestId, e.getMessage());
+        }
+    }
+
+    private void onRequest(PageBudget budget, Map<String, Object> params) {
+        int requests = budget.requests.incrementAndGet();
+        if (budget.active && requests > getNetworkConfig().getMaxRequestsPerPage()) {
+            exhaust(budget, "requests");
+        }
+    }
+
+    private void onLoaded(PageBudget budget, Map<String, Object> params) {
+        Object length = params.get("encodedDataLength");
+        if (length instanceof Number) {
+            long bytes = budget.bytes.addAndGet(((Number) length).longValue());
+            if (budget.active && bytes > getNetworkConfig().getMaxKilobytesPerPage() * 1024L) {
+                exhaust(budget, "bytes");
+            }
+        }
+    }
+
+    private void onFailed(PageBudget budget, Map<String, Object> params) {
+        // setBlockedURLs 屏蔽的请求以 blockedReason=inspector 报告
+        if ("inspector".equals(params.get("blockedReason"))) {
+            budget.recordBlocked((String) params.get("type"));
+        }
+    }
+
+    /**
+     * 超出单页预算：屏蔽该页后续所有请求
+     */
+    private void exhaust(PageBudget budget, String reason) {
+        if (budget.exhausted.compareAndSet(false, true)) {
+            logger.debug("Page exceeded network budget ({}), blocking further requests", reason);
+            applyBlockedUrls(budget, Collections.singletonList("*"));
+        }
+    }
+
+    /**
+     * 超出预算后屏蔽了全部请求时恢复为配置的屏蔽规则
+     */
+    private void restoreBlockedUrls(PageBudget budget) {
+        if (budget.exhausted.getAndSet(false)) {
+            applyBlockedUrls(budget, getNetworkConfig().getBlockedUrlPatterns());
+        }
+    }
+
+    private void applyBlockedUrls(PageBudget budget, List<String> patterns) {
+        try {
+            budget.devTools.send(new Command<Void>("Network.setBlockedURLs",
+                Collections.<String, Object>singletonMap("urls", patterns)));
+        } catch (Exception e) {
+            logger.debug("Failed to set blocked URLs: {}", e.getMessage());
+        }
+    }
+
+    private Event<Map<String, Object>> mapEvent(String method) {
+        return new Event<>(method, input -> input.read(Json.MAP_TYPE));
+    }
+
+    private PopMartConfig.Network getNetworkConfig() {
+        return config.getMonitor().getSelenium().getNetwork();
+    }
+
+    /**
+     * 单个 WebDriver 的当前页面预算
+     */
+    private static class PageBudget {
+        private final DevTools devTools;
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+        private final AtomicInteger blockedRequests = new AtomicInteger();
+        private final AtomicLong savedBytes = new AtomicLong();
+        private final AtomicBoolean exhausted = new AtomicBoolean();
+        // 只在检查期间执行预算
+        private volatile boolean active;
+
+        PageBudget(DevTools devTools) {
+            this.devTools = devTools;
+        }
+
+        void reset() {
+            requests.set(0);
+            bytes.set(0);
+            blockedRequests.set(0);
+            savedBytes.set(0);
+        }
+
+        void recordBlocked(String resourceType) {
+            blockedRequests.incrementAndGet();
+            Long estimate = resourceType != null ? ESTIMATED_BYTES.get(resourceType) : null;
+            savedBytes.addAndGet(estimate != null ? estimate : DEFAULT_ESTIMATED_BYTES);
+        }
+    }
+
+    /**
+     * 单次检查的网络统计
+     */
+    public static class NetworkStats {
+        private final int requests;
+        private final long bytes;
+        private final int blockedRequests;
+        private final long estimatedSavedBytes;
+        private final boolean budgetExceeded;
+
+        public NetworkStats(int requests, long bytes, int blockedRequests, long estimatedSavedBytes, boolean budgetExceeded) {
+            this.requests = requests;
+            this.bytes = bytes;
+            this.blockedRequests = blockedRequests;
+            this.estimatedSavedBytes = estimatedSavedBytes;
+            this.budgetExceeded = budgetExceeded;
+        }
+
+        public int getRequests() { return requests; }
+        public long getBytes() { return bytes; }
+        public int getBlockedRequests() { return blockedRequests; }
+        public long getEstimatedSavedBytes() { return estimatedSavedBytes; }
+        public boolean isBudgetExceeded() { return budgetExceeded; }
+
+        @Override
+        public String toString() {
+            return String.format("NetworkStats[requests=%d, bytes=%dKB, blocked=%d, saved~%dKB, budgetExceeded=%s]",
+                requests, bytes / 1024, blockedRequests, estimatedSavedBytes / 1024, budgetExceeded);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.popmart.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * 缺货标识检测：读取一次页面文本，只能判定缺货
+ */
+@Component
+public class OutOfStockMarkerStrategy extends ScriptDetectionStrategy {
+
+    public OutOfStockMarkerStrategy() {
+        super("scripts/detection/out-of-stock-marker.js");
+    }
+
+    @Override
+    public String getName() {
+        return "out_of_stock_marker";
+    }
+
+    @Override
+    public int getCost() {
+        return 2;
+    }
+}
@@ -0,0 +1,123 @@
+package com.popmart.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.Hashing;
+import com.popmart.config.PopMartConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按 URL 保存页面验证信息和库存区域指纹
+ *
+ * - 保存 ETag / Last-Modified，用于发送条件请求
+ * - 保存库存相关区域的哈希，页面其他部分变化不影响判断
+ * - 记录由该区域（内嵌 SKU 库存数据）得出的明确结论，304 时在 fingerprint-max-age 内复用；
+ *   浏览器得出的结论不记录，服务端 HTML 未变化不代表客户端渲染的库存未变化
+ */
+@Component
+public class PageFingerprintStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PageFingerprintStore.class);
+
+    @Autowired
+    private PopMartConfig config;
+
+    private final Cache<String, PageFingerprint> fingerprints = CacheBuilder.newBuilder()
+        .maximumSize(2000)
+        .expireAfterAccess(7, TimeUnit.DAYS)
+        .build();
+
+    public PageFingerprint get(String url) {
+        return fingerprints.getIfPresent(url);
+    }
+
+    /**
+     * 记录一次完整响应的验证信息和库存区域
+     *
+     * @return 库存区域与上次相同时返回 true
+     */
+    public boolean update(String url, String etag, String lastModified, String stockRegion) {
+        String hash = stockRegion != null
+            ? Hashing.murmur3_128().hashString(stockRegion, StandardCharsets.UTF_8).toString()
+            : null;
+
+        synchronized (fingerprints) {
+            PageFingerprint previous = fingerprints.getIfPresent(url);
+            boolean unchanged = hash != null && previous != null && hash.equals(previous.getHash());
+
+            PageFingerprint current = new PageFingerprint(etag, lastModified, hash);
+            if (unchanged) {
+                current.verdict = previous.verdict;
+                current.verifiedAt = previous.verifiedAt;
+            } else if (previous != null && previous.verdict != null) {
+                logger.debug("Stock region changed for {}, previous verdict discarded", url);
+            }
+            fingerprints.put(url, current);
+            return unchanged;
+        }
+    }
+
+    /**
+     * 记录当前指纹对应的明确结论（只应传入由内嵌 SKU 库存数据得出的结论）
+     */
+    public void recordVerdict(String url, StockStatus status) {
+        if (!status.isDecisive()) {
+            return;
+        }
+        PageFingerprint fingerprint = fingerprints.getIfPresent(url);
+        if (fingerprint != null) {
+            fingerprint.verdict = status;
+            fingerprint.verifiedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 获取仍在有效期内的结论
+     *
+     * @return 上次结论，没有或已超过 fingerprint-max-age 时返回 UNKNOWN
+     */
+    public StockStatus getVerdict(String url) {
+        PageFingerprint fingerprint = fingerprints.getIfPresent(url);
+        if (fingerprint == null || fingerprint.verdict == null) {
+            return StockStatus.UNKNOWN;
+        }
+        long maxAgeMillis = TimeUnit.SECONDS.toMillis(config.getMonitor().getFastPath().getFingerprintMaxAge());
+        if (System.currentTimeMillis() - fingerprint.verifiedAt > maxAgeMillis) {
+            return StockStatus.UNKNOWN;
+        }
+        return fingerprint.verdict;
+    }
+
+    public void invalidate(String url) {
+        fingerprints.invalidate(url);
+    }
+
+    /**
+     * 单个 URL 的验证信息、库存区域哈希和最近结论
+     */
+    public static class PageFingerprint {
+        private final String etag;
+        private final String lastModified;
+        private final String hash;
+        private volatile StockStatus verdict;
+        private volatile long verifiedAt;
+
+        PageFingerprint(String etag, String lastModified, String hash) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.hash = hash;
+        }
+
+        public String getEtag() { return etag; }
+        public String getLastModified() { return lastModified; }
+        public String getHash() { return hash; }
+        public StockStatus getVerdict() { return verdict; }
+        public long getVerifiedAt() { return verifiedAt; }
+    }
+}
@@ -0,0 +1,362 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import com.popmart.dto.response.StockCheckResult;
+import com.popmart.entity.MonitoredProduct;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static com.popmart.utils.urlUtils.extractProductId;
+
+/**
+ * 驻留标签页轮询
+ *
+ * 热门商品各占用一个 WebDriver 停留在商品页，按固定间隔通过 {@link ProductApiStockSource} 请求商品接口，
+ * 每次轮询只是一次几 KB 的接口请求，不再整页导航。
+ *
+ * 接口请求由服务端 HTTP 客户端发出，而不是在页面内 fetch()：商品页与商品接口不同源，
+ * 携带 Cookie 和自定义请求头的跨域请求需要 CORS 预检，站点不保证放行。
+ *
+ * - 库存状态变化时立即回调，不等待下一轮调度
+ * - 最近一次明确结果供调度周期直接使用
+ * - 接口请求经过熔断、域名限流和舱壁，被拒绝时跳过本次轮询
+ * - 驻留的 WebDriver 计入浏览器舱壁：借出前占用许可，归还或丢弃时释放，舱壁已满时暂不借出
+ * - 轮询 reload-after 次后重新加载商品页刷新会话；页面连续加载失败后丢弃 WebDriver，下次重新借出
+ */
+@Service
+public class ParkedTabPoller {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParkedTabPoller.class);
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private DriverPool driverPool;
+
+    @Autowired
+    private ProductApiStockSource productApi;
+
+    @Autowired
+    private HostRateLimiter rateLimiter;
+
+    @Autowired
+    private BulkheadRegistry bulkheads;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 商品记录 ID -> 驻留标签页
+    private final Map<Long, ParkedTab> tabs = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    private ExecutorService pollExecutor;
+
+    @PostConstruct
+    public void initialize() {
+        meterRegistry.gauge("popmart.parked.tabs", tabs, Map::size);
+
+        PopMartConfig.ParkedTabs parkedTabs = getParkedTabsConfig();
+        if (!parkedTabs.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("parked-tab-scheduler-"));
+        pollExecutor = Executors.newFixedThreadPool(Math.max(1, parkedTabs.getMaxTabs()), daemonThreads("parked-tab-poll-"));
+        long interval = Math.max(1, parkedTabs.getPollInterval());
+        scheduler.scheduleWithFixedDelay(this::pollAll, interval, interval, TimeUnit.SECONDS);
+        logger.info("Parked tab polling enabled (max {} tabs, every {}s)", parkedTabs.getMaxTabs(), interval);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Long productId : new ArrayList<>(tabs.keySet())) {
+            unpark(productId);
+        }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            pollExecutor.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return getParkedTabsConfig().isEnabled();
+    }
+
+    public boolean isParked(Long productId) {
+        return tabs.containsKey(productId);
+    }
+
+    /**
+     * 为商品驻留一个标签页（WebDriver 在下一次轮询时借出并导航）
+     *
+     * @param onChange 库存状态变化时的回调，在轮询线程上执行
+     * @return 已驻留或新驻留返回 true，未启用、无法解析商品 ID 或已达上限返回 false
+     */
+    public boolean park(MonitoredProduct product, Consumer<StockCheckResult> onChange) {
+        if (!isEnabled()) {
+            return false;
+        }
+        if (tabs.containsKey(product.getId())) {
+            return true;
+        }
+        // 商品接口按 URL 中的商品 ID 请求
+        if (extractProductId(product.getUrl()) == null) {
+            return false;
+        }
+
+        synchronized (tabs) {
+            if (tabs.containsKey(product.getId())) {
+                return true;
+            }
+            if (tabs.size() >= getParkedTabsConfig().getMaxTabs()) {
+                logger.debug("Parked tab limit reached, not parking product {}", product.getId());
+                return false;
+            }
+            StockStatus known = product.getLastKnownStock() == null ? null
+                : product.getLastKnownStock() ? StockStatus.IN_STOCK : StockStatus.OUT_OF_STOCK;
+            tabs.put(product.getId(), new ParkedTab(product.getId(), product.getUrl(), known, onChange));
+        }
+        logger.info("Parked tab for product {} ({})", product.getId(), product.getUrl());
+        return true;
+    }
+
+    /**
+     * 取消驻留并归还 WebDriver（正在轮询时由轮询线程在结束后归还）
+     */
+    public void unpark(Long productId) {
+        ParkedTab tab = tabs.remove(productId);
+        if (tab == null) {
+            return;
+        }
+        tab.closed = true;
+        if (tab.busy.compareAndSet(false, true)) {
+            releaseDriver(tab, false);
+        }
+        logger.info("Unparked tab for product {}", productId);
+    }
+
+    /**
+     * 取消不在给定集合中的商品的驻留（商品已下架或停止监控）
+     */
+    public void retainOnly(Collection<Long> productIds) {
+        for (Long productId : new ArrayList<>(tabs.keySet())) {
+            if (!productIds.contains(productId)) {
+                unpark(productId);
+            }
+        }
+    }
+
+    /**
+     * 最近一次明确的轮询结果
+     *
+     * @return 未驻留、尚无结果或结果已超过 3 个轮询间隔时返回 null
+     */
+    public StockCheckResult getLatestResult(Long productId) {
+        ParkedTab tab = tabs.get(productId);
+        if (tab == null || tab.latestResult == null) {
+            return null;
+        }
+        long maxAge = TimeUnit.SECONDS.toMillis(getParkedTabsConfig().getPollInterval()) * 3;
+        return System.currentTimeMillis() - tab.latestAt <= maxAge ? tab.latestResult : null;
+    }
+
+    private void pollAll() {
+        for (ParkedTab tab : tabs.values()) {
+            if (!tab.busy.compareAndSet(false, true)) {
+                continue;
+            }
+            try {
+                pollExecutor.execute(() -> {
+                    try {
+                        poll(tab);
+                    } finally {
+                        finishPoll(tab);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                finishPoll(tab);
+            }
+        }
+    }
+
+    private void finishPoll(ParkedTab tab) {
+        tab.busy.set(false);
+        // 轮询期间被取消驻留：由本线程归还 WebDriver
+        if (tab.closed && tab.busy.compareAndSet(false, true)) {
+            releaseDriver(tab, false);
+        }
+    }
+
+    private void poll(ParkedTab tab) {
+        if (tab.closed) {
+            return;
+        }
+        long startTime = System.currentTimeMillis();
+        try {
+            if (tab.driver == null || tab.polls >= getParkedTabsConfig().getReloadAfter()) {
+                openPage(tab);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Exception e) {
+            meterRegistry.counter("popmart.parked.polls", "result", "page_error").increment();
+            onPageFailure(tab, e.getMessage());
+        }
+
+        // 库存轮询不依赖页面状态，页面暂时借不到或加载失败时照常请求接口
+        tab.polls++;
+        StockCheckResult response = productApi.checkStock(tab.url);
+        long pollTime = System.currentTimeMillis() - startTime;
+        if (response.isRejected()) {
+            meterRegistry.counter("popmart.parked.polls", "result", "rejected").increment();
+            return;
+        }
+        if (response.isUnknown()) {
+            meterRegistry.counter("popmart.parked.polls", "result", "unknown").increment();
+            logger.debug("Parked tab poll for {} got no stock status: {}", tab.url, response.getErrorMessage());
+            return;
+        }
+        StockStatus status = response.getInStock() ? StockStatus.IN_STOCK : StockStatus.OUT_OF_STOCK;
+        meterRegistry.counter("popmart.parked.polls", "result", status.name().toLowerCase()).increment();
+        onResult(tab, status, pollTime);
+    }
+
+    /**
+     * 借出 WebDriver（首次）并加载商品页，借出前占用浏览器舱壁许可
+     */
+    private void openPage(ParkedTab tab) throws InterruptedException {
+        if (!rateLimiter.acquire(tab.url)) {
+            return;
+        }
+        if (tab.driver == null) {
+            if (!bulkheads.tryEnter(CircuitBreakerRegistry.BROWSER)) {
+                logger.debug("Parked tab for {} waiting for a browser bulkhead permit", tab.url);
+                return;
+            }
+            WebDriver driver;
+            try {
+                driver = driverPool.borrow();
+            } catch (InterruptedException | RuntimeException e) {
+                bulkheads.exit(CircuitBreakerRegistry.BROWSER);
+                throw e;
+            }
+            synchronized (tab) {
+                tab.driver = driver;
+            }
+        }
+        tab.driver.get(tab.url);
+        tab.polls = 0;
+        tab.failures = 0;
+        logger.debug("Parked tab loaded {}", tab.url);
+    }
+
+    private void onResult(ParkedTab tab, StockStatus status, long pollTime) {
+        StockCheckResult result = StockCheckResult.builder()
+            .inStock(status == StockStatus.IN_STOCK)
+            .responseTime((int) pollTime)
+            .phaseTimings(Collections.singletonMap(PhaseTimer.PARKED_POLL, pollTime))
+            .build();
+        tab.latestResult = result;
+        tab.latestAt = System.currentTimeMillis();
+
+        if (status != tab.lastStatus) {
+            logger.info("Parked tab detected stock change for {}: {} -> {}", tab.url, tab.lastStatus, status);
+            tab.lastStatus = status;
+            try {
+                tab.onChange.accept(result);
+            } catch (Exception e) {
+                logger.error("Parked tab callback failed for product {}: {}", tab.productId, e.getMessage());
+            }
+        }
+    }
+
+    private void onPageFailure(ParkedTab tab, String message) {
+        tab.failures++;
+        logger.debug("Parked tab page load failed for {} ({} consecutive): {}", tab.url, tab.failures, message);
+        if (tab.failures >= getParkedTabsConfig().getMaxFailures()) {
+            logger.warn("Parked tab for {} failed {} times, discarding driver", tab.url, tab.failures);
+            releaseDriver(tab, true);
+            tab.failures = 0;
+        }
+    }
+
+    private void releaseDriver(ParkedTab tab, boolean invalidate) {
+        WebDriver driver;
+        synchronized (tab) {
+            driver = tab.driver;
+            tab.driver = null;
+        }
+        if (driver == null) {
+            return;
+        }
+        try {
+            if (invalidate) {
+                driverPool.invalidate(driver);
+            } else {
+                driverPool.release(driver);
+            }
+        } finally {
+            bulkheads.exit(CircuitBreakerRegistry.BROWSER);
+        }
+    }
+
+    private PopMartConfig.ParkedTabs getParkedTabsConfig() {
+        return config.getMonitor().getParkedTabs();
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 一个驻留的标签页（同一时间只有一个轮询线程使用）
+     */
+    private static class ParkedTab {
+        private final Long productId;
+        private final String url;
+        private final Consumer<StockCheckResult> onChange;
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile WebDriver driver;
+        private volatile StockCheckResult latestResult;
+        private volatile long latestAt;
+        private StockStatus lastStatus;
+        private int polls;
+        private int failures;
+
+        ParkedTab(Long productId, String url, StockStatus lastStatus, Consumer<StockCheckResult> onChange) {
+            this.productId = productId;
+            this.url = url;
+            this.lastStatus = lastStatus;
+            this.onChange = onChange;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.popmart.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次库存检查的分阶段计时
+ *
+ * 按执行顺序调用 {@link #lap(String)}，记录自上一次计时点以来的耗时，同名阶段累加。
+ */
+public class PhaseTimer {
+
+    public static final String CACHE = "cache";
+    public static final String IN_FLIGHT_WAIT = "in_flight_wait";
+    public static final String FAST_PATH = "fast_path";
+    public static final String PROBE = "probe";
+    public static final String BULKHEAD = "bulkhead";
+    public static final String RATE_LIMIT = "rate_limit";
+    public static final String BORROW = "borrow";
+    public static final String NAVIGATION = "navigation";
+    public static final String ELEMENT_WAIT = "element_wait";
+    public static final String DETECTION = "detection";
+    public static final String RELEASE = "release";
+    public static final String LISTING = "listing";
+    public static final String HEDGE = "hedge";
+    public static final String PARKED_POLL = "parked_poll";
+
+    /**
+     * 单个检测策略的阶段名称（detection.&lt;策略名称&gt;）
+     */
+    public static String detection(String strategy) {
+        return DETECTION + "." + strategy;
+    }
+
+    private final Map<String, Long> nanosByPhase = new LinkedHashMap<>();
+    private long lastMark = System.nanoTime();
+
+    /**
+     * 结束一个阶段
+     */
+    public void lap(String phase) {
+        long now = System.nanoTime();
+        nanosByPhase.merge(phase, now - lastMark, Long::sum);
+        lastMark = now;
+    }
+
+    /**
+     * 并入另一个计时器（在其他线程上完成的阶段），之后从当前时刻继续计时
+     */
+    public void merge(PhaseTimer other) {
+        for (Map.Entry<String, Long> entry : other.nanosByPhase.entrySet()) {
+            nanosByPhase.merge(entry.getKey(), entry.getValue(), Long::sum);
+        }
+        lastMark = System.nanoTime();
+    }
+
+    /**
+     * 各阶段耗时（毫秒，按执行顺序）
+     */
+    public Map<String, Long> getTimings() {
+        Map<String, Long> timings = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : nanosByPhase.entrySet()) {
+            timings.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue()));
+        }
+        return Collections.unmodifiableMap(timings);
+    }
+
+    /**
+     * 将各阶段耗时记录到 Micrometer 计时器 popmart.check.phase
+     */
+    public void record(MeterRegistry meterRegistry) {
+        for (Map.Entry<String, Long> entry : nanosByPhase.entrySet()) {
+            meterRegistry.timer("popmart.check.phase", "phase", entry.getKey())
+                .record(entry.getValue(), TimeUnit.NANOSECONDS);
+        }
+    }
+}
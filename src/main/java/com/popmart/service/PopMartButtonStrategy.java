@@ -0,0 +1,24 @@
+package com.popmart.service;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Pop Mart 加购按钮检测：只查询按钮样式的 div，只能判定有库存
+ */
+@Component
+public class PopMartButtonStrategy extends ScriptDetectionStrategy {
+
+    public PopMartButtonStrategy() {
+        super("scripts/detection/popmart-button.js");
+    }
+
+    @Override
+    public String getName() {
+        return "popmart_button";
+    }
+
+    @Override
+    public int getCost() {
+        return 1;
+    }
+}
@@ -0,0 +1,163 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import com.popmart.dto.response.StockCheckResult;
+import com.popmart.utils.ProductPageParser;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.popmart.utils.urlUtils.extractProductId;
+
+/**
+ * 基于商品 JSON 接口的库存数据源
+ *
+ * 按 URL 中的商品 ID 直接请求商品/SKU 接口，只需传输几 KB 的 JSON，无需渲染页面。
+ * 与 HTTP 快速路径共用接口域名的熔断器、限流和 HTTP 舱壁。
+ */
+@Service
+public class ProductApiStockSource implements StockSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductApiStockSource.class);
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private CloseableHttpClient popMartHttpClient;
+
+    @Autowired
+    private HostRateLimiter rateLimiter;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakers;
+
+    @Autowired
+    private BulkheadRegistry bulkheads;
+
+    @Override
+    public StockSourceType getType() {
+        return StockSourceType.API;
+    }
+
+    @Override
+    public StockCheckResult checkStock(String url) {
+        long startTime = System.currentTimeMillis();
+
+        String productId = extractProductId(url);
+        if (productId == null) {
+            return StockCheckResult.unknown("无法从URL中提取商品ID", (int)(System.currentTimeMillis() - startTime));
+        }
+
+        String endpoint = getEndpoint(productId);
+
+        // 依次经过熔断、限流和舱壁，任一拒绝时不发出请求
+        if (!circuitBreakers.allowRequest(endpoint, CircuitBreakerRegistry.HTTP)) {
+            return StockCheckResult.rejected("商品接口暂不可用（熔断中），稍后重试", (int)(System.currentTimeMillis() - startTime));
+        }
+        if (!rateLimiter.acquire(endpoint)) {
+            circuitBreakers.releasePermit(endpoint, CircuitBreakerRegistry.HTTP);
+            return StockCheckResult.rejected("请求频率受限，稍后重试", (int)(System.currentTimeMillis() - startTime));
+        }
+        if (!bulkheads.tryEnter(CircuitBreakerRegistry.HTTP)) {
+            circuitBreakers.releasePermit(endpoint, CircuitBreakerRegistry.HTTP);
+            return StockCheckResult.rejected("商品接口检查繁忙，稍后重试", (int)(System.currentTimeMillis() - startTime));
+        }
+
+        try {
+            String json = fetchProductJson(endpoint);
+            StockStatus status = ProductPageParser.parseProductJson(json);
+            if (!status.isDecisive()) {
+                return StockCheckResult.unknown("商品接口响应中未找到库存信息", (int)(System.currentTimeMillis() - startTime));
+            }
+
+            return StockCheckResult.builder()
+                .inStock(status == StockStatus.IN_STOCK)
+                .responseTime((int)(System.currentTimeMillis() - startTime))
+                .build();
+        } catch (Exception e) {
+            logger.error("商品接口检查失败 (productId={}): {}", productId, e.getMessage());
+            return StockCheckResult.unknown(e.getMessage(), (int)(System.currentTimeMillis() - startTime));
+        } finally {
+            bulkheads.exit(CircuitBreakerRegistry.HTTP);
+        }
+    }
+
+    /**
+     * 商品详情接口地址
+     */
+    private String getEndpoint(String productId) {
+        PopMartConfig.ProductApi api = config.getMonitor().getProductApi();
+        return api.getBaseUrl() + api.getDetailPath().replace("{productId}", productId);
+    }
+
+    /**
+     * 请求商品详情接口的请求头（Accept 加上配置的请求头）
+     */
+    private Map<String, String> getRequestHeaders() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Accept", "application/json");
+        headers.putAll(config.getMonitor().getProductApi().getHeaders());
+        return headers;
+    }
+
+    /**
+     * 请求商品详情接口，并记录熔断结果
+     *
+     * @param endpoint 商品详情接口地址
+     * @return 接口响应 JSON
+     */
+    private String fetchProductJson(String endpoint) throws IOException {
+        HttpGet request = new HttpGet(endpoint);
+        for (Map.Entry<String, String> header : getRequestHeaders().entrySet()) {
+            request.setHeader(header.getKey(), header.getValue());
+        }
+
+        ApiResponse response;
+        try {
+            response = popMartHttpClient.execute(request, httpResponse -> {
+                Header retryAfter = httpResponse.getFirstHeader(HttpHeaders.RETRY_AFTER);
+                rateLimiter.onResponse(endpoint, httpResponse.getCode(), retryAfter != null ? retryAfter.getValue() : null);
+                return new ApiResponse(httpResponse.getCode(),
+                    EntityUtils.toString(httpResponse.getEntity(), StandardCharsets.UTF_8));
+            });
+        } catch (IOException e) {
+            circuitBreakers.recordFailure(endpoint, CircuitBreakerRegistry.HTTP);
+            throw e;
+        }
+
+        if (response.code >= 500 || response.code == 429) {
+            circuitBreakers.recordFailure(endpoint, CircuitBreakerRegistry.HTTP);
+        } else {
+            circuitBreakers.recordSuccess(endpoint, CircuitBreakerRegistry.HTTP);
+        }
+        if (response.code != 200) {
+            throw new IllegalStateException("商品接口返回 HTTP " + response.code);
+        }
+        return response.body;
+    }
+
+    /**
+     * 一次接口请求的响应
+     */
+    private static class ApiResponse {
+        private final int code;
+        private final String body;
+
+        ApiResponse(int code, String body) {
+            this.code = code;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.popmart.service;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.popmart.config.PopMartConfig;
+import com.popmart.entity.DiscoveredProduct;
+import com.popmart.repository.DiscoveredProductRepository;
+import com.popmart.repository.MonitoredProductRepository;
+import com.popmart.utils.ProductPageParser;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.popmart.utils.urlUtils.isValidPopMartUrl;
+
+/**
+ * 新品发现
+ *
+ * 后台定期抓取配置的分类/列表页，发现尚未见过的商品 ID：
+ * - 已见集合：内存中的布隆过滤器（误判率极低，几十万个 ID 只占几百 KB），精确集合持久化在 discovered_products 表，启动时据此重建
+ * - 增量抓取：列表页未变化（304 或商品集合相同）时跳过；翻页时某页没有新商品即停止
+ * - 所有请求经过共享的按域名限流
+ * - 名称匹配配置关键词的新商品自动加入监控
+ */
+@Service
+public class ProductDiscoveryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductDiscoveryService.class);
+
+    // 自动加入监控的商品的添加用户
+    public static final String DISCOVERY_USER_ID = "discovery";
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private ListingPageScanner listingPageScanner;
+
+    @Autowired
+    private DiscoveredProductRepository discoveredProductRepository;
+
+    @Autowired
+    private MonitoredProductRepository productRepository;
+
+    @Autowired
+    private MonitoringService monitoringService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private volatile BloomFilter<CharSequence> seen;
+
+    private final AtomicBoolean crawling = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSeenSet() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            rebuildSeenSet();
+        } catch (Exception e) {
+            logger.warn("Failed to load discovery seen-set, will retry on next crawl: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{${popmart.monitor.discovery.interval:600} * 1000}",
+               initialDelayString = "#{${popmart.monitor.discovery.interval:600} * 1000}")
+    public void crawl() {
+        if (!isEnabled() || !crawling.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            if (seen == null) {
+                rebuildSeenSet();
+            }
+
+            PopMartConfig.Discovery discovery = config.getMonitor().getDiscovery();
+            int discovered = 0;
+            int fetched = 0;
+            int unchanged = 0;
+            for (String page : discovery.getPages()) {
+                for (int depth = 1; depth <= Math.max(1, discovery.getMaxDepth()); depth++) {
+                    String pageUrl = depth == 1 ? page : withPageParam(page, discovery.getPageParam(), depth);
+                    List<ProductPageParser.ListingEntry> entries = listingPageScanner.fetchIfChanged(pageUrl);
+                    if (entries == null) {
+                        unchanged++;
+                        break;
+                    }
+                    if (entries.isEmpty()) {
+                        break;
+                    }
+                    fetched++;
+
+                    int found = process(pageUrl, entries);
+                    discovered += found;
+                    if (found == 0) {
+                        // 列表按上新排序，本页没有新商品时后面的页面也不会有
+                        break;
+                    }
+                }
+            }
+
+            logger.info("Discovery pass finished: {} pages fetched, {} unchanged, {} new products",
+                fetched, unchanged, discovered);
+        } catch (Exception e) {
+            logger.error("Discovery pass failed: {}", e.getMessage());
+        } finally {
+            crawling.set(false);
+        }
+    }
+
+    private boolean isEnabled() {
+        PopMartConfig.Discovery discovery = config.getMonitor().getDiscovery();
+        return discovery.isEnabled() && discovery.getPages() != null && !discovery.getPages().isEmpty();
+    }
+
+    /**
+     * 处理一个列表页中的商品
+     *
+     * @return 新发现的商品数
+     */
+    private int process(String sourcePage, List<ProductPageParser.ListingEntry> entries) {
+        BloomFilter<CharSequence> filter = seen;
+        int found = 0;
+
+        for (ProductPageParser.ListingEntry entry : entries) {
+            if (filter.mightContain(entry.getProductId())) {
+                continue;
+            }
+
+            String url = entry.getUrl() != null ? entry.getUrl() : productUrl(entry);
+            DiscoveredProduct product = new DiscoveredProduct(entry.getProductId(), url, entry.getTitle(), sourcePage);
+            int inserted;
+            try {
+                inserted = discoveredProductRepository.insertIgnore(product);
+            } catch (Exception e) {
+                // 写入失败时不加入已见集合，下次抓取重试
+                logger.warn("Failed to record discovered product {}: {}", entry.getProductId(), e.getMessage());
+                continue;
+            }
+            filter.put(entry.getProductId());
+            if (inserted == 0) {
+                continue;
+            }
+
+            found++;
+            meterRegistry.counter("popmart.discovery.new").increment();
+            logger.info("Discovered new product {} - {} ({})", entry.getProductId(), entry.getTitle(), url);
+
+            if (matchesKeywords(entry, url)) {
+                enroll(product);
+            }
+        }
+
+        // 已见数量超出预期容量导致误判率上升时，按持久化集合重建
+        if (filter.expectedFpp() > config.getMonitor().getDiscovery().getFalsePositiveRate() * 10) {
+            rebuildSeenSet();
+        }
+        return found;
+    }
+
+    private void enroll(DiscoveredProduct product) {
+        if (!isValidPopMartUrl(product.getUrl())) {
+            logger.debug("Skipping auto-enroll for {}: no product URL", product.getProductId());
+            return;
+        }
+        try {
+            monitoringService.addProduct(product.getUrl(), product.getTitle(), DISCOVERY_USER_ID);
+            discoveredProductRepository.markEnrolled(product.getProductId());
+            meterRegistry.counter("popmart.discovery.enrolled").increment();
+            logger.info("Auto-enrolled discovered product {} - {}", product.getProductId(), product.getTitle());
+        } catch (IllegalArgumentException e) {
+            logger.debug("Product {} not enrolled: {}", product.getProductId(), e.getMessage());
+        } catch (Exception e) {
+            logger.warn("Failed to auto-enroll product {}: {}", product.getProductId(), e.getMessage());
+        }
+    }
+
+    private boolean matchesKeywords(ProductPageParser.ListingEntry entry, String url) {
+        List<String> keywords = config.getMonitor().getDiscovery().getKeywords();
+        if (keywords == null || keywords.isEmpty()) {
+            return false;
+        }
+        String text = ((entry.getTitle() != null ? entry.getTitle() : "") + " " + (url != null ? url : "")).toLowerCase();
+        for (String keyword : keywords) {
+            if (keyword != null && !keyword.trim().isEmpty() && text.contains(keyword.trim().toLowerCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 从持久化的已发现商品和已监控商品重建布隆过滤器
+     */
+    private synchronized void rebuildSeenSet() {
+        PopMartConfig.Discovery discovery = config.getMonitor().getDiscovery();
+        List<String> ids = new ArrayList<>(discoveredProductRepository.findAllProductIds());
+        ids.addAll(productRepository.findAllProductIds());
+
+        int expected = Math.max(discovery.getExpectedProducts(), ids.size() * 2);
+        BloomFilter<CharSequence> filter = BloomFilter.create(
+            Funnels.stringFunnel(StandardCharsets.UTF_8), expected, discovery.getFalsePositiveRate());
+        for (String id : ids) {
+            filter.put(id);
+        }
+        seen = filter;
+        logger.info("Loaded {} known product IDs into discovery seen-set (capacity {})", ids.size(), expected);
+    }
+
+    /**
+     * 列表页没有商品链接时按 ID 和名称拼出商品页 URL
+     */
+    private static String productUrl(ProductPageParser.ListingEntry entry) {
+        String slug = entry.getTitle() != null
+            ? entry.getTitle().toLowerCase().replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "")
+            : "";
+        return "https://www.popmart.com/us/products/" + entry.getProductId() + "/" + (slug.isEmpty() ? "product" : slug);
+    }
+
+    private static String withPageParam(String pageUrl, String param, int page) {
+        return pageUrl + (pageUrl.contains("?") ? "&" : "?") + param + "=" + page;
+    }
+}
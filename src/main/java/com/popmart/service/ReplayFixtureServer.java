@@ -0,0 +1,282 @@
+package com.popmart.service;
+
+import com.google.common.hash.Hashing;
+import com.popmart.config.PopMartConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.popmart.utils.urlUtils.isValidPopMartUrl;
+
+/**
+ * 离线回放服务器
+ *
+ * 在本机启动一个 HTTP 服务，返回录制好的商品页（有库存、售罄、到货提醒、损坏页面、系列列表页），
+ * 并按配置注入延迟、5xx 错误和 429 限流。性能测试和压测指向回放地址即可在无网络的机器上
+ * 得到可重复的延迟和吞吐数据。
+ *
+ * - 地址：http://localhost:{port}/us/products/{id}/{fixture}，路径最后一段为样本名
+ * - 样本：类路径 fixtures/*.html，配置了 fixture-dir 时优先读取该目录（录制的页面写入该目录）
+ * - 随机数使用固定种子，同样的请求序列得到同样的延迟和错误
+ * - 仅在 replay.enabled 时创建（连同 /replay/* 接口），录制只接受 Pop Mart 商品页地址
+ */
+@Component
+@ConditionalOnProperty(name = "popmart.monitor.replay.enabled", havingValue = "true")
+public class ReplayFixtureServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplayFixtureServer.class);
+
+    // 随应用一起发布的样本
+    private static final List<String> BUILTIN_FIXTURES = Arrays.asList(
+        "in-stock", "sold-out", "notify-me", "broken", "listing");
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private CloseableHttpClient popMartHttpClient;
+
+    private final Map<String, byte[]> fixtures = new ConcurrentHashMap<>();
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private volatile HttpServer server;
+
+    private Random random;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        try {
+            start();
+        } catch (IOException e) {
+            logger.error("Failed to start replay fixture server: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 启动回放服务器（已启动时直接返回）
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            return;
+        }
+        PopMartConfig.Replay replay = config.getMonitor().getReplay();
+        loadFixtures();
+        random = new Random(replay.getSeed());
+
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", replay.getPort()), 0);
+        httpServer.createContext("/", this::handle);
+        AtomicInteger threadCount = new AtomicInteger();
+        httpServer.setExecutor(Executors.newFixedThreadPool(Math.max(1, replay.getThreads()), r -> {
+            Thread thread = new Thread(r, "replay-fixture-server-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }));
+        httpServer.start();
+        server = httpServer;
+        logger.info("Replay fixture server started at {} with fixtures {}", getBaseUrl(), fixtures.keySet());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+            logger.info("Replay fixture server stopped after {} requests", requests.get());
+        }
+    }
+
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    public String getBaseUrl() {
+        return "http://localhost:" + config.getMonitor().getReplay().getPort();
+    }
+
+    /**
+     * 样本名 -> 回放地址
+     */
+    public Map<String, String> getFixtureUrls() {
+        Map<String, String> urls = new TreeMap<>();
+        for (String name : fixtures.keySet()) {
+            urls.put(name, fixtureUrl(name));
+        }
+        return urls;
+    }
+
+    /**
+     * 样本的回放地址，路径与真实商品页一致
+     */
+    public String fixtureUrl(String name) {
+        return getBaseUrl() + "/us/products/" + (1000 + Math.abs(name.hashCode() % 9000)) + "/" + name;
+    }
+
+    /**
+     * 录制一个真实页面，保存到 fixture-dir 并立即可回放
+     *
+     * @param name 样本名（字母、数字和连字符）
+     * @param url 要录制的页面（必须是 Pop Mart 商品页）
+     * @return 页面字节数
+     */
+    public int record(String name, String url) throws IOException {
+        if (!isValidPopMartUrl(url)) {
+            throw new IllegalArgumentException("只能录制 Pop Mart 商品页: https://www.popmart.com/us/products/...");
+        }
+        if (name == null || !name.matches("[a-z0-9-]+")) {
+            throw new IllegalArgumentException("样本名只能包含小写字母、数字和连字符");
+        }
+        String fixtureDir = config.getMonitor().getReplay().getFixtureDir();
+        if (fixtureDir == null || fixtureDir.trim().isEmpty()) {
+            throw new IllegalStateException("未配置 popmart.monitor.replay.fixture-dir，无法保存录制的页面");
+        }
+
+        HttpGet request = new HttpGet(url);
+        request.setHeader("Accept", "text/html,application/xhtml+xml");
+        request.setHeader("Accept-Language", "en-US,en;q=0.9");
+        byte[] body = popMartHttpClient.execute(request, response -> {
+            if (response.getCode() != 200) {
+                EntityUtils.consume(response.getEntity());
+                throw new IOException("录制失败，页面返回 HTTP " + response.getCode());
+            }
+            return EntityUtils.toByteArray(response.getEntity());
+        });
+
+        Path dir = Paths.get(fixtureDir);
+        Files.createDirectories(dir);
+        Files.write(dir.resolve(name + ".html"), body);
+        fixtures.put(name, body);
+        logger.info("Recorded fixture {} from {} ({} bytes)", name, url, body.length);
+        return body.length;
+    }
+
+    private void loadFixtures() throws IOException {
+        for (String name : BUILTIN_FIXTURES) {
+            try (InputStream in = new ClassPathResource("fixtures/" + name + ".html").getInputStream()) {
+                fixtures.put(name, StreamUtils.copyToByteArray(in));
+            }
+        }
+
+        String fixtureDir = config.getMonitor().getReplay().getFixtureDir();
+        if (fixtureDir != null && !fixtureDir.trim().isEmpty() && Files.isDirectory(Paths.get(fixtureDir))) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(Paths.get(fixtureDir), "*.html")) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString().replaceFirst("\\.html$", "");
+                    fixtures.put(name, Files.readAllBytes(file));
+                }
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            PopMartConfig.Replay replay = config.getMonitor().getReplay();
+            Fault fault = nextFault(replay);
+            if (fault.latencyMillis > 0) {
+                Thread.sleep(fault.latencyMillis);
+            }
+
+            if (fault.throttled) {
+                exchange.getResponseHeaders().set("Retry-After", String.valueOf(replay.getRetryAfter()));
+                send(exchange, 429, "Too Many Requests".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if (fault.error) {
+                send(exchange, 500, "Internal Server Error".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            String name = path.substring(path.lastIndexOf('/') + 1);
+            byte[] body = fixtures.get(name);
+            if (body == null) {
+                send(exchange, 404, ("Unknown fixture: " + name).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+
+            String etag = "\"" + Hashing.murmur3_128().hashBytes(body) + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            send(exchange, 200, body);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void send(HttpExchange exchange, int code, byte[] body) throws IOException {
+        if ("HEAD".equalsIgnoreCase(exchange.getRequestMethod())) {
+            exchange.sendResponseHeaders(code, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * 按配置抽取本次请求的延迟和故障（共享的固定种子随机数，按请求顺序确定）
+     */
+    private synchronized Fault nextFault(PopMartConfig.Replay replay) {
+        int min = Math.max(0, replay.getLatencyMin());
+        int max = Math.max(min, replay.getLatencyMax());
+        long latency = min + (max > min ? random.nextInt(max - min + 1) : 0);
+        double roll = random.nextDouble();
+        boolean throttled = roll < replay.getThrottleRate();
+        boolean error = !throttled && roll < replay.getThrottleRate() + replay.getErrorRate();
+        return new Fault(latency, error, throttled);
+    }
+
+    /**
+     * 单次请求注入的故障
+     */
+    private static class Fault {
+        private final long latencyMillis;
+        private final boolean error;
+        private final boolean throttled;
+
+        Fault(long latencyMillis, boolean error, boolean throttled) {
+            this.latencyMillis = latencyMillis;
+            this.error = error;
+            this.throttled = throttled;
+        }
+    }
+}
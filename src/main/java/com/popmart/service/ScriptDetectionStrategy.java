@@ -0,0 +1,67 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import org.openqa.selenium.JavascriptExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于页面脚本的检测策略：公共前置脚本（参数、HTTP 状态码、限流判断）与策略脚本拼接后执行
+ */
+public abstract class ScriptDetectionStrategy implements StockDetectionStrategy {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScriptDetectionStrategy.class);
+
+    private static final String PRELUDE_PATH = "scripts/detection/prelude.js";
+
+    @Autowired
+    private PopMartConfig config;
+
+    private final String scriptPath;
+
+    private String script;
+
+    // 缺货关键词（小写，页面脚本按小写文本匹配）
+    private List<String> outOfStockKeywords;
+
+    protected ScriptDetectionStrategy(String scriptPath) {
+        this.scriptPath = scriptPath;
+    }
+
+    @PostConstruct
+    public void loadScript() throws IOException {
+        script = read(PRELUDE_PATH) + "\n" + read(scriptPath);
+        outOfStockKeywords = new ArrayList<>();
+        for (String keyword : config.getMonitor().getStockDetection().getOutOfStockKeywords()) {
+            outOfStockKeywords.add(keyword.toLowerCase());
+        }
+        logger.info("Loaded detection strategy {} ({} chars)", getName(), script.length());
+    }
+
+    @Override
+    public StockDetectionResult detect(JavascriptExecutor executor, String keyword) {
+        try {
+            Object value = executor.executeScript(script, keyword, outOfStockKeywords);
+            return StockDetectionResult.fromScriptResult(value);
+        } catch (Exception e) {
+            logger.debug("Detection strategy {} failed: {}", getName(), e.getMessage());
+            return StockDetectionResult.unknown("script_error");
+        }
+    }
+
+    private static String read(String path) throws IOException {
+        try (InputStream in = new ClassPathResource(path).getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+}
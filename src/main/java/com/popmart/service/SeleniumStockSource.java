@@ -0,0 +1,25 @@
+package com.popmart.service;
+
+import com.popmart.dto.response.StockCheckResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * 基于浏览器（及 HTTP 快速路径）的库存数据源
+ */
+@Service
+public class SeleniumStockSource implements StockSource {
+
+    @Autowired
+    private WebScrapingService webScrapingService;
+
+    @Override
+    public StockSourceType getType() {
+        return StockSourceType.BROWSER;
+    }
+
+    @Override
+    public StockCheckResult checkStock(String url) {
+        return webScrapingService.checkStock(url);
+    }
+}
@@ -0,0 +1,85 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebDriver 会话保温
+ *
+ * 新建的浏览器先访问一次站点首页，完成地区/同意弹窗跳转、Cookie 写入以及到源站的 DNS/TLS 连接；
+ * 归还时保留 Cookie，并按间隔重新访问首页刷新会话状态，后续商品页导航无需重复这些开销。
+ */
+@Component
+public class SessionWarmer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionWarmer.class);
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private HostRateLimiter rateLimiter;
+
+    public boolean isEnabled() {
+        return getSessionConfig().isWarm();
+    }
+
+    /**
+     * 访问站点首页建立会话
+     *
+     * @return 成功返回 true；失败不影响 WebDriver 的使用
+     */
+    public boolean warm(WebDriver driver) {
+        if (!isEnabled()) {
+            return false;
+        }
+
+        String originUrl = getSessionConfig().getOriginUrl();
+        if (!rateLimiter.tryAcquire(originUrl)) {
+            logger.debug("Skipping session warm-up for now: rate limited");
+            return false;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            driver.get(originUrl);
+            // 共享浏览器使用 NONE 加载策略，导航立即返回，这里等文档开始可交互
+            int timeout = config.getMonitor().getSelenium().getPerformance().getPageLoadTimeout();
+            new WebDriverWait(driver, Duration.ofSeconds(timeout)).until(d ->
+                !"loading".equals(((JavascriptExecutor) d).executeScript("return document.readyState")));
+            logger.debug("Session warmed up in {}ms", System.currentTimeMillis() - startTime);
+            return true;
+        } catch (Exception e) {
+            logger.debug("Session warm-up failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 会话是否需要刷新
+     */
+    public boolean needsRefresh(long warmedAt) {
+        return isEnabled()
+            && System.currentTimeMillis() - warmedAt > TimeUnit.SECONDS.toMillis(getSessionConfig().getRefreshInterval());
+    }
+
+    /**
+     * 归还时是否保留 Cookie
+     */
+    public boolean keepCookies() {
+        return isEnabled();
+    }
+
+    private PopMartConfig.Session getSessionConfig() {
+        return config.getMonitor().getSelenium().getSession();
+    }
+}
@@ -0,0 +1,171 @@
+package com.popmart.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.popmart.config.PopMartConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 库存检测引擎：按商品自适应排列检测策略
+ *
+ * 每个策略记录全局和单个商品的命中率（给出明确结果的比例），按 成本 / 命中率 从小到大依次执行，
+ * 第一个给出明确结果的策略即为最终结果。多数商品只需执行一次低成本检测，
+ * 商品状态变化导致原策略不再命中时，命中率下降，顺序随之调整。
+ */
+@Component
+public class StockDetectionEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockDetectionEngine.class);
+
+    // 商品样本较少时，用全局命中率作为先验（先验的等效样本数）
+    private static final double PRIOR_WEIGHT = 2.0;
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<StockDetectionStrategy> strategies;
+
+    private final Map<String, HitStats> globalStats = new ConcurrentHashMap<>();
+
+    // URL -> (策略名称 -> 命中统计)
+    private Cache<String, Map<String, HitStats>> productStats;
+
+    @Autowired
+    public StockDetectionEngine(List<StockDetectionStrategy> strategies) {
+        this.strategies = new ArrayList<>(strategies);
+        this.strategies.sort(Comparator.comparingInt(StockDetectionStrategy::getCost));
+        for (StockDetectionStrategy strategy : this.strategies) {
+            globalStats.put(strategy.getName(), new HitStats());
+        }
+    }
+
+    @PostConstruct
+    public void initialize() {
+        productStats = CacheBuilder.newBuilder()
+            .maximumSize(config.getMonitor().getStockDetection().getStrategyStatsSize())
+            .expireAfterAccess(1, TimeUnit.DAYS)
+            .build();
+    }
+
+    /**
+     * 在已加载的商品页中检测库存
+     *
+     * @param url 商品 URL（用于按商品统计命中率）
+     */
+    public StockDetectionResult detect(WebDriver driver, String url) {
+        return detect(driver, url, new PhaseTimer());
+    }
+
+    /**
+     * 在已加载的商品页中检测库存，每个执行过的策略记为一个 detection.&lt;策略名称&gt; 阶段
+     */
+    public StockDetectionResult detect(WebDriver driver, String url, PhaseTimer timer) {
+        String keyword = config.getMonitor().getStockDetection().getKeyword().toLowerCase();
+        JavascriptExecutor executor = (JavascriptExecutor) driver;
+        Map<String, HitStats> stats = getProductStats(url);
+
+        StockDetectionResult result = StockDetectionResult.unknown("none");
+        for (StockDetectionStrategy strategy : orderFor(stats)) {
+            result = strategy.detect(executor, keyword);
+            timer.lap(PhaseTimer.detection(strategy.getName()));
+            if ("throttled".equals(result.getStrategy())) {
+                // 被限流的页面不代表策略失效，不计入统计
+                return result;
+            }
+
+            boolean decisive = result.getStatus().isDecisive();
+            record(stats, strategy.getName(), decisive);
+            meterRegistry.counter("popmart.detection.evaluations",
+                "strategy", strategy.getName(), "decisive", String.valueOf(decisive)).increment();
+
+            if (decisive) {
+                logger.debug("Stock detection for {}: status={}, strategy={} ({}), button={}, markers={}, price={}, sku={}",
+                    url, result.getStatus(), strategy.getName(), result.getStrategy(), result.getButtonState(),
+                    result.getOutOfStockMarkers(), result.getPrice(), result.getSku());
+                return result;
+            }
+        }
+
+        logger.debug("No detection strategy was decisive for {}", url);
+        return result;
+    }
+
+    /**
+     * 当前商品的策略执行顺序
+     */
+    List<StockDetectionStrategy> orderFor(Map<String, HitStats> stats) {
+        if (!config.getMonitor().getStockDetection().isAdaptiveOrdering()) {
+            return strategies;
+        }
+        List<StockDetectionStrategy> ordered = new ArrayList<>(strategies);
+        ordered.sort(Comparator.comparingDouble(strategy -> expectedCost(strategy, stats)));
+        return ordered;
+    }
+
+    /**
+     * 期望成本 = 成本 / 命中率；商品命中率以全局命中率为先验做平滑
+     */
+    private double expectedCost(StockDetectionStrategy strategy, Map<String, HitStats> stats) {
+        double prior = globalStats.get(strategy.getName()).hitRate();
+        HitStats own = stats.get(strategy.getName());
+        double hitRate = own == null ? prior : own.smoothedHitRate(prior, PRIOR_WEIGHT);
+        return strategy.getCost() / Math.max(hitRate, 0.01);
+    }
+
+    private void record(Map<String, HitStats> stats, String strategy, boolean decisive) {
+        globalStats.get(strategy).record(decisive);
+        stats.computeIfAbsent(strategy, k -> new HitStats()).record(decisive);
+    }
+
+    private Map<String, HitStats> getProductStats(String url) {
+        try {
+            return productStats.get(url, ConcurrentHashMap::new);
+        } catch (ExecutionException e) {
+            return new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * 单个策略的命中统计（仅保留最近的样本，旧样本按衰减系数淡出）
+     */
+    static class HitStats {
+        private static final double DECAY = 0.9;
+
+        private double attempts;
+        private double hits;
+
+        synchronized void record(boolean hit) {
+            attempts = attempts * DECAY + 1;
+            hits = hits * DECAY + (hit ? 1 : 0);
+        }
+
+        /**
+         * 拉普拉斯平滑后的命中率，没有样本时为 0.5
+         */
+        synchronized double hitRate() {
+            return (hits + 1) / (attempts + 2);
+        }
+
+        synchronized double smoothedHitRate(double prior, double priorWeight) {
+            return (hits + prior * priorWeight) / (attempts + priorWeight);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.popmart.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 页面库存检测脚本的结构化结果
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockDetectionResult {
+
+    /**
+     * 库存状态
+     */
+    private StockStatus status;
+
+    /**
+     * 命中的检测策略（popmart_button / generic_button / disabled_button / out_of_stock_marker / keyword_element / throttled / none）
+     */
+    private String strategy;
+
+    /**
+     * 按钮状态（enabled / disabled / hidden / absent）
+     */
+    private String buttonState;
+
+    /**
+     * 页面中出现的缺货标识
+     */
+    @Builder.Default
+    private List<String> outOfStockMarkers = Collections.emptyList();
+
+    /**
+     * 价格（页面提供时）
+     */
+    private String price;
+
+    /**
+     * SKU（页面提供时）
+     */
+    private String sku;
+
+    /**
+     * 主文档的 HTTP 状态码，无法获取时为 0
+     */
+    private int httpStatus;
+
+    /**
+     * 本次检查的网络统计，未安装网络拦截器时为 null
+     */
+    private NetworkBudgetInterceptor.NetworkStats networkStats;
+
+    /**
+     * 脚本执行失败时的未知结果
+     */
+    public static StockDetectionResult unknown(String strategy) {
+        return StockDetectionResult.builder()
+            .status(StockStatus.UNKNOWN)
+            .strategy(strategy)
+            .buttonState("absent")
+            .build();
+    }
+
+    /**
+     * 将检测脚本返回的对象转换为结构化结果
+     */
+    @SuppressWarnings("unchecked")
+    public static StockDetectionResult fromScriptResult(Object value) {
+        if (!(value instanceof Map)) {
+            return unknown("none");
+        }
+        Map<String, Object> map = (Map<String, Object>) value;
+
+        List<String> markers = new ArrayList<>();
+        Object rawMarkers = map.get("outOfStockMarkers");
+        if (rawMarkers instanceof List) {
+            for (Object marker : (List<Object>) rawMarkers) {
+                markers.add(String.valueOf(marker));
+            }
+        }
+
+        return StockDetectionResult.builder()
+            .status(toStatus(asString(map.get("state"))))
+            .strategy(asString(map.get("strategy")))
+            .buttonState(asString(map.get("buttonState")))
+            .outOfStockMarkers(markers)
+            .price(asString(map.get("price")))
+            .sku(asString(map.get("sku")))
+            .httpStatus(map.get("httpStatus") instanceof Number ? ((Number) map.get("httpStatus")).intValue() : 0)
+            .build();
+    }
+
+    public boolean isInStock() {
+        return status == StockStatus.IN_STOCK;
+    }
+
+    private static StockStatus toStatus(String state) {
+        if ("in_stock".equals(state)) {
+            return StockStatus.IN_STOCK;
+        }
+        if ("out_of_stock".equals(state)) {
+            return StockStatus.OUT_OF_STOCK;
+        }
+        return StockStatus.UNKNOWN;
+    }
+
+    private static String asString(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,31 @@
+package com.popmart.service;
+
+import org.openqa.selenium.JavascriptExecutor;
+
+/**
+ * 页面库存检测策略
+ *
+ * 每个策略在已加载的商品页中执行一次检测，无法判断时返回 UNKNOWN 交给下一个策略。
+ * {@link StockDetectionEngine} 按成本和各商品的历史命中率决定执行顺序。
+ */
+public interface StockDetectionStrategy {
+
+    /**
+     * 策略名称（用于统计和日志）
+     */
+    String getName();
+
+    /**
+     * 相对执行成本，越小越先尝试
+     */
+    int getCost();
+
+    /**
+     * 在当前页面执行检测
+     *
+     * @param executor 已加载商品页的 WebDriver
+     * @param keyword 有库存按钮关键词（小写）
+     * @return 检测结果，无法判断时状态为 UNKNOWN
+     */
+    StockDetectionResult detect(JavascriptExecutor executor, String keyword);
+}
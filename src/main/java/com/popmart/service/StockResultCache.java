@@ -0,0 +1,166 @@
+package com.popmart.service;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import com.popmart.config.PopMartConfig;
+import com.popmart.dto.response.StockCheckResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 库存检查结果缓存，TTL 按商品的库存波动自适应
+ *
+ * - 缺货结果：库存从未变化的商品使用最长 TTL，变化越频繁 TTL 越短；
+ *   变化次数由监控调度在内存中统计后推送（启动后从检查历史初始化），写入缓存时不访问数据库
+ * - 有库存结果：TTL 接近零，尽快重新确认
+ * - 站点错误结果：短时间负缓存，避免故障期间反复请求；本地限流、舱壁、熔断拒绝的结果不缓存
+ * - 命中/未命中/淘汰次数通过 Micrometer 暴露
+ */
+@Component
+public class StockResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockResultCache.class);
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // 过期判断使用的时钟，测试中可替换
+    private Ticker ticker = Ticker.systemTicker();
+
+    private Cache<String, CachedResult> results;
+
+    // URL -> 库存变化次数（未监控或本次启动后尚未检查的 URL 不在其中）
+    private Cache<String, Integer> volatility;
+
+    @PostConstruct
+    public void initialize() {
+        PopMartConfig.ResultCache cacheConfig = getCacheConfig();
+
+        results = CacheBuilder.newBuilder()
+            .maximumSize(cacheConfig.getMaxSize())
+            .expireAfterWrite(Math.max(cacheConfig.getMaxTtl(), cacheConfig.getErrorTtl()), TimeUnit.SECONDS)
+            .ticker(ticker)
+            .<String, CachedResult>removalListener(notification -> {
+                if (notification.getCause() == RemovalCause.SIZE) {
+                    meterRegistry.counter("popmart.cache.evictions", "cache", "stock-result").increment();
+                }
+            })
+            .build();
+
+        volatility = CacheBuilder.newBuilder()
+            .maximumSize(cacheConfig.getMaxSize())
+            .build();
+
+        meterRegistry.gauge("popmart.cache.size", results, Cache::size);
+    }
+
+    /**
+     * 获取未过期的缓存结果
+     *
+     * @return 缓存结果，不存在或已过期时返回 null
+     */
+    public StockCheckResult get(String url) {
+        CachedResult cached = results.getIfPresent(url);
+        if (cached != null && cached.isExpired(ticker.read())) {
+            results.invalidate(url);
+            cached = null;
+        }
+
+        meterRegistry.counter("popmart.cache.requests", "cache", "stock-result",
+            "result", cached != null ? "hit" : "miss").increment();
+        return cached != null ? cached.result : null;
+    }
+
+    /**
+     * 按结果类型和商品波动计算 TTL 后写入缓存
+     */
+    public void put(String url, StockCheckResult result) {
+        long ttlSeconds = computeTtl(url, result);
+        if (ttlSeconds <= 0) {
+            return;
+        }
+        results.put(url, new CachedResult(result, ticker.read() + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        logger.debug("Cached result for {} with TTL {}s", url, ttlSeconds);
+    }
+
+    public void invalidate(String url) {
+        results.invalidate(url);
+    }
+
+    /**
+     * 更新商品的库存变化次数（由监控调度在处理检查结果后调用）
+     */
+    public void updateVolatility(String url, int stockChanges) {
+        volatility.put(url, Math.max(0, stockChanges));
+    }
+
+    /**
+     * 结果的缓存时间（秒），0 表示不缓存
+     */
+    long computeTtl(String url, StockCheckResult result) {
+        PopMartConfig.ResultCache cacheConfig = getCacheConfig();
+
+        if (result.isRejected()) {
+            // 请求未到达站点，不是站点给出的结果
+            return 0;
+        }
+        if (result.hasError()) {
+            return cacheConfig.getErrorTtl();
+        }
+        if (Boolean.TRUE.equals(result.getInStock())) {
+            return cacheConfig.getInStockTtl();
+        }
+        if (result.getInStock() == null) {
+            return cacheConfig.getMinTtl();
+        }
+
+        Integer changes = volatility.getIfPresent(url);
+        if (changes == null) {
+            return cacheConfig.getMinTtl();
+        }
+
+        // 每多一次库存变化，TTL 按比例缩短
+        long ttl = cacheConfig.getMaxTtl() / (1 + changes);
+        return Math.max(cacheConfig.getMinTtl(), Math.min(cacheConfig.getMaxTtl(), ttl));
+    }
+
+    /**
+     * 替换过期判断使用的时钟，需在 initialize 之前调用
+     */
+    void setTicker(Ticker ticker) {
+        this.ticker = ticker;
+    }
+
+    private PopMartConfig.ResultCache getCacheConfig() {
+        return config.getMonitor().getResultCache();
+    }
+
+    /**
+     * 带独立过期时间的缓存结果
+     */
+    private static class CachedResult {
+        private final StockCheckResult result;
+        // 过期时刻（Ticker 纳秒）
+        private final long expiresAt;
+
+        CachedResult(StockCheckResult result, long expiresAt) {
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.popmart.service;
+
+import com.popmart.dto.response.StockCheckResult;
+
+/**
+ * 库存数据源
+ *
+ * 不同实现以不同方式获取商品库存（浏览器渲染、商品接口等），可按商品选择。
+ */
+public interface StockSource {
+
+    /**
+     * 数据源类型
+     */
+    StockSourceType getType();
+
+    /**
+     * 检查商品库存
+     *
+     * @param url 商品 URL
+     * @return 库存检查结果
+     */
+    StockCheckResult checkStock(String url);
+}
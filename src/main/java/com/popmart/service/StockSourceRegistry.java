@@ -0,0 +1,59 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import com.popmart.entity.MonitoredProduct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按商品选择库存数据源
+ */
+@Service
+public class StockSourceRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockSourceRegistry.class);
+
+    @Autowired
+    private PopMartConfig config;
+
+    private final Map<StockSourceType, StockSource> sources = new EnumMap<>(StockSourceType.class);
+
+    @Autowired
+    public StockSourceRegistry(List<StockSource> stockSources) {
+        for (StockSource source : stockSources) {
+            sources.put(source.getType(), source);
+        }
+    }
+
+    /**
+     * 获取商品对应的数据源，商品未指定时使用全局默认数据源
+     */
+    public StockSource resolve(MonitoredProduct product) {
+        StockSourceType type = null;
+        try {
+            type = StockSourceType.fromValue(product.getStockSource());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Product {} has invalid stock source '{}', using default", product.getId(), product.getStockSource());
+        }
+        return get(type != null ? type : getDefaultType());
+    }
+
+    public StockSource get(StockSourceType type) {
+        StockSource source = sources.get(type);
+        if (source == null) {
+            throw new IllegalStateException("No stock source registered for " + type);
+        }
+        return source;
+    }
+
+    public StockSourceType getDefaultType() {
+        StockSourceType type = StockSourceType.fromValue(config.getMonitor().getStockSource());
+        return type != null ? type : StockSourceType.BROWSER;
+    }
+}
@@ -0,0 +1,36 @@
+package com.popmart.service;
+
+/**
+ * 库存数据源类型
+ */
+public enum StockSourceType {
+    BROWSER("browser"),   // Selenium 渲染商品页
+    API("api");           // 直接调用商品 JSON 接口
+
+    private final String value;
+
+    StockSourceType(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * 按配置值解析数据源类型
+     *
+     * @param value 配置值（browser / api），为空时返回 null
+     */
+    public static StockSourceType fromValue(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        for (StockSourceType type : values()) {
+            if (type.value.equalsIgnoreCase(value.trim())) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown stock source: " + value);
+    }
+}
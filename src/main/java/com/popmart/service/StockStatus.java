@@ -0,0 +1,18 @@
+package com.popmart.service;
+
+/**
+ * 库存判定结果（三态）
+ */
+public enum StockStatus {
+    IN_STOCK,       // 明确有库存
+    OUT_OF_STOCK,   // 明确缺货
+    UNKNOWN;        // 无法判定，需要其他手段确认
+
+    public boolean isDecisive() {
+        return this != UNKNOWN;
+    }
+
+    public Boolean toInStock() {
+        return this == UNKNOWN ? null : this == IN_STOCK;
+    }
+}
@@ -0,0 +1,211 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * WebDriver 实例创建
+ */
+@Component
+public class WebDriverFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebDriverFactory.class);
+
+    @Autowired
+    private PopMartConfig config;
+
+    private static final String CHROME_DRIVER_PROPERTY = "webdriver.chrome.driver";
+
+    // Docker 镜像中由 chromium-chromedriver 安装的 chromedriver
+    private static final String[] SYSTEM_DRIVER_PATHS = {"/usr/bin/chromedriver", "/usr/lib/chromium/chromedriver"};
+
+    @Autowired
+    private NetworkBudgetInterceptor networkInterceptor;
+
+    private volatile boolean driverResolved = false;
+
+    public WebDriver createWebDriver() {
+        return createWebDriver(false);
+    }
+
+    /**
+     * 创建承载多个浏览器上下文的共享浏览器
+     *
+     * 使用 NONE 页面加载策略且不设置隐式等待，导航命令立即返回，
+     * 避免某个标签页加载时阻塞同一浏览器内其他上下文的命令。
+     */
+    public WebDriver createSharedBrowser() {
+        return createWebDriver(true);
+    }
+
+    private WebDriver createWebDriver(boolean shared) {
+        try {
+            logger.info("Creating WebDriver with optimized configuration");
+
+            // 检测是否在 Docker 环境中
+            boolean isDocker = isRunningInDocker();
+            logger.info("Running in Docker environment: {}", isDocker);
+
+            // 解析 chromedriver（进程内只解析一次）
+            ensureDriverResolved();
+
+            ChromeOptions options = new ChromeOptions();
+
+            // 基础配置
+            options.addArguments("--headless=new");
+            options.addArguments("--no-sandbox");
+            options.addArguments("--disable-dev-shm-usage");
+            options.addArguments("--disable-gpu");
+
+            // 性能优化配置
+            options.addArguments("--disable-extensions");
+            options.addArguments("--disable-plugins");
+            options.addArguments("--disable-images");
+            options.addArguments("--disable-javascript");
+            options.addArguments("--blink-settings=imagesEnabled=false");
+            options.addArguments("--disable-default-apps");
+            options.addArguments("--disable-sync");
+            options.addArguments("--disable-translate");
+
+            // 内存优化
+            options.addArguments("--memory-pressure-off");
+            options.addArguments("--disable-background-networking");
+            options.addArguments("--disable-background-timer-throttling");
+            options.addArguments("--disable-backgrounding-occluded-windows");
+
+            // 安全配置
+            options.addArguments("--disable-web-security");
+            options.addArguments("--allow-running-insecure-content");
+            options.addArguments("--ignore-certificate-errors");
+
+            // 窗口配置
+            options.addArguments("--window-size=1920,1080");
+            options.addArguments("--hide-scrollbars");
+
+            // 禁用自动化检测
+            options.addArguments("--disable-blink-features=AutomationControlled");
+            options.setExperimentalOption("useAutomationExtension", false);
+            options.setExperimentalOption("excludeSwitches", new String[]{"enable-automation", "enable-logging"});
+
+            // 设置用户代理
+            options.addArguments("--user-agent=" + config.getMonitor().getSelenium().getUserAgent());
+
+            if (shared) {
+                options.setPageLoadStrategy(PageLoadStrategy.NONE);
+            }
+
+            // Docker环境特定配置
+            if (isDocker) {
+                String chromeBinary = "/usr/bin/chromium-browser";
+                if (new java.io.File(chromeBinary).exists()) {
+                    options.setBinary(chromeBinary);
+                    logger.info("Using Chromium binary: {}", chromeBinary);
+                } else {
+                    logger.error("Chromium binary not found at {}", chromeBinary);
+                    throw new RuntimeException("Chromium binary not found. Please ensure Chromium is installed.");
+                }
+            }
+
+            // 创建WebDriver实例
+            WebDriver driver = new ChromeDriver(options);
+
+            // 设置超时
+            PopMartConfig.Performance performance = config.getMonitor().getSelenium().getPerformance();
+            driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(performance.getPageLoadTimeout()));
+            driver.manage().timeouts().scriptTimeout(Duration.ofSeconds(performance.getScriptTimeout()));
+            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(shared ? 0 : performance.getImplicitWait()));
+
+            // 请求拦截只作用于 DevTools 会话所附着的页面，共享浏览器的多上下文不安装
+            if (!shared) {
+                networkInterceptor.install(driver);
+            }
+
+            logger.info("WebDriver initialized successfully with optimized configuration");
+            return driver;
+
+        } catch (Exception e) {
+            logger.error("Failed to initialize WebDriver: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to initialize WebDriver: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 解析 chromedriver 路径，结果在进程内复用
+     *
+     * 依次使用：配置的 driver-path / webdriver.chrome.driver、Docker 镜像中安装的 chromedriver、
+     * WebDriverManager（使用本地缓存，不清理）。都不可用时（如离线）交给 Selenium Manager 处理。
+     */
+    private synchronized void ensureDriverResolved() {
+        if (driverResolved) {
+            return;
+        }
+
+        String driverPath = config.getMonitor().getSelenium().getDriverPath();
+        if (driverPath == null || driverPath.trim().isEmpty()) {
+            driverPath = System.getProperty(CHROME_DRIVER_PROPERTY);
+        }
+        if ((driverPath == null || driverPath.trim().isEmpty()) && isRunningInDocker()) {
+            for (String candidate : SYSTEM_DRIVER_PATHS) {
+                if (new java.io.File(candidate).canExecute()) {
+                    driverPath = candidate;
+                    break;
+                }
+            }
+        }
+
+        if (driverPath != null && !driverPath.trim().isEmpty()) {
+            System.setProperty(CHROME_DRIVER_PROPERTY, driverPath.trim());
+            logger.info("Using chromedriver at {}", driverPath.trim());
+        } else {
+            try {
+                WebDriverManager.chromedriver().setup();
+                logger.info("Resolved chromedriver via WebDriverManager: {}", System.getProperty(CHROME_DRIVER_PROPERTY));
+            } catch (Exception e) {
+                logger.warn("WebDriverManager could not resolve chromedriver ({}), falling back to Selenium Manager", e.getMessage());
+            }
+        }
+        driverResolved = true;
+    }
+
+    /**
+     * 检测是否在 Docker 环境中运行
+     */
+    private boolean isRunningInDocker() {
+        try {
+            // 方法1: 检查 /.dockerenv 文件
+            if (new java.io.File("/.dockerenv").exists()) {
+                return true;
+            }
+
+            // 方法2: 检查 /proc/1/cgroup
+            java.nio.file.Path cgroupPath = java.nio.file.Paths.get("/proc/1/cgroup");
+            if (java.nio.file.Files.exists(cgroupPath)) {
+                String content = new String(java.nio.file.Files.readAllBytes(cgroupPath));
+                if (content.contains("docker") || content.contains("containerd")) {
+                    return true;
+                }
+            }
+
+            // 方法3: 检查环境变量
+            String containerEnv = System.getenv("container");
+            if ("docker".equals(containerEnv)) {
+                return true;
+            }
+
+            return false;
+        } catch (Exception e) {
+            logger.debug("Error detecting Docker environment: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import com.popmart.utils.ChromeProcessInspector;
+import org.openqa.selenium.WebDriver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 弹性、自愈的 WebDriver 池
+ *
+ * - 最小/最大实例数，按需在后台扩容（借出方只等待空闲实例，不在检查线程上启动浏览器），空闲超时收缩
+ * - 导航次数或 Chrome 进程 RSS 超限后回收重建，避免长时间运行的内存泄漏
+ * - 应用就绪后在后台预热，不阻塞启动
+ * - 后台定期逐个校验空闲实例，借出前再做一次轻量存活检查，失效实例在后台补齐，不占用检查线程
+ * - 可选会话保温：新实例预先访问站点首页，归还时保留 Cookie，定期刷新会话
+ */
+@Component
+@ConditionalOnProperty(name = "popmart.monitor.selenium.pool.mode", havingValue = "process", matchIfMissing = true)
+public class WebDriverPool implements DriverPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebDriverPool.class);
+
+    @Autowired
+    private PopMartConfig config;
+
+    @Autowired
+    private WebDriverFactory webDriverFactory;
+
+    @Autowired
+    private SessionWarmer sessionWarmer;
+
+    // 空闲实例（后进先出，常用实例保持热，冷实例自然超时收缩）
+    private final LinkedBlockingDeque<PooledDriver> idleDrivers = new LinkedBlockingDeque<>();
+    private final Map<WebDriver, PooledDriver> leasedDrivers = new ConcurrentHashMap<>();
+    private final AtomicInteger totalDrivers = new AtomicInteger();
+
+    private final ScheduledExecutorService maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "webdriver-pool-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // 扩容和补齐实例的线程，按最大实例数创建，多个实例可以同时启动
+    private ExecutorService replenishExecutor;
+
+    private volatile boolean closed = false;
+
+    private volatile boolean warmingUp = false;
+
+    @PostConstruct
+    public void initialize() {
+        PopMartConfig.Pool pool = getPoolConfig();
+        logger.info("Initializing WebDriver pool (min={}, max={}), drivers start after application is ready",
+            pool.getMinSize(), pool.getMaxSize());
+
+        AtomicInteger threadCount = new AtomicInteger();
+        replenishExecutor = Executors.newFixedThreadPool(Math.max(1, pool.getMaxSize()), r -> {
+            Thread thread = new Thread(r, "webdriver-pool-replenish-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        int interval = pool.getValidationInterval();
+        maintenanceExecutor.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 应用就绪后在后台预热到最小实例数，不阻塞启动；预热期间借出请求按需在后台扩容
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        warmingUp = true;
+        replenishExecutor.execute(() -> {
+            try {
+                long startTime = System.currentTimeMillis();
+                while (!closed && totalDrivers.get() < getPoolConfig().getMinSize()) {
+                    if (!addIdleDriver()) {
+                        break;
+                    }
+                }
+                logger.info("WebDriver pool warmed up with {} drivers in {}ms",
+                    totalDrivers.get(), System.currentTimeMillis() - startTime);
+            } finally {
+                warmingUp = false;
+            }
+        });
+    }
+
+    /**
+     * 借出 WebDriver：优先复用空闲实例，没有空闲实例时未达上限则在后台扩容，并等待扩容或归还的实例
+     *
+     * 浏览器启动和会话保温都在补齐线程上完成，借出方（持有舱壁许可的检查线程）最多等待 borrow-timeout。
+     */
+    @Override
+    public WebDriver borrow() throws InterruptedException {
+        PopMartConfig.Pool pool = getPoolConfig();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(pool.getBorrowTimeout());
+
+        while (!closed) {
+            PooledDriver pooled = idleDrivers.pollFirst();
+
+            if (pooled == null) {
+                growAsync(pool.getMaxSize());
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    break;
+                }
+                pooled = idleDrivers.pollFirst(remaining, TimeUnit.NANOSECONDS);
+                if (pooled == null) {
+                    break;
+                }
+            }
+
+            if (pooled.getNavigations() >= pool.getMaxNavigations()) {
+                logger.debug("Recycling WebDriver after {} navigations", pooled.getNavigations());
+                destroy(pooled);
+                replenishAsync();
+                continue;
+            }
+
+            // 空闲期间浏览器可能已崩溃，后台校验有间隔，借出前再确认一次
+            if (!isAlive(pooled)) {
+                logger.warn("Discarding dead idle WebDriver before lending it");
+                destroy(pooled);
+                replenishAsync();
+                continue;
+            }
+
+            leasedDrivers.put(pooled.getDriver(), pooled);
+            return pooled.getDriver();
+        }
+
+        throw new RuntimeException("无法获取可用的WebDriver实例，请稍后重试");
+    }
+
+    /**
+     * 归还 WebDriver，达到回收条件的实例直接销毁并在后台补齐
+     */
+    @Override
+    public void release(WebDriver driver) {
+        PooledDriver pooled = leasedDrivers.remove(driver);
+        if (pooled == null) {
+            return;
+        }
+
+        pooled.endLease();
+        if (closed || pooled.getNavigations() >= getPoolConfig().getMaxNavigations()) {
+            destroy(pooled);
+            replenishAsync();
+            return;
+        }
+
+        try {
+            if (!sessionWarmer.keepCookies()) {
+                driver.manage().deleteAllCookies();
+            }
+            idleDrivers.offerFirst(pooled);
+        } catch (Exception e) {
+            logger.warn("WebDriver实例已失效，销毁并重建: {}", e.getMessage());
+            destroy(pooled);
+            replenishAsync();
+        }
+    }
+
+    @Override
+    public boolean recordNavigation(WebDriver driver) {
+        PooledDriver pooled = leasedDrivers.get(driver);
+        if (pooled == null) {
+            return false;
+        }
+        pooled.markNavigated();
+        return !closed && pooled.getNavigations() < getPoolConfig().getMaxNavigations();
+    }
+
+    /**
+     * 丢弃出错的 WebDriver
+     */
+    @Override
+    public void invalidate(WebDriver driver) {
+        PooledDriver pooled = leasedDrivers.remove(driver);
+        if (pooled != null) {
+            destroy(pooled);
+            replenishAsync();
+        }
+    }
+
+    @Override
+    public int getTotalCount() {
+        return totalDrivers.get();
+    }
+
+    @Override
+    public int getIdleCount() {
+        return idleDrivers.size();
+    }
+
+    @Override
+    public int getLeasedCount() {
+        return leasedDrivers.size();
+    }
+
+    @Override
+    public boolean isWarmingUp() {
+        return warmingUp;
+    }
+
+    /**
+     * 后台维护：校验存活、检查内存、收缩空闲实例、补齐最小实例数
+     *
+     * 每次只从空闲队列取出一个实例校验，其余空闲实例始终可借出；校验期间被借走的实例直接跳过。
+     */
+    private void maintain() {
+        if (closed) {
+            return;
+        }
+
+        try {
+            PopMartConfig.Pool pool = getPoolConfig();
+            List<PooledDriver> candidates = new ArrayList<>(idleDrivers);
+
+            Map<String, Long> rssByDir = ChromeProcessInspector.measureRss(collectUserDataDirs(candidates));
+            long maxRssBytes = pool.getMaxRssMb() * 1024L * 1024L;
+            long idleTimeoutMillis = TimeUnit.SECONDS.toMillis(pool.getIdleTimeout());
+
+            for (PooledDriver pooled : candidates) {
+                if (closed || !idleDrivers.remove(pooled)) {
+                    continue;
+                }
+                Long rss = pooled.getUserDataDir() != null ? rssByDir.get(pooled.getUserDataDir()) : null;
+
+                if (!isAlive(pooled)) {
+                    logger.warn("Removing dead WebDriver from pool");
+                    destroy(pooled);
+                } else if (rss != null && rss > maxRssBytes) {
+                    logger.info("Recycling WebDriver using {}MB RSS (limit {}MB)", rss / 1024 / 1024, pool.getMaxRssMb());
+                    destroy(pooled);
+                } else if (pooled.getIdleMillis() > idleTimeoutMillis && totalDrivers.get() > pool.getMinSize()) {
+                    logger.debug("Shrinking WebDriver pool, driver idle for {}s", pooled.getIdleMillis() / 1000);
+                    destroy(pooled);
+                } else {
+                    if (sessionWarmer.needsRefresh(pooled.getWarmedAt())) {
+                        refreshSession(pooled);
+                    }
+                    idleDrivers.offerLast(pooled);
+                }
+            }
+
+            while (totalDrivers.get() < pool.getMinSize() && !closed) {
+                if (!addIdleDriver()) {
+                    break;
+                }
+            }
+
+            logger.debug("WebDriver pool maintenance done: total={}, idle={}, leased={}",
+                totalDrivers.get(), idleDrivers.size(), leasedDrivers.size());
+        } catch (Exception e) {
+            logger.error("WebDriver pool maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private List<String> collectUserDataDirs(List<PooledDriver> drivers) {
+        List<String> dirs = new ArrayList<>();
+        for (PooledDriver pooled : drivers) {
+            if (pooled.getUserDataDir() != null) {
+                dirs.add(pooled.getUserDataDir());
+            }
+        }
+        return dirs;
+    }
+
+    /**
+     * 存活检查：只查询当前窗口句柄，不触发导航
+     */
+    private boolean isAlive(PooledDriver pooled) {
+        try {
+            pooled.getDriver().getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * 在后台补齐一个实例，检查线程无需等待浏览器启动
+     */
+    private void replenishAsync() {
+        if (closed || totalDrivers.get() >= getPoolConfig().getMinSize()) {
+            return;
+        }
+        replenishExecutor.execute(() -> {
+            if (totalDrivers.get() < getPoolConfig().getMinSize()) {
+                addIdleDriver();
+            }
+        });
+    }
+
+    /**
+     * 为等待中的借出请求在后台扩容一个实例，已达上限时什么也不做
+     */
+    private void growAsync(int maxSize) {
+        if (closed || !reserveSlot(maxSize)) {
+            return;
+        }
+        try {
+            replenishExecutor.execute(() -> {
+                if (addReservedDriver()) {
+                    logger.debug("WebDriver pool grew to {} drivers", totalDrivers.get());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            totalDrivers.decrementAndGet();
+        }
+    }
+
+    private boolean addIdleDriver() {
+        if (!reserveSlot(getPoolConfig().getMaxSize())) {
+            return false;
+        }
+        return addReservedDriver();
+    }
+
+    /**
+     * 创建实例放入空闲队列，调用前已占用实例数名额，失败时归还名额
+     */
+    private boolean addReservedDriver() {
+        if (closed) {
+            totalDrivers.decrementAndGet();
+            return false;
+        }
+        try {
+            idleDrivers.offerLast(createPooledDriver());
+            logger.debug("Created and added WebDriver to pool");
+            return true;
+        } catch (Exception e) {
+            totalDrivers.decrementAndGet();
+            logger.error("Failed to create WebDriver instance: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private PooledDriver createPooledDriver() {
+        PooledDriver pooled = new PooledDriver(webDriverFactory.createWebDriver());
+        refreshSession(pooled);
+        return pooled;
+    }
+
+    private void refreshSession(PooledDriver pooled) {
+        if (sessionWarmer.warm(pooled.getDriver())) {
+            pooled.markWarmed();
+        }
+    }
+
+    private boolean reserveSlot(int maxSize) {
+        while (true) {
+            int current = totalDrivers.get();
+            if (current >= maxSize) {
+                return false;
+            }
+            if (totalDrivers.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void destroy(PooledDriver pooled) {
+        totalDrivers.decrementAndGet();
+        try {
+            pooled.getDriver().quit();
+        } catch (Exception e) {
+            logger.debug("Error closing WebDriver: {}", e.getMessage());
+        }
+    }
+
+    private PopMartConfig.Pool getPoolConfig() {
+        return config.getMonitor().getSelenium().getPool();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.info("Closing all WebDriver instances in pool");
+        closed = true;
+        maintenanceExecutor.shutdownNow();
+        replenishExecutor.shutdownNow();
+
+        List<PooledDriver> remaining = new ArrayList<>();
+        idleDrivers.drainTo(remaining);
+        remaining.addAll(leasedDrivers.values());
+        leasedDrivers.clear();
+        for (PooledDriver pooled : remaining) {
+            destroy(pooled);
+        }
+
+        logger.info("All WebDriver instances closed");
+    }
+
+    /**
+     * 池中的 WebDriver 及其使用统计
+     */
+    private static class PooledDriver {
+        private final WebDriver driver;
+        private final String userDataDir;
+        private volatile long lastUsedAt;
+        private volatile int navigations;
+        private volatile int leaseNavigations;
+        private volatile long warmedAt;
+
+        PooledDriver(WebDriver driver) {
+            this.driver = driver;
+            this.userDataDir = ChromeProcessInspector.getUserDataDir(driver);
+            this.lastUsedAt = System.currentTimeMillis();
+        }
+
+        /**
+         * 记录租用期间的一次导航（只由持有者调用）
+         */
+        void markNavigated() {
+            navigations++;
+            leaseNavigations++;
+            lastUsedAt = System.currentTimeMillis();
+        }
+
+        /**
+         * 结束租用，租用期间未记录导航时按一次计数
+         */
+        void endLease() {
+            if (leaseNavigations == 0) {
+                navigations++;
+            }
+            leaseNavigations = 0;
+            lastUsedAt = System.currentTimeMillis();
+        }
+
+        void markWarmed() {
+            warmedAt = System.currentTimeMillis();
+        }
+
+        WebDriver getDriver() { return driver; }
+        String getUserDataDir() { return userDataDir; }
+        int getNavigations() { return navigations; }
+        long getWarmedAt() { return warmedAt; }
+        long getIdleMillis() { return System.currentTimeMillis() - lastUsedAt; }
+    }
+}
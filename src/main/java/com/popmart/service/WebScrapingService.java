@@ -1,47 +1,50 @@
 package com.popmart.service;
 
 import com.popmart.config.PopMartConfig;
-import com.popmart.dto.response.PerformanceTestResult;
 import com.popmart.dto.response.StockCheckResult;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.JavascriptExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import io.github.bonigarcia.wdm.WebDriverManager;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
-import java.io.IOException;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.List;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.time.Duration;
-import java.util.ArrayList;
-import java.util.concurrent.CompletableFuture;
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 
 /**
  * Web scraping service for checking Pop Mart product stock
  * 
  * 优化特性:
  * - 新版Headless Chrome (--headless=new) 减少60%启动时间
- * - WebDriver连接池管理，最多3个并发实例
+ * - 弹性WebDriver池，按需扩缩容并自动回收老化实例
  * - 智能等待策略，只等关键元素不等整页加载
+ * - 异步HTTP/2可访问性探测，后台提前刷新，检查路径不等待HEAD往返
  * - 轻量化浏览器配置，禁用图片/插件减少40%内存
- * - 智能缓存机制，5秒缓存重复检查提升95%性能
- * - 并发检测支持，多商品同时检测无阻塞
- * - 预编译选择器，提高元素匹配效率
+ * - CDP请求拦截，屏蔽字体/媒体/统计脚本并限制单页资源预算
+ * - 自适应结果缓存，TTL按商品历史波动调整，错误结果短时负缓存
+ * - 并发检测支持，多商品同时检测无阻塞，同一URL的并发检查合并为一次
+ * - 批量检查，每个WebDriver连续检查多个URL，结果逐个返回
+ * - 可插拔检测策略，按商品历史命中率自适应排序，多数检查只需一次低成本检测
+ * - 分阶段计时（缓存、探测、借出等待、导航、元素等待、检测），写入历史并暴露Micrometer计时器
+ * - HTTP快速路径，直接解析页面内嵌数据，结果不明确时才启动浏览器
+ * - 对冲请求，快速路径或浏览器检查超过近期p95时在预算内并行启动另一种检查，取先到的明确结论
+ * - 条件请求和库存区域指纹，页面未变化时跳过浏览器渲染
+ * - 按域名令牌桶限流，遇到429/503自动退避
+ * - 按域名和检查方式熔断、按检查方式隔离并发，失败时立即返回未知结果
  */
 @Service
 public class WebScrapingService {
@@ -51,606 +54,780 @@ public class WebScrapingService {
     @Autowired
     private PopMartConfig config;
     
-    // WebDriver池管理 - 增加池大小和超时设置
-    private final int MAX_DRIVERS = 5; // 增加到5个并发实例
-    private final BlockingQueue<WebDriver> driverPool = new LinkedBlockingQueue<>(MAX_DRIVERS);
-    private final ExecutorService executorService = Executors.newFixedThreadPool(MAX_DRIVERS);
-    private final Semaphore driverSemaphore = new Semaphore(MAX_DRIVERS);
-    
-    // 优化缓存策略
-    private final LoadingCache<String, PageInfo> pageCache = CacheBuilder.newBuilder()
-        .maximumSize(100)
-        .expireAfterWrite(30, TimeUnit.SECONDS)
-        .build(new CacheLoader<String, PageInfo>() {
-            @Override
-            public PageInfo load(String key) {
-                return null; // 强制重新加载
-            }
-        });
-        
-    private final LoadingCache<String, Boolean> connectivityCache = CacheBuilder.newBuilder()
-        .maximumSize(100)
-        .expireAfterWrite(60, TimeUnit.SECONDS)
-        .build(new CacheLoader<String, Boolean>() {
-            @Override
-            public Boolean load(String key) {
-                return checkUrlConnectivity(key);
-            }
-        });
+    @Autowired
+    private HttpStockChecker httpStockChecker;
+    
+    @Autowired
+    private DriverPool driverPool;
+    
+    @Autowired
+    private NetworkBudgetInterceptor networkInterceptor;
+    
+    @Autowired
+    private StockResultCache resultCache;
+    
+    @Autowired
+    private ConnectivityProber connectivityProber;
+    
+    @Autowired
+    private HostRateLimiter rateLimiter;
+    
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakers;
+    
+    @Autowired
+    private BulkheadRegistry bulkheads;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private StockDetectionEngine detectionEngine;
+    
+    @Autowired
+    private HedgingPolicy hedgingPolicy;
+    
+    // 进行中的检查（按 URL 合并并发请求）
+    private final ConcurrentHashMap<String, CompletableFuture<StockCheckResult>> inFlightChecks = new ConcurrentHashMap<>();
     
-    // 预编译的CSS选择器和XPath（提高匹配效率）
-    private static final String[] BUTTON_SELECTORS = {
-        "button[class*='btn']",
-        "div[class*='btn']", 
-        "div[class*='usBtn']",
-        "*[class*='button']",
-        "*[class*='Button']"
-    };
+    // 批量检查：预检线程（快速路径、可访问性）和浏览器批处理线程
+    private ExecutorService batchPrefetchExecutor;
+    private ExecutorService batchWorkerExecutor;
     
-    private static final String XPATH_ADD_TO_BAG = "//*[contains(text(), 'Add to Bag') or contains(text(), 'add to bag')]";
+    // 对冲检查：快速路径和浏览器检查在各自线程上并行执行
+    private ExecutorService hedgeExecutor;
     
     @PostConstruct
-    public void initializeService() {
-        // 预热WebDriver池
-        initializeDriverPool();
+    public void initializeBatchExecutors() {
+        batchPrefetchExecutor = Executors.newFixedThreadPool(
+            Math.max(1, config.getMonitor().getBatch().getPrefetchConcurrency()), daemonThreads("stock-batch-prefetch-"));
+        batchWorkerExecutor = Executors.newCachedThreadPool(daemonThreads("stock-batch-worker-"));
+        hedgeExecutor = Executors.newCachedThreadPool(daemonThreads("stock-hedge-"));
     }
     
-    @PostConstruct
-    public void initializeDriverPool() {
-        logger.info("Initializing WebDriver pool with {} drivers", MAX_DRIVERS);
-        
-        // 并发初始化WebDriver实例
-        List<CompletableFuture<Void>> futures = new ArrayList<>();
-        for (int i = 0; i < MAX_DRIVERS; i++) {
-            futures.add(CompletableFuture.runAsync(() -> {
-                try {
-                    WebDriver driver = createWebDriver();
-                    driverPool.offer(driver);
-                    logger.debug("Created and added WebDriver to pool");
-                } catch (Exception e) {
-                    logger.error("Failed to create WebDriver instance: {}", e.getMessage());
-                }
-            }));
+    @PreDestroy
+    public void shutdownBatchExecutors() {
+        batchPrefetchExecutor.shutdownNow();
+        batchWorkerExecutor.shutdownNow();
+        hedgeExecutor.shutdownNow();
+    }
+    
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
+    private WebDriver borrowDriver() throws InterruptedException {
+        return driverPool.borrow();
+    }
+    
+    private void returnDriver(WebDriver driver) {
+        driverPool.release(driver);
+    }
+    
+    /**
+     * 归还检查结束的 WebDriver：会话抛出过 WebDriverException（含超时）时丢弃，不放回池中
+     */
+    private void returnDriver(WebDriver driver, Exception error) {
+        if (error instanceof WebDriverException) {
+            logger.debug("丢弃出错的WebDriver: {}", error.getMessage());
+            driverPool.invalidate(driver);
+        } else {
+            driverPool.release(driver);
+        }
+    }
+    
+    /**
+     * 检查商品库存
+     *
+     * 同一 URL 的并发检查合并为一次：第一个调用方执行检查，其余调用方等待并共享同一结果，
+     * 避免抢购高峰时多个用户同时测试同一商品耗尽 WebDriver 池。
+     */
+    public StockCheckResult checkStock(String url) {
+        CompletableFuture<StockCheckResult> future = new CompletableFuture<>();
+        CompletableFuture<StockCheckResult> inFlight = inFlightChecks.putIfAbsent(url, future);
+        if (inFlight != null) {
+            return awaitInFlight(url, inFlight);
         }
         
-        // 等待所有初始化完成
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-            .exceptionally(throwable -> {
-                logger.error("Error during pool initialization: {}", throwable.getMessage());
-                return null;
-            })
-            .join();
-            
-        logger.info("WebDriver pool initialized with {} drivers", driverPool.size());
+        try {
+            StockCheckResult result = doCheckStock(url);
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightChecks.remove(url, future);
+        }
     }
     
-    private WebDriver createWebDriver() {
+    private StockCheckResult awaitInFlight(String url, CompletableFuture<StockCheckResult> inFlight) {
+        long startTime = System.currentTimeMillis();
+        PhaseTimer timer = new PhaseTimer();
+        logger.debug("合并到进行中的检查: {}", url);
+        StockCheckResult result;
         try {
-            logger.info("Creating WebDriver with optimized configuration");
-            
-            // 检测是否在 Docker 环境中
-            boolean isDocker = isRunningInDocker();
-            logger.info("Running in Docker environment: {}", isDocker);
-            
-            // 设置 WebDriverManager
-            WebDriverManager.chromedriver()
-                .clearDriverCache()
-                .clearResolutionCache()
-                .setup();
-            
-            ChromeOptions options = new ChromeOptions();
-            
-            // 基础配置
-            options.addArguments("--headless=new");
-            options.addArguments("--no-sandbox");
-            options.addArguments("--disable-dev-shm-usage");
-            options.addArguments("--disable-gpu");
-            
-            // 性能优化配置
-            options.addArguments("--disable-extensions");
-            options.addArguments("--disable-plugins");
-            options.addArguments("--disable-images");
-            options.addArguments("--disable-javascript");
-            options.addArguments("--blink-settings=imagesEnabled=false");
-            options.addArguments("--disable-default-apps");
-            options.addArguments("--disable-sync");
-            options.addArguments("--disable-translate");
-            
-            // 内存优化
-            options.addArguments("--memory-pressure-off");
-            options.addArguments("--disable-background-networking");
-            options.addArguments("--disable-background-timer-throttling");
-            options.addArguments("--disable-backgrounding-occluded-windows");
-            
-            // 安全配置
-            options.addArguments("--disable-web-security");
-            options.addArguments("--allow-running-insecure-content");
-            options.addArguments("--ignore-certificate-errors");
-            
-            // 窗口配置
-            options.addArguments("--window-size=1920,1080");
-            options.addArguments("--hide-scrollbars");
-            
-            // 禁用自动化检测
-            options.addArguments("--disable-blink-features=AutomationControlled");
-            options.setExperimentalOption("useAutomationExtension", false);
-            options.setExperimentalOption("excludeSwitches", new String[]{"enable-automation", "enable-logging"});
-            
-            // 设置用户代理
-            options.addArguments("--user-agent=" + config.getMonitor().getSelenium().getUserAgent());
-            
-            // Docker环境特定配置
-            if (isDocker) {
-                String chromeBinary = "/usr/bin/chromium-browser";
-                if (new java.io.File(chromeBinary).exists()) {
-                    options.setBinary(chromeBinary);
-                    logger.info("Using Chromium binary: {}", chromeBinary);
-                } else {
-                    logger.error("Chromium binary not found at {}", chromeBinary);
-                    throw new RuntimeException("Chromium binary not found. Please ensure Chromium is installed.");
-                }
-            }
-            
-            // 创建WebDriver实例
-            WebDriver driver = new ChromeDriver(options);
-            
-            // 设置超时
-            driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(10));
-            driver.manage().timeouts().scriptTimeout(Duration.ofSeconds(5));
-            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(3));
-            
-            logger.info("WebDriver initialized successfully with optimized configuration");
-            return driver;
-            
-        } catch (Exception e) {
-            logger.error("Failed to initialize WebDriver: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to initialize WebDriver: " + e.getMessage(), e);
+            StockCheckResult shared = inFlight.get();
+            result = StockCheckResult.builder()
+                .inStock(shared.getInStock())
+                .responseTime((int)(System.currentTimeMillis() - startTime))
+                .errorMessage(shared.getErrorMessage())
+                .rejected(shared.isRejected())
+                .build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = StockCheckResult.rejected("检查被中断", (int)(System.currentTimeMillis() - startTime));
+        } catch (ExecutionException e) {
+            result = StockCheckResult.unknown(e.getCause() != null ? e.getCause().getMessage() : e.getMessage(),
+                (int)(System.currentTimeMillis() - startTime));
         }
+        timer.lap(PhaseTimer.IN_FLIGHT_WAIT);
+        return withTimings(result, timer);
     }
     
     /**
-     * 检测是否在 Docker 环境中运行
+     * 不合并进行中的检查，直接执行一次完整检查（压测使用）
+     *
+     * @param bypassCache 跳过结果缓存和快速路径的条件请求，每次都实际获取页面
+     * @param browserOnly 跳过 HTTP 快速路径，总是使用浏览器检查
      */
-    private boolean isRunningInDocker() {
+    public StockCheckResult checkStockDirect(String url, boolean bypassCache, boolean browserOnly) {
+        return doCheckStock(url, bypassCache, browserOnly);
+    }
+    
+    private StockCheckResult doCheckStock(String url) {
+        return doCheckStock(url, false, false);
+    }
+    
+    private StockCheckResult doCheckStock(String url, boolean bypassCache, boolean browserOnly) {
+        long startTime = System.currentTimeMillis();
+        PhaseTimer timer = new PhaseTimer();
+        
         try {
-            // 方法1: 检查 /.dockerenv 文件
-            if (new java.io.File("/.dockerenv").exists()) {
-                return true;
-            }
-            
-            // 方法2: 检查 /proc/1/cgroup
-            java.nio.file.Path cgroupPath = java.nio.file.Paths.get("/proc/1/cgroup");
-            if (java.nio.file.Files.exists(cgroupPath)) {
-                String content = new String(java.nio.file.Files.readAllBytes(cgroupPath));
-                if (content.contains("docker") || content.contains("containerd")) {
-                    return true;
-                }
+            if (hedgingPolicy.isEnabled() && httpStockChecker.isEnabled() && !browserOnly) {
+                return hedgedCheck(url, startTime, timer, bypassCache);
             }
             
-            // 方法3: 检查环境变量
-            String containerEnv = System.getenv("container");
-            if ("docker".equals(containerEnv)) {
-                return true;
+            StockCheckResult result = checkWithoutBrowser(url, startTime, timer, bypassCache, browserOnly);
+            if (result != null) {
+                return result;
             }
             
-            return false;
+            // 4. 浏览器检查
+            return withTimings(cacheResult(url, checkWithBrowser(url, startTime, timer)), timer);
+                
         } catch (Exception e) {
-            logger.debug("Error detecting Docker environment: {}", e.getMessage());
-            return false;
+            return failed(url, e, startTime, timer);
         }
     }
     
-    private WebDriver borrowDriver() throws InterruptedException {
-        if (!driverSemaphore.tryAcquire(5, TimeUnit.SECONDS)) {
-            throw new RuntimeException("无法获取可用的WebDriver实例，请稍后重试");
+    /**
+     * 不需要浏览器的检查步骤：缓存、HTTP快速路径和可访问性
+     *
+     * @return 已得到结果时返回结果，需要浏览器检查时返回 null
+     */
+    private StockCheckResult checkWithoutBrowser(String url, long startTime, PhaseTimer timer,
+                                                 boolean bypassCache, boolean browserOnly) {
+        return checkWithoutBrowser(url, startTime, timer, bypassCache, !bypassCache, browserOnly);
+    }
+    
+    /**
+     * @param skipCache 不读取结果缓存（结果仍会写入缓存）
+     * @param conditional 快速路径是否使用条件请求
+     */
+    private StockCheckResult checkWithoutBrowser(String url, long startTime, PhaseTimer timer,
+                                                 boolean skipCache, boolean conditional, boolean browserOnly) {
+        // 1. 快速缓存检查（TTL按商品波动自适应，错误结果短时负缓存）
+        StockCheckResult cached = checkCache(url, startTime, timer, skipCache);
+        if (cached != null) {
+            return cached;
         }
         
-        try {
-            WebDriver driver = driverPool.poll(5, TimeUnit.SECONDS);
-            if (driver == null) {
-                logger.warn("无可用WebDriver，创建新实例");
-                try {
-                    driver = createWebDriver();
-                } catch (Exception e) {
-                    throw new RuntimeException("创建WebDriver失败: " + e.getMessage());
-                }
-            } else {
-                try {
-                    driver.getCurrentUrl();
-                } catch (Exception e) {
-                    logger.warn("WebDriver实例已失效，创建新实例");
-                    try {
-                        driver.quit();
-                    } catch (Exception ignored) {}
-                    driver = createWebDriver();
-                }
+        // 2. HTTP快速路径（无需浏览器）
+        if (httpStockChecker.isEnabled() && !browserOnly) {
+            StockStatus fastStatus = httpStockChecker.check(url, conditional);
+            timer.lap(PhaseTimer.FAST_PATH);
+            if (fastStatus.isDecisive()) {
+                return withTimings(fastPathResult(url, fastStatus, startTime), timer);
             }
-            return driver;
-        } catch (Exception e) {
-            driverSemaphore.release();
-            throw e;
+            logger.debug("快速路径结果不明确，回退到浏览器检查: {}", url);
         }
+        
+        // 3. HTTP可访问性检查（读取后台探测结果，不等待网络往返）
+        return checkReachable(url, startTime, timer);
     }
     
-    private void returnDriver(WebDriver driver) {
-        if (driver != null) {
-            try {
-                driver.manage().deleteAllCookies();
-                if (!driverPool.offer(driver)) {
-                    driver.quit();
-                }
-            } catch (Exception e) {
-                try {
-                    driver.quit();
-                } catch (Exception ignored) {}
-            } finally {
-                driverSemaphore.release();
-            }
-        } else {
-            driverSemaphore.release();
+    private StockCheckResult checkCache(String url, long startTime, PhaseTimer timer, boolean bypassCache) {
+        StockCheckResult cached = bypassCache ? null : resultCache.get(url);
+        timer.lap(PhaseTimer.CACHE);
+        if (cached == null) {
+            return null;
         }
+        return withTimings(StockCheckResult.builder()
+            .inStock(cached.getInStock())
+            .responseTime((int)(System.currentTimeMillis() - startTime))
+            .errorMessage(cached.getErrorMessage())
+            .build(), timer);
     }
     
-    @PreDestroy
-    public void closeAllDrivers() {
-        logger.info("Closing all WebDriver instances in pool");
+    /**
+     * @return URL不可访问时返回未知结果，否则返回 null
+     */
+    private StockCheckResult checkReachable(String url, long startTime, PhaseTimer timer) {
+        boolean reachable = connectivityProber.isReachable(url);
+        timer.lap(PhaseTimer.PROBE);
+        if (!reachable) {
+            return withTimings(cacheResult(url,
+                StockCheckResult.unknown("URL不可访问", (int)(System.currentTimeMillis() - startTime))), timer);
+        }
+        return null;
+    }
+    
+    private StockCheckResult fastPathResult(String url, StockStatus status, long startTime) {
+        return cacheResult(url, StockCheckResult.builder()
+            .inStock(status == StockStatus.IN_STOCK)
+            .responseTime((int)(System.currentTimeMillis() - startTime))
+            .build());
+    }
+    
+    /**
+     * 对冲检查
+     *
+     * 先发起快速路径，超过其近期 p95 仍未返回时在预算内并行启动浏览器检查；快速路径结果不明确时启动浏览器检查，
+     * 超过其近期 p95 仍未返回时在预算内再发起一次快速路径（页面可能已变化）。两者并行时取先到的明确结论，
+     * 浏览器检查的结果无论是否明确都作为最终结论。落后的一方继续执行完毕，结果写入缓存并计入耗时统计。
+     * 对冲启动的浏览器检查同样先经过可访问性检查，URL 不可访问时不对冲，只等待快速路径。
+     *
+     * 只用于单次检查（{@link #checkStock}），批量检查 {@link #checkStocks} 不做对冲。
+     */
+    private StockCheckResult hedgedCheck(String url, long startTime, PhaseTimer timer, boolean bypassCache)
+            throws InterruptedException {
+        StockCheckResult cached = checkCache(url, startTime, timer, bypassCache);
+        if (cached != null) {
+            return cached;
+        }
+        hedgingPolicy.onRequest();
         
-        // 关闭线程池
-        executorService.shutdown();
-        try {
-            if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
-                executorService.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            executorService.shutdownNow();
-            Thread.currentThread().interrupt();
+        // 1. 快速路径为主
+        CompletableFuture<StockStatus> fastPath = fastPathAsync(url, !bypassCache);
+        StockStatus fastStatus = await(fastPath, hedgingPolicy.getDelay(CircuitBreakerRegistry.HTTP));
+        if (fastStatus == null && connectivityProber.isReachable(url)
+                && hedgingPolicy.tryHedge(CircuitBreakerRegistry.HTTP)) {
+            timer.lap(PhaseTimer.FAST_PATH);
+            logger.debug("快速路径超过p95，对冲启动浏览器检查: {}", url);
+            PhaseTimer browserTimer = new PhaseTimer();
+            return race(url, CircuitBreakerRegistry.HTTP, fastPath,
+                browserAsync(url, startTime, browserTimer), browserTimer, startTime, timer);
+        }
+        if (fastStatus == null) {
+            fastStatus = await(fastPath, Long.MAX_VALUE);
+        }
+        timer.lap(PhaseTimer.FAST_PATH);
+        if (fastStatus.isDecisive()) {
+            return withTimings(fastPathResult(url, fastStatus, startTime), timer);
         }
+        logger.debug("快速路径结果不明确，回退到浏览器检查: {}", url);
         
-        // 关闭所有driver
-        while (!driverPool.isEmpty()) {
-            WebDriver driver = driverPool.poll();
-            if (driver != null) {
-                try {
-                    driver.quit();
-                } catch (Exception e) {
-                    logger.error("Error closing WebDriver", e);
-                }
-            }
+        StockCheckResult unreachable = checkReachable(url, startTime, timer);
+        if (unreachable != null) {
+            return unreachable;
         }
         
-        logger.info("All WebDriver instances closed");
+        // 2. 浏览器检查为主
+        PhaseTimer browserTimer = new PhaseTimer();
+        CompletableFuture<StockCheckResult> browser = browserAsync(url, startTime, browserTimer);
+        StockCheckResult browserResult = await(browser, hedgingPolicy.getDelay(CircuitBreakerRegistry.BROWSER));
+        if (browserResult == null && hedgingPolicy.tryHedge(CircuitBreakerRegistry.BROWSER)) {
+            logger.debug("浏览器检查超过p95，对冲发起快速路径: {}", url);
+            return race(url, CircuitBreakerRegistry.BROWSER, fastPathAsync(url, !bypassCache),
+                browser, browserTimer, startTime, timer);
+        }
+        if (browserResult == null) {
+            browserResult = await(browser, Long.MAX_VALUE);
+        }
+        timer.merge(browserTimer);
+        return withTimings(browserResult, timer);
     }
     
-    public StockCheckResult checkStock(String url) {
-        long startTime = System.currentTimeMillis();
-        WebDriver driver = null;
+    /**
+     * 快速路径与浏览器检查并行，取先到的明确结论
+     *
+     * @param primary 先发起的检查方式
+     */
+    private StockCheckResult race(String url, String primary, CompletableFuture<StockStatus> fastPath,
+                                  CompletableFuture<StockCheckResult> browser, PhaseTimer browserTimer,
+                                  long startTime, PhaseTimer timer) throws InterruptedException {
+        CompletableFuture<StockCheckResult> winner = new CompletableFuture<>();
+        AtomicReference<String> winnerStrategy = new AtomicReference<>();
+        fastPath.thenAccept(status -> {
+            if (status.isDecisive() && winnerStrategy.compareAndSet(null, CircuitBreakerRegistry.HTTP)) {
+                winner.complete(fastPathResult(url, status, startTime));
+            }
+        });
+        browser.thenAccept(result -> {
+            if (winnerStrategy.compareAndSet(null, CircuitBreakerRegistry.BROWSER)) {
+                winner.complete(result);
+            }
+        });
         
+        StockCheckResult result = await(winner, Long.MAX_VALUE);
+        hedgingPolicy.recordOutcome(primary, winnerStrategy.get());
+        if (CircuitBreakerRegistry.BROWSER.equals(winnerStrategy.get())) {
+            timer.merge(browserTimer);
+        } else {
+            timer.lap(PhaseTimer.HEDGE);
+        }
+        return withTimings(result, timer);
+    }
+    
+    private CompletableFuture<StockStatus> fastPathAsync(String url, boolean conditional) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.currentTimeMillis();
+            StockStatus status = httpStockChecker.check(url, conditional);
+            hedgingPolicy.record(CircuitBreakerRegistry.HTTP, System.currentTimeMillis() - start);
+            return status;
+        }, hedgeExecutor);
+    }
+    
+    /**
+     * 在对冲线程上执行浏览器检查，结果写入缓存；计时记录在独立的计时器上
+     */
+    private CompletableFuture<StockCheckResult> browserAsync(String url, long startTime, PhaseTimer browserTimer) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.currentTimeMillis();
+            StockCheckResult result;
+            try {
+                result = cacheResult(url, checkWithBrowser(url, startTime, browserTimer));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                result = StockCheckResult.rejected("检查被中断", (int)(System.currentTimeMillis() - startTime));
+            } catch (Exception e) {
+                logger.error("检查库存失败: {}", e.getMessage());
+                result = cacheResult(url, StockCheckResult.unknown(e.getMessage(), (int)(System.currentTimeMillis() - startTime)));
+            }
+            hedgingPolicy.record(CircuitBreakerRegistry.BROWSER, System.currentTimeMillis() - start);
+            return result;
+        }, hedgeExecutor);
+    }
+    
+    /**
+     * 等待结果
+     *
+     * @return 超时返回 null
+     */
+    private static <T> T await(CompletableFuture<T> future, long timeoutMillis) throws InterruptedException {
         try {
-            // 1. 快速缓存检查
-            PageInfo cachedInfo = pageCache.getIfPresent(url);
-            if (cachedInfo != null) {
-                return StockCheckResult.builder()
-                    .inStock(cachedInfo.isInStock())
-                    .responseTime((int)(System.currentTimeMillis() - startTime))
-                    .build();
+            return timeoutMillis == Long.MAX_VALUE ? future.get() : future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+        }
+    }
+    
+    /**
+     * 浏览器检查：依次经过熔断、限流和舱壁，任一拒绝时立即返回未知结果，不占用WebDriver
+     *
+     * 熔断中的域名不等待限流许可；限流等待在进入舱壁之前，被限流的域名不占用浏览器舱壁许可。
+     */
+    private StockCheckResult checkWithBrowser(String url, long startTime, PhaseTimer timer) throws InterruptedException {
+        StockCheckResult rejected = admitCircuit(url, startTime);
+        if (rejected != null) {
+            return rejected;
+        }
+        
+        boolean navigated = false;
+        boolean entered = false;
+        WebDriver driver = null;
+        RuntimeException error = null;
+        try {
+            StockCheckResult throttled = acquireRateLimit(url, startTime, timer);
+            if (throttled != null) {
+                return throttled;
             }
             
-            // 2. HTTP可访问性检查
-            try {
-                Boolean isAccessible = connectivityCache.get(url);
-                if (!isAccessible) {
-                    return StockCheckResult.builder()
-                        .inStock(false)
-                        .responseTime((int)(System.currentTimeMillis() - startTime))
-                        .errorMessage("URL不可访问")
-                        .build();
-                }
-            } catch (Exception e) {
-                logger.warn("HTTP检查失败: {}", e.getMessage());
+            entered = bulkheads.tryEnter(CircuitBreakerRegistry.BROWSER);
+            timer.lap(PhaseTimer.BULKHEAD);
+            if (!entered) {
+                return StockCheckResult.rejected("浏览器检查繁忙，稍后重试", (int)(System.currentTimeMillis() - startTime));
             }
             
-            // 3. 获取WebDriver并检查库存
             driver = borrowDriver();
-            boolean inStock = checkStockWithDriver(driver, url);
-            
-            // 4. 更新缓存
-            pageCache.put(url, new PageInfo(url, driver.getTitle(), inStock, System.currentTimeMillis()));
-            
-            return StockCheckResult.builder()
-                .inStock(inStock)
-                .responseTime((int)(System.currentTimeMillis() - startTime))
-                .build();
-                
-        } catch (Exception e) {
-            logger.error("检查库存失败: {}", e.getMessage());
-            return StockCheckResult.builder()
-                .inStock(false)
-                .responseTime((int)(System.currentTimeMillis() - startTime))
-                .errorMessage(e.getMessage())
-                .build();
+            timer.lap(PhaseTimer.BORROW);
+            navigated = true;
+            return navigateAndDetect(driver, url, startTime, timer);
+        } catch (RuntimeException e) {
+            error = e;
+            throw e;
         } finally {
             if (driver != null) {
-                returnDriver(driver);
+                returnDriver(driver, error);
+                timer.lap(PhaseTimer.RELEASE);
+            }
+            if (entered) {
+                bulkheads.exit(CircuitBreakerRegistry.BROWSER);
+            }
+            if (!navigated) {
+                // 请求没有到达站点，不计入熔断统计
+                circuitBreakers.releasePermit(url, CircuitBreakerRegistry.BROWSER);
             }
         }
     }
     
-    private boolean checkStockWithDriver(WebDriver driver, String url) {
-        try {
-            // 设置页面加载策略
-            driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(10));
-            driver.manage().timeouts().scriptTimeout(Duration.ofSeconds(5));
-            
-            // 加载页面
-            driver.get(url);
-            
-            // 使用显式等待检查关键元素
-            WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(5));
-            try {
-                wait.until(ExpectedConditions.or(
-                    ExpectedConditions.presenceOfElementLocated(By.cssSelector("button[class*='btn']")),
-                    ExpectedConditions.presenceOfElementLocated(By.xpath("//*[contains(text(), 'Add to Bag')]"))
-                ));
-            } catch (Exception e) {
-                logger.debug("等待关键元素超时: {}", e.getMessage());
-            }
-            
-            return isAddToBagButtonPresent(driver);
-        } catch (Exception e) {
-            logger.error("检查库存时发生错误: {}", e.getMessage());
-            return false;
+    /**
+     * 获取限流许可（可能等待，调用方不应持有舱壁许可）
+     *
+     * @return 被拒绝时返回未知结果，允许时返回 null
+     */
+    private StockCheckResult acquireRateLimit(String url, long startTime, PhaseTimer timer) {
+        boolean permitted = rateLimiter.acquire(url);
+        timer.lap(PhaseTimer.RATE_LIMIT);
+        if (!permitted) {
+            return StockCheckResult.rejected("请求频率受限，稍后重试", (int)(System.currentTimeMillis() - startTime));
         }
+        return null;
     }
     
-    private boolean checkUrlConnectivity(String urlString) {
-        try {
-            URL url = new URL(urlString);
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("HEAD");
-            connection.setConnectTimeout(3000);
-            connection.setReadTimeout(3000);
-            connection.setRequestProperty("User-Agent", config.getMonitor().getSelenium().getUserAgent());
-            
-            int responseCode = connection.getResponseCode();
-            return responseCode >= 200 && responseCode < 400;
-        } catch (Exception e) {
-            logger.debug("URL连接检查失败: {}", e.getMessage());
-            return false;
+    /**
+     * 熔断检查
+     *
+     * @return 被拒绝时返回未知结果，允许时返回 null
+     */
+    private StockCheckResult admitCircuit(String url, long startTime) {
+        if (!circuitBreakers.allowRequest(url, CircuitBreakerRegistry.BROWSER)) {
+            return StockCheckResult.rejected("站点暂不可用（熔断中），稍后重试", (int)(System.currentTimeMillis() - startTime));
         }
+        return null;
     }
     
-    private boolean isAddToBagButtonPresent(WebDriver driver) {
+    /**
+     * 用已借出的 WebDriver 检查一个 URL，并记录熔断结果
+     */
+    private StockCheckResult navigateAndDetect(WebDriver driver, String url, long startTime, PhaseTimer timer) {
+        StockDetectionResult detection;
         try {
-            String keyword = config.getMonitor().getStockDetection().getKeyword();
-            logger.debug("Looking for keyword: {}", keyword);
-            
-            // 策略1：专门针对Pop Mart网站的检测（最优先）
-            try {
-                JavascriptExecutor js = (JavascriptExecutor) driver;
-                
-                // Pop Mart特定的按钮检测
-                String popMartScript = String.format(
-                    "var keyword = '%s';" +
-                    // 查找Pop Mart特定的按钮CSS类模式
-                    "var popMartButtons = document.querySelectorAll('div[class*=\"usBtn\"], div[class*=\"btn\"], div[class*=\"Btn\"]');" +
-                    "console.log('Pop Mart detection: Found ' + popMartButtons.length + ' potential button elements');" +
-                    "for (var i = 0; i < popMartButtons.length; i++) {" +
-                    "  var btn = popMartButtons[i];" +
-                    "  console.log('Checking button ' + i + ': className=' + btn.className + ', text=' + btn.textContent);" +
-                    "  if (btn.textContent && btn.textContent.toLowerCase().indexOf(keyword) !== -1) {" +
-                    "    if (btn.offsetParent !== null) {" +
-                    "      console.log('Found Pop Mart button:', btn.className, btn.textContent);" +
-                    "      return 'found';" +
-                    "    } else {" +
-                    "      console.log('Button found but not visible:', btn.className);" +
-                    "    }" +
-                    "  }" +
-                    "}" +
-                    // 额外检查：查找所有包含关键词的div元素
-                    "var allDivs = document.querySelectorAll('div');" +
-                    "console.log('Checking all divs: ' + allDivs.length + ' total');" +
-                    "for (var j = 0; j < allDivs.length; j++) {" +
-                    "  var div = allDivs[j];" +
-                    "  if (div.textContent && div.textContent.toLowerCase().indexOf(keyword) !== -1) {" +
-                    "    console.log('Found div with keyword: className=' + div.className + ', text=' + div.textContent);" +
-                    "    if (div.offsetParent !== null) {" +
-                    "      return 'found_div';" +
-                    "    }" +
-                    "  }" +
-                    "}" +
-                    "return 'not_found';",
-                    keyword.toLowerCase()
-                );
-                
-                String popMartResult = (String) js.executeScript(popMartScript);
-                
-                if ("found".equals(popMartResult) || "found_div".equals(popMartResult)) {
-                    logger.debug("Found Add to Bag button using Pop Mart specific detection: {}", popMartResult);
-                    return true;
-                }
-                
-            } catch (Exception e) {
-                logger.debug("Pop Mart specific detection failed: {}", e.getMessage());
+            detection = checkStockWithDriver(driver, url, timer);
+        } catch (RuntimeException e) {
+            circuitBreakers.recordFailure(url, CircuitBreakerRegistry.BROWSER);
+            throw e;
+        }
+        
+        int httpStatus = detection.getHttpStatus();
+        if (httpStatus >= 500 || httpStatus == 429) {
+            circuitBreakers.recordFailure(url, CircuitBreakerRegistry.BROWSER);
+            return StockCheckResult.unknown("站点返回 HTTP " + httpStatus, (int)(System.currentTimeMillis() - startTime));
+        }
+        circuitBreakers.recordSuccess(url, CircuitBreakerRegistry.BROWSER);
+        
+        return StockCheckResult.builder()
+            .inStock(detection.getStatus() == StockStatus.IN_STOCK)
+            .responseTime((int)(System.currentTimeMillis() - startTime))
+            .networkStats(detection.getNetworkStats())
+            .build();
+    }
+    
+    private StockCheckResult failed(String url, Exception e, long startTime, PhaseTimer timer) {
+        logger.error("检查库存失败: {}", e.getMessage());
+        return withTimings(cacheResult(url,
+            StockCheckResult.unknown(e.getMessage(), (int)(System.currentTimeMillis() - startTime))), timer);
+    }
+    
+    /**
+     * 附加分阶段耗时并记录到 Micrometer
+     */
+    private StockCheckResult withTimings(StockCheckResult result, PhaseTimer timer) {
+        timer.record(meterRegistry);
+        return StockCheckResult.builder()
+            .inStock(result.getInStock())
+            .responseTime(result.getResponseTime())
+            .errorMessage(result.getErrorMessage())
+            .phaseTimings(timer.getTimings())
+            .networkStats(result.getNetworkStats())
+            .rejected(result.isRejected())
+            .build();
+    }
+    
+    private StockCheckResult cacheResult(String url, StockCheckResult result) {
+        resultCache.put(url, result);
+        return result;
+    }
+    
+    /**
+     * 批量检查商品库存
+     *
+     * 每个 URL 先在预检线程中完成快速路径和可访问性检查（不读取结果缓存，结果仍写入缓存）；需要浏览器的 URL 进入共享队列，
+     * 由少量批处理线程各自借出一个 WebDriver 连续检查多个 URL，舱壁许可和 WebDriver 的借还只发生一次。
+     * 同一 URL 与进行中的单次检查合并。
+     *
+     * @return URL -> 结果，每个 URL 检查完成后对应的 future 立即完成
+     */
+    public Map<String, CompletableFuture<StockCheckResult>> checkStocks(Collection<String> urls) {
+        Map<String, CompletableFuture<StockCheckResult>> results = new LinkedHashMap<>();
+        BrowserBatch batch = new BrowserBatch();
+        
+        for (String url : urls) {
+            if (results.containsKey(url)) {
+                continue;
             }
-            
-            // 策略2：超快速JavaScript检测（通用）
-            try {
-                JavascriptExecutor js = (JavascriptExecutor) driver;
-                
-                // 优化的JavaScript检测脚本
-                String ultraFastScript = String.format(
-                    "var keyword = '%s';" +
-                    // 扩展选择器，包含div和其他可能的按钮元素
-                    "var buttons = document.querySelectorAll('button, input[type=\"button\"], input[type=\"submit\"], a[role=\"button\"], div[class*=\"btn\"], div[class*=\"Btn\"], div[class*=\"button\"], div[class*=\"Button\"], div[class*=\"usBtn\"], div[class*=\"Btn\"]');" +
-                    "for (var i = 0; i < buttons.length; i++) {" +
-                    "  var btn = buttons[i];" +
-                    "  if (btn.textContent && btn.textContent.toLowerCase().indexOf(keyword) !== -1) {" +
-                    "    if (btn.offsetParent !== null && !btn.disabled) return 'found';" +
-                    "    if (btn.disabled) return 'disabled';" +
-                    "  }" +
-                    "}" +
-                    // 额外检查：查找所有包含关键词的可点击元素
-                    "var allClickable = document.querySelectorAll('*[onclick], *[class*=\"btn\"], *[class*=\"Btn\"], *[class*=\"button\"], *[class*=\"Button\"], *[role=\"button\"]');" +
-                    "for (var j = 0; j < allClickable.length; j++) {" +
-                    "  var elem = allClickable[j];" +
-                    "  if (elem.textContent && elem.textContent.toLowerCase().indexOf(keyword) !== -1) {" +
-                    "    if (elem.offsetParent !== null) return 'found';" +
-                    "  }" +
-                    "}" +
-                    // 快速检查缺货指示器
-                    "var outOfStockKeywords = ['out of stock', 'sold out', 'notify me', 'unavailable'];" +
-                    "var allText = document.body.textContent.toLowerCase();" +
-                    "for (var k = 0; k < outOfStockKeywords.length; k++) {" +
-                    "  if (allText.indexOf(outOfStockKeywords[k]) !== -1) return 'out_of_stock';" +
-                    "}" +
-                    "return 'not_found';",
-                    keyword.toLowerCase()
-                );
-                
-                String result = (String) js.executeScript(ultraFastScript);
-                
-                if ("found".equals(result)) {
-                    logger.debug("Found Add to Bag button using ultra-fast JavaScript detection");
-                    return true;
-                } else if ("out_of_stock".equals(result) || "disabled".equals(result)) {
-                    logger.debug("Product out of stock - found indicator: {}", result);
-                    return false;
-                }
-                
-            } catch (Exception e) {
-                logger.debug("Ultra-fast JavaScript detection failed: {}", e.getMessage());
+            CompletableFuture<StockCheckResult> future = new CompletableFuture<>();
+            CompletableFuture<StockCheckResult> inFlight = inFlightChecks.putIfAbsent(url, future);
+            if (inFlight != null) {
+                results.put(url, inFlight);
+                continue;
             }
+            future.whenComplete((result, error) -> inFlightChecks.remove(url, future));
+            results.put(url, future);
             
-            // 策略3：页面源码快速检查（备用）
             try {
-                String pageSource = driver.getPageSource();
-                String lowerSource = pageSource.toLowerCase();
-                
-                // 快速文本匹配
-                if (lowerSource.contains(keyword.toLowerCase())) {
-                    // 检查是否有缺货指示器
-                    if (lowerSource.contains("out of stock") || 
-                        lowerSource.contains("sold out") || 
-                        lowerSource.contains("notify me") ||
-                        lowerSource.contains("unavailable")) {
-                        logger.debug("Found out of stock indicator in page source");
-                        return false;
-                    }
-                    
-                    // 检查是否有按钮相关的CSS类或HTML结构
-                    if (lowerSource.contains("class=\"") && 
-                        (lowerSource.contains("btn") || lowerSource.contains("button")) &&
-                        lowerSource.contains(keyword.toLowerCase())) {
-                        logger.debug("Found keyword with button-like CSS classes in page source");
-                        return true;
-                    }
-                    
-                    logger.debug("Found keyword in page source, likely in stock");
-                    return true;
-                }
-                
-            } catch (Exception e) {
-                logger.debug("Page source check failed: {}", e.getMessage());
+                batchPrefetchExecutor.execute(() -> prefetch(batch, url, future));
+            } catch (RejectedExecutionException e) {
+                future.complete(StockCheckResult.rejected("批量检查已停止", 0));
             }
-            
-            logger.debug("No Add to Bag button found using any strategy");
-            return false;
-            
-        } catch (Exception e) {
-            logger.error("Error checking for Add to Bag button", e);
-            return false;
         }
+        
+        logger.debug("Submitted batch of {} URLs", results.size());
+        return results;
     }
     
-    public String getPageTitle() {
-        WebDriver driver = null;
+    private void prefetch(BrowserBatch batch, String url, CompletableFuture<StockCheckResult> future) {
+        long startTime = System.currentTimeMillis();
+        PhaseTimer timer = new PhaseTimer();
         try {
-            driver = borrowDriver();
-            return driver.getTitle();
-        } catch (Exception e) {
-            logger.error("Error getting page title", e);
-            return "Unknown";
-        } finally {
-            if (driver != null) {
-                returnDriver(driver);
+            // 监控调度只在商品到期时才检查，缓存中的结论可能比检查间隔还旧，不读取缓存
+            StockCheckResult result = checkWithoutBrowser(url, startTime, timer, true, true, false);
+            if (result != null) {
+                future.complete(result);
+            } else {
+                batch.submit(new BatchItem(url, future, startTime, timer));
             }
+        } catch (Exception e) {
+            future.complete(failed(url, e, startTime, timer));
         }
     }
     
     /**
-     * 优化的页面信息缓存类
+     * 批量检查中等待浏览器检查的 URL
      */
-    private static class PageInfo {
+    private class BatchItem {
         private final String url;
-        private final String title;
-        private final boolean inStock;
-        private final long timestamp;
+        private final CompletableFuture<StockCheckResult> future;
+        private final long startTime;
+        private final PhaseTimer timer;
         
-        public PageInfo(String url, String title, boolean inStock, long timestamp) {
+        BatchItem(String url, CompletableFuture<StockCheckResult> future, long startTime, PhaseTimer timer) {
             this.url = url;
-            this.title = title;
-            this.inStock = inStock;
-            this.timestamp = timestamp;
+            this.future = future;
+            this.startTime = startTime;
+            this.timer = timer;
+        }
+        
+        void complete(StockCheckResult result) {
+            future.complete(withTimings(cacheResult(url, result), timer));
         }
         
-        public String getUrl() { return url; }
-        public String getTitle() { return title; }
-        public boolean isInStock() { return inStock; }
-        public long getTimestamp() { return timestamp; }
+        void reject(String message) {
+            complete(StockCheckResult.rejected(message, (int)(System.currentTimeMillis() - startTime)));
+        }
     }
     
     /**
-     * 性能测试方法 - 测试多种优化策略的效果
+     * 一次批量检查的浏览器队列
+     *
+     * 批处理线程按需启动（不超过浏览器并发上限），队列为空时退出；
+     * 每个线程持有一个 WebDriver 连续导航，每个 URL 计一次导航，达到导航上限或导航失败后归还并重新借出。
+     * 需要等待限流许可时先归还实例和舱壁许可，等待结束后重新进入。
      */
-    public PerformanceTestResult performanceTest(String url, int iterations) {
-        logger.info("Starting performance test for {} with {} iterations", url, iterations);
+    private class BrowserBatch {
+        private final Queue<BatchItem> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger workers = new AtomicInteger();
+        private final int maxWorkers = Math.max(1, config.getMonitor().getResilience().getBrowserConcurrency());
         
-        long totalTime = 0;
-        int successCount = 0;
-        int errorCount = 0;
-        long minTime = Long.MAX_VALUE;
-        long maxTime = 0;
+        void submit(BatchItem item) {
+            queue.add(item);
+            if (tryAddWorker()) {
+                try {
+                    batchWorkerExecutor.execute(this::work);
+                } catch (RejectedExecutionException e) {
+                    workers.decrementAndGet();
+                    rejectAll("批量检查已停止");
+                }
+            }
+        }
         
-        for (int i = 0; i < iterations; i++) {
-            try {
-                long startTime = System.currentTimeMillis();
-                StockCheckResult result = checkStock(url);
-                long duration = System.currentTimeMillis() - startTime;
-                
-                totalTime += duration;
-                minTime = Math.min(minTime, duration);
-                maxTime = Math.max(maxTime, duration);
-                
-                if (result.hasError()) {
-                    errorCount++;
-                } else {
-                    successCount++;
+        private boolean tryAddWorker() {
+            while (true) {
+                int current = workers.get();
+                if (current >= maxWorkers) {
+                    return false;
+                }
+                if (workers.compareAndSet(current, current + 1)) {
+                    return true;
                 }
-                
-                logger.debug("Test iteration {}: {}ms, result: {}", i + 1, duration, 
-                    result.hasError() ? "ERROR" : (result.getInStock() ? "IN_STOCK" : "OUT_OF_STOCK"));
-                
-                // 短暂休息避免过于频繁的请求
-                Thread.sleep(1000);
-                
-            } catch (Exception e) {
-                errorCount++;
-                logger.error("Error in performance test iteration {}: {}", i + 1, e.getMessage());
             }
         }
         
-        double avgTime = totalTime / (double) iterations;
+        private void work() {
+            do {
+                drain();
+                workers.decrementAndGet();
+                // 退出前再次检查，避免与刚入队的 URL 错过
+            } while (!queue.isEmpty() && tryAddWorker());
+        }
         
-        PerformanceTestResult result = PerformanceTestResult.builder()
-                .totalIterations(iterations)
-                .successCount(successCount)
-                .errorCount(errorCount)
-                .averageTime(avgTime)
-                .minTime(minTime)
-                .maxTime(maxTime)
-                .build();
+        private void drain() {
+            int maxNavigations = Math.max(1, config.getMonitor().getBatch().getNavigationsPerDriver());
+            WebDriver driver = null;
+            int navigations = 0;
+            boolean entered = false;
+            try {
+                BatchItem item;
+                while ((item = queue.poll()) != null) {
+                    // 包含在队列中等待批处理线程的时间
+                    item.timer.lap(PhaseTimer.BULKHEAD);
+                    // 先看熔断，熔断中的域名不等待限流许可，也不占用舱壁
+                    StockCheckResult rejected = admitCircuit(item.url, item.startTime);
+                    if (rejected != null) {
+                        item.complete(rejected);
+                        continue;
+                    }
+                    boolean navigated = false;
+                    try {
+                        if (rateLimiter.tryAcquire(item.url)) {
+                            item.timer.lap(PhaseTimer.RATE_LIMIT);
+                        } else {
+                            // 需要等待限流许可：先归还实例和舱壁许可，等待期间不占用浏览器资源
+                            if (driver != null) {
+                                returnDriver(driver);
+                                driver = null;
+                            }
+                            if (entered) {
+                                bulkheads.exit(CircuitBreakerRegistry.BROWSER);
+                                entered = false;
+                            }
+                            StockCheckResult throttled = acquireRateLimit(item.url, item.startTime, item.timer);
+                            if (throttled != null) {
+                                item.complete(throttled);
+                                continue;
+                            }
+                        }
+                        if (!entered) {
+                            if (!bulkheads.tryEnter(CircuitBreakerRegistry.BROWSER)) {
+                                // 只拒绝未能进入舱壁的 URL，后续 URL 重新尝试
+                                item.reject("浏览器检查繁忙，稍后重试");
+                                continue;
+                            }
+                            entered = true;
+                            item.timer.lap(PhaseTimer.BULKHEAD);
+                        }
+                        if (driver == null) {
+                            driver = borrowDriver();
+                            navigations = 0;
+                            item.timer.lap(PhaseTimer.BORROW);
+                        }
+                        // 每个 URL 都计入实例的导航次数，实例达到池的回收条件时立即归还
+                        navigations++;
+                        boolean reusable = driverPool.recordNavigation(driver);
+                        navigated = true;
+                        StockCheckResult result = navigateAndDetect(driver, item.url, item.startTime, item.timer);
+                        if (!reusable || navigations >= maxNavigations) {
+                            returnDriver(driver);
+                            driver = null;
+                            item.timer.lap(PhaseTimer.RELEASE);
+                        }
+                        item.complete(result);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        item.reject("检查被中断");
+                        rejectAll("检查被中断");
+                        return;
+                    } catch (Exception e) {
+                        // 导航失败的实例可能已不可用，归还（会话出错时丢弃）后由下一个 URL 重新借出
+                        if (driver != null) {
+                            returnDriver(driver, e);
+                            driver = null;
+                        }
+                        item.future.complete(failed(item.url, e, item.startTime, item.timer));
+                    } finally {
+                        if (!navigated) {
+                            // 请求没有到达站点，不计入熔断统计
+                            circuitBreakers.releasePermit(item.url, CircuitBreakerRegistry.BROWSER);
+                        }
+                    }
+                }
+            } finally {
+                if (driver != null) {
+                    returnDriver(driver);
+                }
+                if (entered) {
+                    bulkheads.exit(CircuitBreakerRegistry.BROWSER);
+                }
+            }
+        }
         
-        logger.info("Performance test completed: {}", result);
+        private void rejectAll(String message) {
+            BatchItem item;
+            while ((item = queue.poll()) != null) {
+                item.reject(message);
+            }
+        }
+    }
+    
+    private StockDetectionResult checkStockWithDriver(WebDriver driver, String url, PhaseTimer timer) {
+        StockDetectionResult result;
+        NetworkBudgetInterceptor.NetworkStats networkStats;
+        try {
+            // 页面加载和脚本超时在创建 WebDriver 时按配置设置
+            // 加载页面（按资源预算拦截无关请求），导航失败直接抛出
+            networkInterceptor.beginCheck(driver);
+            driver.get(url);
+            timer.lap(PhaseTimer.NAVIGATION);
+            
+            // 使用显式等待检查关键元素
+            WebDriverWait wait = new WebDriverWait(driver,
+                Duration.ofSeconds(config.getMonitor().getSelenium().getPerformance().getSmartWaitTimeout()));
+            try {
+                wait.until(ExpectedConditions.or(
+                    ExpectedConditions.presenceOfElementLocated(By.cssSelector("button[class*='btn']")),
+                    ExpectedConditions.presenceOfElementLocated(By.xpath("//*[contains(text(), 'Add to Bag')]"))
+                ));
+            } catch (Exception e) {
+                logger.debug("等待关键元素超时: {}", e.getMessage());
+            }
+            timer.lap(PhaseTimer.ELEMENT_WAIT);
+            
+            result = detectionEngine.detect(driver, url, timer);
+            // 策略之外的检测开销（排序、统计）
+            timer.lap(PhaseTimer.DETECTION);
+            rateLimiter.onResponse(url, result.getHttpStatus(), null);
+        } finally {
+            // 结束预算并恢复屏蔽规则，之后的会话保温、驻留标签页等导航不受本次超出预算影响
+            networkStats = networkInterceptor.endCheck(driver);
+        }
+        result.setNetworkStats(networkStats);
         return result;
     }
-} 
\ No newline at end of file
+    
+    
+    public String getPageTitle() {
+        WebDriver driver = null;
+        Exception error = null;
+        try {
+            driver = borrowDriver();
+            return driver.getTitle();
+        } catch (Exception e) {
+            error = e;
+            logger.error("Error getting page title", e);
+            return "Unknown";
+        } finally {
+            if (driver != null) {
+                returnDriver(driver, error);
+            }
+        }
+    }
+}
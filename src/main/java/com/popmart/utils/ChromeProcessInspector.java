@@ -0,0 +1,172 @@
+package com.popmart.utils;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Chrome 进程内存检查工具（基于 Linux /proc）
+ *
+ * 每个 ChromeDriver 会话使用独立的 --user-data-dir，据此找到浏览器主进程，
+ * 再累加其所有子进程（渲染、GPU、网络等）的 RSS。
+ */
+public class ChromeProcessInspector {
+
+    private static final File PROC = new File("/proc");
+
+    /**
+     * 获取驱动会话对应的 Chrome 用户数据目录
+     *
+     * @return 用户数据目录，无法获取时返回 null
+     */
+    @SuppressWarnings("unchecked")
+    public static String getUserDataDir(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities)) {
+            return null;
+        }
+        try {
+            Capabilities capabilities = ((HasCapabilities) driver).getCapabilities();
+            Object chrome = capabilities.getCapability("chrome");
+            if (chrome instanceof Map) {
+                Object dir = ((Map<String, Object>) chrome).get("userDataDir");
+                return dir != null ? dir.toString() : null;
+            }
+        } catch (Exception e) {
+            // 忽略，按不可用处理
+        }
+        return null;
+    }
+
+    /**
+     * 一次扫描 /proc，统计每个用户数据目录对应的进程树 RSS
+     *
+     * @param userDataDirs 用户数据目录列表
+     * @return 用户数据目录 -> RSS 字节数，非 Linux 环境返回空 Map
+     */
+    public static Map<String, Long> measureRss(Collection<String> userDataDirs) {
+        Map<String, Long> result = new HashMap<>();
+        File[] entries = PROC.listFiles();
+        if (entries == null || userDataDirs.isEmpty()) {
+            return result;
+        }
+
+        Map<Integer, Integer> parents = new HashMap<>();
+        Map<Integer, List<Integer>> children = new HashMap<>();
+        Map<String, Set<Integer>> matched = new HashMap<>();
+
+        for (File entry : entries) {
+            int pid = parsePid(entry.getName());
+            if (pid < 0) {
+                continue;
+            }
+            int ppid = readParentPid(pid);
+            if (ppid < 0) {
+                continue;
+            }
+            parents.put(pid, ppid);
+            children.computeIfAbsent(ppid, k -> new ArrayList<>()).add(pid);
+
+            String cmdline = readCmdline(pid);
+            for (String dir : userDataDirs) {
+                if (cmdline.contains("--user-data-dir=" + dir)) {
+                    matched.computeIfAbsent(dir, k -> new HashSet<>()).add(pid);
+                }
+            }
+        }
+
+        for (Map.Entry<String, Set<Integer>> entry : matched.entrySet()) {
+            long total = 0;
+            Set<Integer> counted = new HashSet<>();
+            for (int pid : entry.getValue()) {
+                // 只从进程树的根（父进程不属于同一会话）开始累加
+                if (!entry.getValue().contains(parents.get(pid))) {
+                    total += sumTreeRss(pid, children, counted);
+                }
+            }
+            result.put(entry.getKey(), total);
+        }
+        return result;
+    }
+
+    private static long sumTreeRss(int root, Map<Integer, List<Integer>> children, Set<Integer> counted) {
+        long total = 0;
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            int pid = stack.pop();
+            if (!counted.add(pid)) {
+                continue;
+            }
+            total += readRssBytes(pid);
+            List<Integer> kids = children.get(pid);
+            if (kids != null) {
+                for (int kid : kids) {
+                    stack.push(kid);
+                }
+            }
+        }
+        return total;
+    }
+
+    private static int parsePid(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) {
+                return -1;
+            }
+        }
+        return name.isEmpty() ? -1 : Integer.parseInt(name);
+    }
+
+    private static int readParentPid(int pid) {
+        try {
+            String stat = new String(Files.readAllBytes(procPath(pid, "stat")), StandardCharsets.UTF_8);
+            // 格式: pid (comm) state ppid ...，comm 中可能含空格，从最后一个右括号后解析
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            return Integer.parseInt(fields[1]);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static String readCmdline(int pid) {
+        try {
+            byte[] bytes = Files.readAllBytes(procPath(pid, "cmdline"));
+            return new String(bytes, StandardCharsets.UTF_8).replace('\0', ' ');
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private static long readRssBytes(int pid) {
+        try {
+            for (String line : Files.readAllLines(procPath(pid, "status"), StandardCharsets.UTF_8)) {
+                if (line.startsWith("VmRSS:")) {
+                    String kb = line.substring("VmRSS:".length()).replace("kB", "").trim();
+                    return Long.parseLong(kb) * 1024;
+                }
+            }
+        } catch (Exception e) {
+            // 进程可能已退出
+        }
+        return 0;
+    }
+
+    private static Path procPath(int pid, String file) {
+        return Paths.get("/proc", String.valueOf(pid), file);
+    }
+}
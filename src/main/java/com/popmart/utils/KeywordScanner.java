@@ -0,0 +1,234 @@
+package com.popmart.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * 不区分大小写的多关键词扫描（Aho-Corasick）
+ *
+ * 每个关键词属于一个分组（0-31），扫描结果为命中分组的位掩码。构建时把失败转移展开成完整的状态转移表，
+ * 扫描时每个字符只查一次表：不复制、不转小写原字符串，一次遍历同时匹配全部关键词，
+ * 指定分组全部命中后立即停止。构建完成后不可变，可被多个线程共享。
+ */
+public final class KeywordScanner {
+
+    private static final int MAX_GROUPS = 32;
+
+    private static final int ASCII = 128;
+
+    // ASCII 状态转移表：asciiTransitions[state * 128 + c]，大小写两列相同，不在关键词中的字符回到初始状态
+    private final int[] asciiTransitions;
+
+    // 关键词中的非 ASCII 字符（小写）-> 非 ASCII 转移表的列
+    private final Map<Character, Integer> otherIndex;
+
+    private final int otherCount;
+
+    // 非 ASCII 状态转移表：otherTransitions[state * otherCount + column]
+    private final int[] otherTransitions;
+
+    // 到达该状态时命中的分组（含失败链上的后缀关键词）
+    private final int[] outputs;
+
+    private KeywordScanner(int[] asciiTransitions, Map<Character, Integer> otherIndex,
+                           int[] otherTransitions, int[] outputs) {
+        this.asciiTransitions = asciiTransitions;
+        this.otherIndex = otherIndex;
+        this.otherCount = otherIndex.size();
+        this.otherTransitions = otherTransitions;
+        this.outputs = outputs;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 扫描整段文本
+     *
+     * @return 命中分组的位掩码（第 n 位对应分组 n）
+     */
+    public int scan(CharSequence text) {
+        return scan(text, 0, text.length(), 0);
+    }
+
+    /**
+     * 扫描 text[start, end)
+     *
+     * @param stopMask 这些分组全部命中后立即返回，0 表示扫描到结尾
+     * @return 命中分组的位掩码（第 n 位对应分组 n）
+     */
+    public int scan(CharSequence text, int start, int end, int stopMask) {
+        int[] ascii = asciiTransitions;
+        int[] outputs = this.outputs;
+        int state = 0;
+        int found = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < ASCII) {
+                state = ascii[(state << 7) | c];
+            } else if (otherCount == 0) {
+                state = 0;
+            } else {
+                Integer column = otherIndex.get(Character.toLowerCase(c));
+                state = column != null ? otherTransitions[state * otherCount + column] : 0;
+            }
+            int output = outputs[state];
+            if (output != 0) {
+                found |= output;
+                if (stopMask != 0 && (found & stopMask) == stopMask) {
+                    return found;
+                }
+            }
+        }
+        return found;
+    }
+
+    public static final class Builder {
+        private final List<String> keywords = new ArrayList<>();
+        private final List<Integer> groups = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 添加关键词（空白关键词忽略）
+         *
+         * @param group 分组 0-31
+         */
+        public Builder add(String keyword, int group) {
+            if (group < 0 || group >= MAX_GROUPS) {
+                throw new IllegalArgumentException("Keyword group must be between 0 and 31: " + group);
+            }
+            if (keyword != null && !keyword.isEmpty()) {
+                // 与扫描时一致，逐字符转小写
+                char[] chars = keyword.toCharArray();
+                for (int i = 0; i < chars.length; i++) {
+                    chars[i] = Character.toLowerCase(chars[i]);
+                }
+                keywords.add(new String(chars));
+                groups.add(group);
+            }
+            return this;
+        }
+
+        public Builder addAll(Iterable<String> keywords, int group) {
+            for (String keyword : keywords) {
+                add(keyword, group);
+            }
+            return this;
+        }
+
+        public KeywordScanner build() {
+            int[] asciiIndex = new int[128];
+            Arrays.fill(asciiIndex, -1);
+            Map<Character, Integer> otherIndex = new HashMap<>();
+            int alphabetSize = 0;
+            for (String keyword : keywords) {
+                for (int i = 0; i < keyword.length(); i++) {
+                    char c = keyword.charAt(i);
+                    if (c < 128) {
+                        if (asciiIndex[c] < 0) {
+                            asciiIndex[c] = alphabetSize++;
+                        }
+                    } else if (!otherIndex.containsKey(c)) {
+                        otherIndex.put(c, alphabetSize++);
+                    }
+                }
+            }
+            int width = Math.max(1, alphabetSize);
+
+            // 1. 构建 trie（-1 表示无子节点）
+            List<int[]> children = new ArrayList<>();
+            List<Integer> outputs = new ArrayList<>();
+            children.add(newRow(width));
+            outputs.add(0);
+            for (int k = 0; k < keywords.size(); k++) {
+                String keyword = keywords.get(k);
+                int state = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    char c = keyword.charAt(i);
+                    int symbol = c < 128 ? asciiIndex[c] : otherIndex.get(c);
+                    int next = children.get(state)[symbol];
+                    if (next < 0) {
+                        next = children.size();
+                        children.get(state)[symbol] = next;
+                        children.add(newRow(width));
+                        outputs.add(0);
+                    }
+                    state = next;
+                }
+                outputs.set(state, outputs.get(state) | (1 << groups.get(k)));
+            }
+
+            // 2. 按层计算失败转移，并展开为完整的状态转移表
+            int stateCount = children.size();
+            int[] transitions = new int[stateCount * width];
+            int[] outputMasks = new int[stateCount];
+            int[] fail = new int[stateCount];
+            for (int s = 0; s < stateCount; s++) {
+                outputMasks[s] = outputs.get(s);
+            }
+
+            Queue<Integer> queue = new ArrayDeque<>();
+            for (int symbol = 0; symbol < width; symbol++) {
+                int child = children.get(0)[symbol];
+                if (child < 0) {
+                    transitions[symbol] = 0;
+                } else {
+                    transitions[symbol] = child;
+                    fail[child] = 0;
+                    queue.add(child);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                outputMasks[state] |= outputMasks[fail[state]];
+                for (int symbol = 0; symbol < width; symbol++) {
+                    int child = children.get(state)[symbol];
+                    int fallback = transitions[fail[state] * width + symbol];
+                    if (child < 0) {
+                        transitions[state * width + symbol] = fallback;
+                    } else {
+                        transitions[state * width + symbol] = child;
+                        fail[child] = fallback;
+                        queue.add(child);
+                    }
+                }
+            }
+
+            // 3. 按字符展开：ASCII 列直接用字符编码索引（大写折叠到小写），非 ASCII 字符单独成表
+            Map<Character, Integer> otherColumns = new HashMap<>();
+            int[] otherSymbols = new int[otherIndex.size()];
+            for (Map.Entry<Character, Integer> entry : otherIndex.entrySet()) {
+                int column = otherColumns.size();
+                otherColumns.put(entry.getKey(), column);
+                otherSymbols[column] = entry.getValue();
+            }
+            int[] asciiTransitions = new int[stateCount * ASCII];
+            int[] otherTransitions = new int[stateCount * otherSymbols.length];
+            for (int state = 0; state < stateCount; state++) {
+                for (int c = 0; c < ASCII; c++) {
+                    int symbol = asciiIndex[c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c];
+                    asciiTransitions[state * ASCII + c] = symbol < 0 ? 0 : transitions[state * width + symbol];
+                }
+                for (int column = 0; column < otherSymbols.length; column++) {
+                    otherTransitions[state * otherSymbols.length + column] = transitions[state * width + otherSymbols[column]];
+                }
+            }
+
+            return new KeywordScanner(asciiTransitions, otherColumns, otherTransitions, outputMasks);
+        }
+
+        private static int[] newRow(int width) {
+            int[] row = new int[width];
+            Arrays.fill(row, -1);
+            return row;
+        }
+    }
+}
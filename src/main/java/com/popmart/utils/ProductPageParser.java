@@ -0,0 +1,374 @@
+package com.popmart.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.popmart.service.StockStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 商品页面解析工具：从服务端渲染的 HTML 和内嵌 JSON 中判定库存
+ */
+public class ProductPageParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Next.js 内嵌数据：<script id="__NEXT_DATA__" type="application/json">{...}</script>
+    private static final Pattern NEXT_DATA_PATTERN = Pattern.compile(
+        "<script[^>]*id=[\"']__NEXT_DATA__[\"'][^>]*>(.*?)</script>", Pattern.DOTALL);
+
+    // 关键词扫描分组：有库存按钮关键词、缺货关键词
+    public static final int IN_STOCK_GROUP = 0;
+    public static final int OUT_OF_STOCK_GROUP = 1;
+    public static final int IN_STOCK_MASK = 1 << IN_STOCK_GROUP;
+    public static final int OUT_OF_STOCK_MASK = 1 << OUT_OF_STOCK_GROUP;
+
+    // SKU 上表示库存数量的字段
+    private static final String[] STOCK_COUNT_FIELDS = {"onlineStock", "stock", "stockNum", "stockQty", "availableStock", "inventory"};
+
+    // SKU 上表示售罄的布尔字段
+    private static final String[] SOLD_OUT_FIELDS = {"soldOut", "isSoldOut"};
+
+    // SKU 上表示可售的布尔字段
+    private static final String[] AVAILABLE_FIELDS = {"inStock", "isAvailable", "available"};
+
+    // 列表页中的商品链接：/us/products/{productId}/{slug}
+    private static final Pattern PRODUCT_LINK_PATTERN = Pattern.compile(
+        "href=[\"'](?:https://www\\.popmart\\.com)?(/us/products/(\\d+)/[^\"'?#]*)");
+
+    // 列表页商品对象上的商品 ID 字段（按优先级）
+    private static final String[] PRODUCT_ID_FIELDS = {"spuId", "productId", "id"};
+
+    // 列表页商品对象上的名称字段
+    private static final String[] TITLE_FIELDS = {"title", "name", "productName"};
+
+    /**
+     * 解析商品页面，只以内嵌 JSON 中的 SKU 数据为准
+     *
+     * 服务端 HTML 中的按钮文本可能是客户端渲染前的占位，不作为判定依据；
+     * SKU 数据给不出明确结论时返回 UNKNOWN，交给浏览器渲染后判定。
+     *
+     * @param html 商品页 HTML
+     * @return 库存状态，无法明确判定时返回 UNKNOWN
+     */
+    public static StockStatus parse(String html) {
+        if (html == null || html.isEmpty()) {
+            return StockStatus.UNKNOWN;
+        }
+        return parseEmbeddedJson(html);
+    }
+
+    /**
+     * 从 __NEXT_DATA__ 中的 SKU 列表判定库存
+     */
+    public static StockStatus parseEmbeddedJson(String html) {
+        String json = extractNextData(html);
+        if (json == null) {
+            return StockStatus.UNKNOWN;
+        }
+
+        return parseProductJson(json);
+    }
+
+    /**
+     * 从商品 JSON（页面内嵌数据或商品接口响应）中的 SKU 列表判定库存
+     */
+    public static StockStatus parseProductJson(String json) {
+        try {
+            JsonNode skus = findSkus(MAPPER.readTree(json));
+            return skus == null ? StockStatus.UNKNOWN : evaluateSkus(skus);
+        } catch (Exception e) {
+            // JSON 格式异常时交给其他手段判定
+            return StockStatus.UNKNOWN;
+        }
+    }
+
+    /**
+     * 提取 __NEXT_DATA__ 脚本内容
+     *
+     * @return JSON 字符串，页面中不存在时返回 null
+     */
+    public static String extractNextData(String html) {
+        Matcher matcher = NEXT_DATA_PATTERN.matcher(html);
+        return matcher.find() ? matcher.group(1).trim() : null;
+    }
+
+    /**
+     * 判定一组 SKU 的库存：任一 SKU 可售即有库存，全部明确不可售才算缺货
+     */
+    public static StockStatus evaluateSkus(JsonNode skus) {
+        boolean anyNegative = false;
+        for (JsonNode sku : skus) {
+            StockStatus status = evaluateSku(sku);
+            if (status == StockStatus.IN_STOCK) {
+                return StockStatus.IN_STOCK;
+            }
+            if (status == StockStatus.OUT_OF_STOCK) {
+                anyNegative = true;
+            }
+        }
+        return anyNegative ? StockStatus.OUT_OF_STOCK : StockStatus.UNKNOWN;
+    }
+
+    private static StockStatus evaluateSku(JsonNode sku) {
+        for (String field : SOLD_OUT_FIELDS) {
+            JsonNode value = sku.get(field);
+            if (value != null && value.isBoolean() && value.asBoolean()) {
+                return StockStatus.OUT_OF_STOCK;
+            }
+        }
+
+        for (String field : AVAILABLE_FIELDS) {
+            JsonNode value = sku.get(field);
+            if (value != null && value.isBoolean()) {
+                return value.asBoolean() ? StockStatus.IN_STOCK : StockStatus.OUT_OF_STOCK;
+            }
+        }
+
+        Integer count = findStockCount(sku);
+        if (count != null) {
+            return count > 0 ? StockStatus.IN_STOCK : StockStatus.OUT_OF_STOCK;
+        }
+        return StockStatus.UNKNOWN;
+    }
+
+    private static Integer findStockCount(JsonNode node) {
+        for (String field : STOCK_COUNT_FIELDS) {
+            JsonNode value = node.get(field);
+            if (value == null) {
+                continue;
+            }
+            if (value.isNumber()) {
+                return value.asInt();
+            }
+            if (value.isObject()) {
+                // 形如 "stock": {"onlineStock": 3, "onlineLockStock": 0}
+                Integer nested = findStockCount(value);
+                if (nested != null) {
+                    return nested;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 深度优先查找第一个名为 skus 的数组
+     */
+    private static JsonNode findSkus(JsonNode node) {
+        if (node == null) {
+            return null;
+        }
+        if (node.isObject()) {
+            JsonNode skus = node.get("skus");
+            if (skus != null && skus.isArray() && skus.size() > 0) {
+                return skus;
+            }
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                JsonNode found = findSkus(fields.next().getValue());
+                if (found != null) {
+                    return found;
+                }
+            }
+        } else if (node.isArray()) {
+            for (JsonNode child : node) {
+                JsonNode found = findSkus(child);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 提取页面中能直接判定库存的区域：内嵌 SKU 数据
+     *
+     * 只有 SKU 数据本身给出明确结论时才返回；按钮文本等由客户端渲染的内容不参与，
+     * 服务端 HTML 相同不代表页面上的库存相同。
+     *
+     * @return SKU 数据，页面中没有 SKU 数据或无法据此判定库存时返回 null
+     */
+    public static String extractStockRegion(String html) {
+        if (html == null || html.isEmpty()) {
+            return null;
+        }
+
+        String json = extractNextData(html);
+        if (json == null) {
+            return null;
+        }
+        try {
+            JsonNode skus = findSkus(MAPPER.readTree(json));
+            return skus != null && evaluateSkus(skus).isDecisive() ? skus.toString() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析列表页（系列、分类、搜索结果），提取页面上每个商品的库存状态
+     *
+     * 内嵌 JSON 中带 SKU 或库存字段的商品对象给出状态；只出现在商品链接中的商品状态为 UNKNOWN。
+     * 同一商品在页面中出现多次且结论不一致时也视为 UNKNOWN。
+     *
+     * @param html 列表页 HTML
+     * @return 页面中的商品，按出现顺序
+     */
+    public static List<ListingEntry> parseListing(String html) {
+        Map<String, ListingEntry> entries = new LinkedHashMap<>();
+        if (html == null || html.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        String json = extractNextData(html);
+        if (json != null) {
+            try {
+                collectListingProducts(MAPPER.readTree(json), entries);
+            } catch (Exception e) {
+                // JSON 格式异常时只提取商品链接
+            }
+        }
+
+        Matcher matcher = PRODUCT_LINK_PATTERN.matcher(html);
+        while (matcher.find()) {
+            String productId = matcher.group(2);
+            String url = "https://www.popmart.com" + matcher.group(1);
+            ListingEntry existing = entries.get(productId);
+            if (existing == null) {
+                entries.put(productId, new ListingEntry(productId, null, url, StockStatus.UNKNOWN));
+            } else if (existing.getUrl() == null) {
+                entries.put(productId, new ListingEntry(productId, existing.getTitle(), url, existing.getStatus()));
+            }
+        }
+
+        return new ArrayList<>(entries.values());
+    }
+
+    private static void collectListingProducts(JsonNode node, Map<String, ListingEntry> entries) {
+        if (node == null) {
+            return;
+        }
+        if (node.isObject()) {
+            String productId = listingProductId(node);
+            if (productId != null) {
+                JsonNode skus = node.get("skus");
+                StockStatus status = skus != null && skus.isArray() && skus.size() > 0 ? evaluateSkus(skus) : evaluateSku(node);
+                if (status.isDecisive() || skus != null) {
+                    mergeListingEntry(entries, new ListingEntry(productId, listingTitle(node), null, status));
+                    return;
+                }
+            }
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                collectListingProducts(fields.next().getValue(), entries);
+            }
+        } else if (node.isArray()) {
+            for (JsonNode child : node) {
+                collectListingProducts(child, entries);
+            }
+        }
+    }
+
+    private static void mergeListingEntry(Map<String, ListingEntry> entries, ListingEntry entry) {
+        ListingEntry existing = entries.get(entry.getProductId());
+        if (existing == null) {
+            entries.put(entry.getProductId(), entry);
+            return;
+        }
+        StockStatus status = existing.getStatus();
+        if (!status.isDecisive()) {
+            status = entry.getStatus();
+        } else if (entry.getStatus().isDecisive() && entry.getStatus() != status) {
+            status = StockStatus.UNKNOWN;
+        }
+        String title = existing.getTitle() != null ? existing.getTitle() : entry.getTitle();
+        entries.put(entry.getProductId(), new ListingEntry(entry.getProductId(), title, existing.getUrl(), status));
+    }
+
+    /**
+     * 带名称和数字 ID 的对象视为商品
+     */
+    private static String listingProductId(JsonNode node) {
+        if (listingTitle(node) == null) {
+            return null;
+        }
+        for (String field : PRODUCT_ID_FIELDS) {
+            JsonNode value = node.get(field);
+            if (value == null) {
+                continue;
+            }
+            if (value.isIntegralNumber() || (value.isTextual() && value.asText().matches("\\d+"))) {
+                return value.asText();
+            }
+        }
+        return null;
+    }
+
+    private static String listingTitle(JsonNode node) {
+        for (String field : TITLE_FIELDS) {
+            JsonNode value = node.get(field);
+            if (value != null && value.isTextual() && !value.asText().trim().isEmpty()) {
+                return value.asText().trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 列表页中的一个商品
+     */
+    public static class ListingEntry {
+        private final String productId;
+        private final String title;
+        private final String url;
+        private final StockStatus status;
+
+        public ListingEntry(String productId, String title, String url, StockStatus status) {
+            this.productId = productId;
+            this.title = title;
+            this.url = url;
+            this.status = status;
+        }
+
+        public String getProductId() {
+            return productId;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        /**
+         * 商品页 URL，页面中没有商品链接时为 null
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        public StockStatus getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * 构建库存关键词扫描器
+     *
+     * @param inStockKeyword 有库存按钮关键词（如 Add to Bag）
+     * @param outOfStockKeywords 缺货关键词
+     */
+    public static KeywordScanner stockKeywordScanner(String inStockKeyword, Collection<String> outOfStockKeywords) {
+        return KeywordScanner.builder()
+            .add(inStockKeyword, IN_STOCK_GROUP)
+            .addAll(outOfStockKeywords, OUT_OF_STOCK_GROUP)
+            .build();
+    }
+}
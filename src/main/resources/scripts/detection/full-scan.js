@@ -0,0 +1,87 @@
+// 完整检测：一次 DOM 遍历覆盖 Pop Mart 按钮、通用按钮、禁用按钮、缺货标识和关键词元素，并提取价格和 SKU
+// 成本最高，其他策略都无法判断时仍能给出结果
+function isPopMartButton(el) {
+  var cls = typeof el.className === 'string' ? el.className : '';
+  return el.tagName === 'DIV' && (cls.indexOf('usBtn') !== -1 || cls.indexOf('btn') !== -1 || cls.indexOf('Btn') !== -1);
+}
+
+// 一次查询覆盖 Pop Mart 按钮和通用按钮
+var candidates = document.querySelectorAll(
+  'button, input[type="button"], input[type="submit"], a[role="button"], *[role="button"], *[onclick], ' +
+  'div[class*="usBtn"], *[class*="btn"], *[class*="Btn"], *[class*="button"], *[class*="Button"]');
+
+var popMartMatch = null;
+var genericMatch = null;
+var disabledMatch = null;
+var hiddenMatch = null;
+
+for (var i = 0; i < candidates.length; i++) {
+  var el = candidates[i];
+  var text = el.textContent || el.value || '';
+  if (text.toLowerCase().indexOf(keyword) === -1) {
+    continue;
+  }
+  if (el.disabled || el.getAttribute('aria-disabled') === 'true') {
+    disabledMatch = disabledMatch || el;
+  } else if (!isVisible(el)) {
+    hiddenMatch = hiddenMatch || el;
+  } else if (isPopMartButton(el)) {
+    popMartMatch = popMartMatch || el;
+    break;
+  } else {
+    genericMatch = genericMatch || el;
+  }
+}
+
+// 页面文本只读取一次
+var bodyText = document.body ? (document.body.textContent || '').toLowerCase() : '';
+for (var k = 0; k < outOfStockKeywords.length; k++) {
+  if (bodyText.indexOf(outOfStockKeywords[k]) !== -1) {
+    result.outOfStockMarkers.push(outOfStockKeywords[k]);
+  }
+}
+
+if (popMartMatch) {
+  result.state = 'in_stock';
+  result.strategy = 'popmart_button';
+  result.buttonState = 'enabled';
+} else if (genericMatch) {
+  result.state = 'in_stock';
+  result.strategy = 'generic_button';
+  result.buttonState = 'enabled';
+} else if (disabledMatch) {
+  result.state = 'out_of_stock';
+  result.strategy = 'disabled_button';
+  result.buttonState = 'disabled';
+} else if (result.outOfStockMarkers.length > 0) {
+  result.state = 'out_of_stock';
+  result.strategy = 'out_of_stock_marker';
+  result.buttonState = hiddenMatch ? 'hidden' : 'absent';
+} else if (hiddenMatch) {
+  result.buttonState = 'hidden';
+} else if (bodyText.indexOf(keyword) !== -1) {
+  // 关键词出现在非按钮元素中，检查是否有可见的 div 包含关键词
+  var divs = document.querySelectorAll('div');
+  for (var j = divs.length - 1; j >= 0; j--) {
+    var div = divs[j];
+    if (isVisible(div) && (div.textContent || '').toLowerCase().indexOf(keyword) !== -1) {
+      result.state = 'in_stock';
+      result.strategy = 'keyword_element';
+      break;
+    }
+  }
+}
+
+// 价格和 SKU（如页面提供）
+var priceEl = document.querySelector('[class*="price"], [class*="Price"], [itemprop="price"]');
+if (priceEl) {
+  var priceText = (priceEl.getAttribute('content') || priceEl.textContent || '').trim();
+  result.price = priceText.length > 0 && priceText.length < 40 ? priceText : null;
+}
+var skuEl = document.querySelector('[itemprop="sku"], [class*="sku"], [class*="Sku"]');
+if (skuEl) {
+  var skuText = (skuEl.getAttribute('content') || skuEl.textContent || '').trim();
+  result.sku = skuText.length > 0 && skuText.length < 80 ? skuText : null;
+}
+
+return result;
@@ -0,0 +1,15 @@
+// 缺货标识检测：页面文本中出现缺货关键词且完全没有加购关键词时判定缺货
+// 页面中出现加购关键词时（可能是可用按钮）不做判断，交给其他策略
+var bodyText = document.body ? (document.body.textContent || '').toLowerCase() : '';
+if (bodyText.indexOf(keyword) === -1) {
+  for (var k = 0; k < outOfStockKeywords.length; k++) {
+    if (bodyText.indexOf(outOfStockKeywords[k]) !== -1) {
+      result.outOfStockMarkers.push(outOfStockKeywords[k]);
+    }
+  }
+  if (result.outOfStockMarkers.length > 0) {
+    result.state = 'out_of_stock';
+    result.strategy = 'out_of_stock_marker';
+  }
+}
+return result;
@@ -0,0 +1,16 @@
+// Pop Mart 加购按钮检测：只查询 Pop Mart 按钮样式的 div，找到可见可用的加购按钮即判定有库存
+// 未找到时不做判断，交给其他策略
+var buttons = document.querySelectorAll('div[class*="usBtn"], div[class*="btn"], div[class*="Btn"]');
+for (var i = 0; i < buttons.length; i++) {
+  var el = buttons[i];
+  if ((el.textContent || '').toLowerCase().indexOf(keyword) === -1) {
+    continue;
+  }
+  if (el.getAttribute('aria-disabled') !== 'true' && isVisible(el)) {
+    result.state = 'in_stock';
+    result.strategy = 'popmart_button';
+    result.buttonState = 'enabled';
+    break;
+  }
+}
+return result;
@@ -0,0 +1,29 @@
+// 库存检测策略公共前置脚本（拼接在每个策略脚本之前）
+// 参数: arguments[0] 有库存按钮关键词（小写），arguments[1] 缺货关键词列表（小写）
+// 返回: { state, strategy, buttonState, outOfStockMarkers, price, sku, httpStatus }
+var keyword = arguments[0];
+var outOfStockKeywords = arguments[1];
+
+var result = {
+  state: 'unknown',
+  strategy: 'none',
+  buttonState: 'absent',
+  outOfStockMarkers: [],
+  price: null,
+  sku: null,
+  httpStatus: 0
+};
+
+// 主文档的 HTTP 状态码（用于限流退避），浏览器不支持时为 0
+var navigation = window.performance && performance.getEntriesByType ? performance.getEntriesByType('navigation')[0] : null;
+if (navigation && navigation.responseStatus) {
+  result.httpStatus = navigation.responseStatus;
+}
+if (result.httpStatus === 429 || result.httpStatus === 503) {
+  result.strategy = 'throttled';
+  return result;
+}
+
+function isVisible(el) {
+  return el.offsetParent !== null;
+}
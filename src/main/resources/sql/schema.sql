@@ -7,6 +7,7 @@ USE popmart_watch;
 
 -- Drop tables if they exist (for clean reinstall)
 DROP TABLE IF EXISTS stock_check_history;
+DROP TABLE IF EXISTS discovered_products;
 DROP TABLE IF EXISTS monitored_products;
 
 -- Monitored Products Table
@@ -22,6 +23,7 @@ CREATE TABLE monitored_products (
     last_checked_at TIMESTAMP NULL COMMENT '最后检查时间',
     last_error TEXT COMMENT '最后错误信息',
     added_by_user_id VARCHAR(100) NOT NULL COMMENT '添加用户ID',
+    stock_source VARCHAR(20) NULL COMMENT '库存数据源（browser/api，为空时使用全局配置）',
     deleted TINYINT DEFAULT 0 COMMENT '逻辑删除标记'
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='监控商品表';
 
@@ -41,6 +43,7 @@ CREATE TABLE stock_check_history (
     checked_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '检查时间',
     error_message TEXT COMMENT '错误信息',
     stock_changed BOOLEAN DEFAULT FALSE COMMENT '库存状态是否发生变化',
+    phase_timings VARCHAR(500) NULL COMMENT '各阶段耗时(毫秒, JSON)',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     deleted TINYINT DEFAULT 0 COMMENT '逻辑删除标记'
@@ -57,6 +60,18 @@ ADD CONSTRAINT fk_stock_check_history_product_id
 FOREIGN KEY (product_id) REFERENCES monitored_products(id) 
 ON DELETE CASCADE ON UPDATE CASCADE;
 
+-- Discovered Products Table（新品发现爬虫已见过的商品）
+CREATE TABLE discovered_products (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键ID',
+    product_id VARCHAR(20) NOT NULL COMMENT '商品ID',
+    url VARCHAR(500) NULL COMMENT '商品URL',
+    title VARCHAR(255) NULL COMMENT '商品名称',
+    source_page VARCHAR(500) NULL COMMENT '发现该商品的列表页',
+    enrolled BOOLEAN DEFAULT FALSE COMMENT '是否已按关键词自动加入监控',
+    first_seen_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '首次发现时间',
+    UNIQUE KEY uk_discovered_products_product_id (product_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='已发现商品表';
+
 -- Insert sample data (optional)
 -- INSERT INTO monitored_products (url, product_name, added_by_user_id) VALUES
 -- ('https://www.popmart.com/us/products/1739/', 'Molly Space Series', 'sample_user_123'); 
\ No newline at end of file
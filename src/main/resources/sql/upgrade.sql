@@ -0,0 +1,24 @@
+-- Pop Mart Watch Database Upgrades
+-- 对已有数据库按顺序执行以下语句（新建数据库直接使用 schema.sql 即可）
+
+USE popmart_watch;
+
+-- 按商品选择库存数据源
+ALTER TABLE monitored_products
+    ADD COLUMN stock_source VARCHAR(20) NULL COMMENT '库存数据源（browser/api，为空时使用全局配置）' AFTER added_by_user_id;
+
+-- 库存检查各阶段耗时
+ALTER TABLE stock_check_history
+    ADD COLUMN phase_timings VARCHAR(500) NULL COMMENT '各阶段耗时(毫秒, JSON)' AFTER stock_changed;
+
+-- 新品发现：已见过的商品
+CREATE TABLE IF NOT EXISTS discovered_products (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '主键ID',
+    product_id VARCHAR(20) NOT NULL COMMENT '商品ID',
+    url VARCHAR(500) NULL COMMENT '商品URL',
+    title VARCHAR(255) NULL COMMENT '商品名称',
+    source_page VARCHAR(500) NULL COMMENT '发现该商品的列表页',
+    enrolled BOOLEAN DEFAULT FALSE COMMENT '是否已按关键词自动加入监控',
+    first_seen_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '首次发现时间',
+    UNIQUE KEY uk_discovered_products_product_id (product_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='已发现商品表';
@@ -0,0 +1,92 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerRegistryTest {
+
+    private static final String URL = "https://www.popmart.com/us/products/1739/labubu";
+    private static final String HTTP = CircuitBreakerRegistry.HTTP;
+
+    private PopMartConfig.Resilience resilience;
+    private CircuitBreakerRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        PopMartConfig config = new PopMartConfig();
+        resilience = config.getMonitor().getResilience();
+        resilience.setMinimumCalls(4);
+        resilience.setSlidingWindowSize(10);
+        resilience.setFailureRateThreshold(50);
+        resilience.setHalfOpenCalls(2);
+        resilience.setOpenDuration(0);
+
+        registry = new CircuitBreakerRegistry();
+        ReflectionTestUtils.setField(registry, "config", config);
+        ReflectionTestUtils.setField(registry, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        for (int i = 0; i < 3; i++) {
+            registry.recordFailure(URL, HTTP);
+        }
+        assertEquals(CircuitBreakerRegistry.State.CLOSED, registry.getState(URL, HTTP));
+    }
+
+    @Test
+    void opensWhenFailureRateReachesThreshold() {
+        resilience.setOpenDuration(60);
+        registry.recordSuccess(URL, HTTP);
+        registry.recordSuccess(URL, HTTP);
+        registry.recordFailure(URL, HTTP);
+        assertEquals(CircuitBreakerRegistry.State.CLOSED, registry.getState(URL, HTTP));
+
+        registry.recordFailure(URL, HTTP);
+        assertEquals(CircuitBreakerRegistry.State.OPEN, registry.getState(URL, HTTP));
+        assertFalse(registry.allowRequest(URL, HTTP));
+    }
+
+    @Test
+    void breakersAreScopedByHostAndStrategy() {
+        resilience.setOpenDuration(60);
+        openBreaker();
+        assertTrue(registry.allowRequest(URL, CircuitBreakerRegistry.BROWSER));
+        assertTrue(registry.allowRequest("https://prod-na-api.popmart.com/x", HTTP));
+    }
+
+    @Test
+    void halfOpenClosesAfterSuccessfulTrials() {
+        openBreaker();
+
+        assertTrue(registry.allowRequest(URL, HTTP));
+        assertEquals(CircuitBreakerRegistry.State.HALF_OPEN, registry.getState(URL, HTTP));
+        assertTrue(registry.allowRequest(URL, HTTP));
+        registry.recordSuccess(URL, HTTP);
+        registry.recordSuccess(URL, HTTP);
+        assertEquals(CircuitBreakerRegistry.State.CLOSED, registry.getState(URL, HTTP));
+    }
+
+    @Test
+    void halfOpenReopensOnFailure() {
+        openBreaker();
+
+        assertTrue(registry.allowRequest(URL, HTTP));
+        registry.recordFailure(URL, HTTP);
+        assertEquals(CircuitBreakerRegistry.State.OPEN, registry.getState(URL, HTTP));
+    }
+
+    private void openBreaker() {
+        for (int i = 0; i < 4; i++) {
+            registry.recordFailure(URL, HTTP);
+        }
+        assertEquals(CircuitBreakerRegistry.State.OPEN, registry.getState(URL, HTTP));
+    }
+}
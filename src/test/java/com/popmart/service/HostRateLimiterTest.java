@@ -0,0 +1,90 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HostRateLimiterTest {
+
+    private static final String URL = "https://www.popmart.com/us/products/1739/labubu";
+    private static final String OTHER_HOST_URL = "https://prod-na-api.popmart.com/shop/v1/shop/productDetails?spuId=1739";
+
+    private PopMartConfig config;
+    private HostRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        config = new PopMartConfig();
+        PopMartConfig.RateLimit rateLimit = config.getMonitor().getRateLimit();
+        rateLimit.setRequestsPerSecond(1.0);
+        rateLimit.setBurst(3);
+        rateLimit.setMaxWait(0);
+
+        limiter = new HostRateLimiter();
+        ReflectionTestUtils.setField(limiter, "config", config);
+        ReflectionTestUtils.setField(limiter, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    @Test
+    void allowsBurstThenRejects() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(URL));
+        }
+        assertFalse(limiter.tryAcquire(URL));
+        assertFalse(limiter.acquire(URL));
+    }
+
+    @Test
+    void limitsEachHostSeparately() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire(URL));
+        }
+        assertTrue(limiter.tryAcquire(OTHER_HOST_URL));
+    }
+
+    @Test
+    void exemptHostsAreNeverLimited() {
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire("http://localhost:18089/us/products/1000/in-stock"));
+        }
+    }
+
+    @Test
+    void disabledLimiterAllowsEverything() {
+        config.getMonitor().getRateLimit().setEnabled(false);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limiter.tryAcquire(URL));
+        }
+    }
+
+    @Test
+    void pausesHostAfterThrottleResponse() {
+        assertTrue(limiter.tryAcquire(URL));
+        limiter.onResponse(URL, 429, "30");
+        assertFalse(limiter.tryAcquire(URL));
+        assertTrue(limiter.tryAcquire(OTHER_HOST_URL));
+    }
+
+    @Test
+    void clampsRetryAfterToConfiguredMaximum() {
+        PopMartConfig.RateLimit rateLimit = config.getMonitor().getRateLimit();
+        rateLimit.setRetryAfterMax(1);
+        rateLimit.setMaxWait(5);
+
+        limiter.onResponse(URL, 503, "3600");
+        // 不截断时需要等待一小时，超过 max-wait 立即放弃
+        assertTrue(limiter.acquire(URL));
+    }
+
+    @Test
+    void ignoresSuccessfulAndMissingStatuses() {
+        limiter.onResponse(URL, 200, null);
+        limiter.onResponse(URL, 0, null);
+        assertTrue(limiter.tryAcquire(URL));
+    }
+}
@@ -0,0 +1,171 @@
+package com.popmart.service;
+
+import com.popmart.config.HttpClientConfig;
+import com.popmart.config.PopMartConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * HTTP 快速路径，页面由本机 HTTP 服务返回 fixtures 中录制的商品页
+ */
+class HttpStockCheckerTest {
+
+    // 样本名 -> 页面，不在其中的样本返回 500
+    private final Map<String, byte[]> pages = new ConcurrentHashMap<>();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private volatile String lastIfNoneMatch;
+
+    private HttpServer server;
+    private CloseableHttpClient httpClient;
+    private HttpStockChecker checker;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (String name : new String[] {"in-stock", "sold-out", "notify-me", "broken"}) {
+            pages.put(name, fixture(name));
+        }
+        pages.put("client-rendered",
+            "<html><body><button class=\"btn\">Add to Bag</button></body></html>".getBytes(StandardCharsets.UTF_8));
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+
+        PopMartConfig config = new PopMartConfig();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        HostRateLimiter rateLimiter = new HostRateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "config", config);
+        ReflectionTestUtils.setField(rateLimiter, "meterRegistry", meterRegistry);
+
+        CircuitBreakerRegistry circuitBreakers = new CircuitBreakerRegistry();
+        ReflectionTestUtils.setField(circuitBreakers, "config", config);
+        ReflectionTestUtils.setField(circuitBreakers, "meterRegistry", meterRegistry);
+
+        BulkheadRegistry bulkheads = new BulkheadRegistry();
+        ReflectionTestUtils.setField(bulkheads, "config", config);
+        ReflectionTestUtils.setField(bulkheads, "meterRegistry", meterRegistry);
+
+        PageFingerprintStore fingerprintStore = new PageFingerprintStore();
+        ReflectionTestUtils.setField(fingerprintStore, "config", config);
+
+        httpClient = new HttpClientConfig().popMartHttpClient(config);
+        checker = new HttpStockChecker();
+        ReflectionTestUtils.setField(checker, "config", config);
+        ReflectionTestUtils.setField(checker, "popMartHttpClient", httpClient);
+        ReflectionTestUtils.setField(checker, "fingerprintStore", fingerprintStore);
+        ReflectionTestUtils.setField(checker, "rateLimiter", rateLimiter);
+        ReflectionTestUtils.setField(checker, "circuitBreakers", circuitBreakers);
+        ReflectionTestUtils.setField(checker, "bulkheads", bulkheads);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void parsesRecordedPages() {
+        assertEquals(StockStatus.IN_STOCK, checker.check(url("in-stock")));
+        assertEquals(StockStatus.OUT_OF_STOCK, checker.check(url("sold-out")));
+        assertEquals(StockStatus.OUT_OF_STOCK, checker.check(url("notify-me")));
+        assertEquals(StockStatus.UNKNOWN, checker.check(url("broken")));
+    }
+
+    @Test
+    void reusesPooledConnections() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(StockStatus.OUT_OF_STOCK, checker.check(url("sold-out"), false));
+        }
+    }
+
+    @Test
+    void serverErrorIsUnknown() {
+        assertEquals(StockStatus.UNKNOWN, checker.check(url("missing")));
+    }
+
+    @Test
+    void reusesVerdictOnNotModifiedWhenSkuDataWasDecisive() {
+        assertEquals(StockStatus.IN_STOCK, checker.check(url("in-stock")));
+        assertNull(lastIfNoneMatch);
+
+        assertEquals(StockStatus.IN_STOCK, checker.check(url("in-stock")));
+        assertEquals(1, notModified.get());
+    }
+
+    @Test
+    void clientRenderedStockIsLeftToTheBrowser() {
+        assertEquals(StockStatus.UNKNOWN, checker.check(url("client-rendered")));
+        assertEquals(StockStatus.UNKNOWN, checker.check(url("client-rendered")));
+
+        assertNull(lastIfNoneMatch);
+        assertEquals(0, notModified.get());
+    }
+
+    @Test
+    void unconditionalCheckAlwaysFetchesThePage() {
+        checker.check(url("sold-out"));
+        assertEquals(StockStatus.OUT_OF_STOCK, checker.check(url("sold-out"), false));
+
+        assertNull(lastIfNoneMatch);
+        assertEquals(0, notModified.get());
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = pages.get(path.substring(path.lastIndexOf('/') + 1));
+            lastIfNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (body == null) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+
+            String etag = "\"" + path.hashCode() + "\"";
+            exchange.getResponseHeaders().set("ETag", etag);
+            if (etag.equals(lastIfNoneMatch)) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String url(String fixture) {
+        return "http://localhost:" + server.getAddress().getPort() + "/us/products/1739/" + fixture;
+    }
+
+    private static byte[] fixture(String name) throws IOException {
+        try (InputStream in = new ClassPathResource("fixtures/" + name + ".html").getInputStream()) {
+            return StreamUtils.copyToByteArray(in);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.popmart.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadTestServiceTest {
+
+    private static final List<String> URLS = Arrays.asList("a", "b", "c");
+
+    @Test
+    void urlMixFollowsWeights() {
+        LoadTestService.UrlMix mix = new LoadTestService.UrlMix(URLS, Arrays.asList(8, 2, 0));
+        Map<String, Integer> counts = sample(mix, 10000);
+
+        assertFalse(counts.containsKey("c"));
+        double share = counts.get("a") / 10000.0;
+        assertTrue(share > 0.75 && share < 0.85, "share of a: " + share);
+    }
+
+    @Test
+    void urlMixDefaultsToEqualWeights() {
+        LoadTestService.UrlMix mix = new LoadTestService.UrlMix(URLS, null);
+        Map<String, Integer> counts = sample(mix, 9000);
+
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertTrue(count > 2500 && count < 3500, "count: " + count);
+        }
+    }
+
+    @Test
+    void urlMixRejectsInvalidWeights() {
+        assertThrows(IllegalArgumentException.class, () -> new LoadTestService.UrlMix(URLS, Arrays.asList(1, 2)));
+        assertThrows(IllegalArgumentException.class, () -> new LoadTestService.UrlMix(URLS, Arrays.asList(1, -1, 1)));
+        assertThrows(IllegalArgumentException.class, () -> new LoadTestService.UrlMix(URLS, Arrays.asList(0, 0, 0)));
+    }
+
+    @Test
+    void urlMixWithSingleUrl() {
+        LoadTestService.UrlMix mix = new LoadTestService.UrlMix(Collections.singletonList("only"), null);
+        assertEquals("only", mix.next());
+    }
+
+    private static Map<String, Integer> sample(LoadTestService.UrlMix mix, int samples) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < samples; i++) {
+            counts.merge(mix.next(), 1, Integer::sum);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,179 @@
+package com.popmart.service;
+
+import com.popmart.config.HttpClientConfig;
+import com.popmart.config.PopMartConfig;
+import com.popmart.dto.response.StockCheckResult;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 商品接口数据源，接口由本机 HTTP 服务模拟
+ */
+class ProductApiStockSourceTest {
+
+    private static final String PRODUCT_URL = "https://www.popmart.com/us/products/";
+
+    // 商品 ID -> 接口响应（状态码为 200 以外时响应体为空）
+    private final Map<String, String> responses = new ConcurrentHashMap<>();
+    private final Map<String, String> receivedHeaders = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private HttpServer server;
+    private PopMartConfig config;
+    private CloseableHttpClient httpClient;
+    private ProductApiStockSource source;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/shop/v1/shop/productDetails", exchange -> {
+            requests.incrementAndGet();
+            String query = exchange.getRequestURI().getQuery();
+            String productId = query.substring(query.indexOf('=') + 1);
+            receivedHeaders.put("X-Client", String.valueOf(exchange.getRequestHeaders().getFirst("X-Client")));
+            receivedHeaders.put("Accept", String.valueOf(exchange.getRequestHeaders().getFirst("Accept")));
+
+            String body = responses.get(productId);
+            byte[] bytes = body != null ? body.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.sendResponseHeaders(body != null ? 200 : 500, bytes.length == 0 ? -1 : bytes.length);
+            if (bytes.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+
+        config = new PopMartConfig();
+        PopMartConfig.ProductApi api = config.getMonitor().getProductApi();
+        api.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        api.getHeaders().put("X-Client", "popmart-monitor");
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+        HostRateLimiter rateLimiter = new HostRateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "config", config);
+        ReflectionTestUtils.setField(rateLimiter, "meterRegistry", meterRegistry);
+
+        CircuitBreakerRegistry circuitBreakers = new CircuitBreakerRegistry();
+        ReflectionTestUtils.setField(circuitBreakers, "config", config);
+        ReflectionTestUtils.setField(circuitBreakers, "meterRegistry", meterRegistry);
+
+        BulkheadRegistry bulkheads = new BulkheadRegistry();
+        ReflectionTestUtils.setField(bulkheads, "config", config);
+        ReflectionTestUtils.setField(bulkheads, "meterRegistry", meterRegistry);
+
+        httpClient = new HttpClientConfig().popMartHttpClient(config);
+        source = new ProductApiStockSource();
+        ReflectionTestUtils.setField(source, "config", config);
+        ReflectionTestUtils.setField(source, "popMartHttpClient", httpClient);
+        ReflectionTestUtils.setField(source, "rateLimiter", rateLimiter);
+        ReflectionTestUtils.setField(source, "circuitBreakers", circuitBreakers);
+        ReflectionTestUtils.setField(source, "bulkheads", bulkheads);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void reportsInStockWhenAnySkuHasStock() {
+        responses.put("1739", "{\"data\":{\"skus\":[{\"stock\":{\"onlineStock\":0}},{\"stock\":{\"onlineStock\":4}}]}}");
+
+        StockCheckResult result = source.checkStock(PRODUCT_URL + "1739/labubu");
+
+        assertEquals(Boolean.TRUE, result.getInStock());
+        assertFalse(result.hasError());
+    }
+
+    @Test
+    void reportsOutOfStockWhenAllSkusAreSoldOut() {
+        responses.put("1740", "{\"data\":{\"skus\":[{\"soldOut\":true},{\"stock\":{\"onlineStock\":0}}]}}");
+
+        StockCheckResult result = source.checkStock(PRODUCT_URL + "1740/skullpanda");
+
+        assertEquals(Boolean.FALSE, result.getInStock());
+        assertFalse(result.hasError());
+    }
+
+    @Test
+    void sendsConfiguredHeaders() {
+        responses.put("1739", "{\"data\":{\"skus\":[{\"available\":true}]}}");
+
+        source.checkStock(PRODUCT_URL + "1739/labubu");
+
+        assertEquals("popmart-monitor", receivedHeaders.get("X-Client"));
+        assertEquals("application/json", receivedHeaders.get("Accept"));
+    }
+
+    @Test
+    void serverErrorIsUnknown() {
+        StockCheckResult result = source.checkStock(PRODUCT_URL + "1741/crybaby");
+
+        assertTrue(result.isUnknown());
+        assertNotNull(result.getErrorMessage());
+    }
+
+    @Test
+    void responseWithoutSkusIsUnknown() {
+        responses.put("1742", "{\"data\":{\"title\":\"Hirono\"}}");
+
+        assertTrue(source.checkStock(PRODUCT_URL + "1742/hirono").isUnknown());
+    }
+
+    @Test
+    void urlWithoutProductIdIsUnknown() {
+        assertTrue(source.checkStock("https://www.popmart.com/us/collection/labubu").isUnknown());
+    }
+
+    @Test
+    void rateLimitedRequestIsRejectedWithoutCallingTheApi() {
+        PopMartConfig.RateLimit rateLimit = config.getMonitor().getRateLimit();
+        rateLimit.setExemptHosts(Collections.emptyList());
+        rateLimit.setBurst(1);
+        rateLimit.setMaxWait(0);
+        responses.put("1739", "{\"data\":{\"skus\":[{\"available\":true}]}}");
+
+        assertFalse(source.checkStock(PRODUCT_URL + "1739/labubu").hasError());
+        StockCheckResult result = source.checkStock(PRODUCT_URL + "1739/labubu");
+
+        assertTrue(result.isRejected());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void openCircuitRejectsWithoutCallingTheApi() {
+        PopMartConfig.Resilience resilience = config.getMonitor().getResilience();
+        resilience.setMinimumCalls(2);
+        resilience.setOpenDuration(60);
+
+        source.checkStock(PRODUCT_URL + "1741/crybaby");
+        source.checkStock(PRODUCT_URL + "1741/crybaby");
+        StockCheckResult result = source.checkStock(PRODUCT_URL + "1741/crybaby");
+
+        assertTrue(result.isRejected());
+        assertEquals(2, requests.get());
+    }
+}
@@ -0,0 +1,106 @@
+package com.popmart.service;
+
+import com.google.common.base.Ticker;
+import com.popmart.config.PopMartConfig;
+import com.popmart.dto.response.StockCheckResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StockResultCacheTest {
+
+    private static final String URL = "https://www.popmart.com/us/products/1739/labubu";
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    private PopMartConfig.ResultCache cacheConfig;
+    private StockResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        PopMartConfig config = new PopMartConfig();
+        cacheConfig = config.getMonitor().getResultCache();
+        cacheConfig.setMinTtl(5);
+        cacheConfig.setMaxTtl(300);
+        cacheConfig.setInStockTtl(1);
+        cacheConfig.setErrorTtl(15);
+
+        cache = new StockResultCache();
+        ReflectionTestUtils.setField(cache, "config", config);
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        cache.setTicker(new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        });
+        cache.initialize();
+    }
+
+    @Test
+    void inStockResultsUseInStockTtl() {
+        assertEquals(1, cache.computeTtl(URL, result(true)));
+    }
+
+    @Test
+    void siteErrorsAreNegativelyCached() {
+        assertEquals(15, cache.computeTtl(URL, StockCheckResult.unknown("HTTP 503", 100)));
+    }
+
+    @Test
+    void localRejectionsAreNotCached() {
+        StockCheckResult rejected = StockCheckResult.rejected("请求频率受限，稍后重试", 0);
+        assertEquals(0, cache.computeTtl(URL, rejected));
+
+        cache.put(URL, rejected);
+        assertNull(cache.get(URL));
+    }
+
+    @Test
+    void outOfStockWithoutVolatilityUsesMinTtl() {
+        assertEquals(5, cache.computeTtl(URL, result(false)));
+    }
+
+    @Test
+    void outOfStockTtlShrinksWithStockChanges() {
+        cache.updateVolatility(URL, 0);
+        assertEquals(300, cache.computeTtl(URL, result(false)));
+
+        cache.updateVolatility(URL, 2);
+        assertEquals(100, cache.computeTtl(URL, result(false)));
+
+        cache.updateVolatility(URL, 1000);
+        assertEquals(5, cache.computeTtl(URL, result(false)));
+    }
+
+    @Test
+    void cachedResultIsReturnedUntilInvalidated() {
+        cache.put(URL, result(false));
+        assertNotNull(cache.get(URL));
+
+        cache.invalidate(URL);
+        assertNull(cache.get(URL));
+    }
+
+    @Test
+    void cachedResultExpiresAfterTtl() {
+        cache.put(URL, result(true));
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertNotNull(cache.get(URL));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertNull(cache.get(URL));
+    }
+
+    private static StockCheckResult result(boolean inStock) {
+        return StockCheckResult.builder().inStock(inStock).responseTime(100).build();
+    }
+}
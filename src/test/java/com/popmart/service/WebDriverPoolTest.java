@@ -0,0 +1,81 @@
+package com.popmart.service;
+
+import com.popmart.config.PopMartConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WebDriverPoolTest {
+
+    private final List<String> creatorThreads = new CopyOnWriteArrayList<>();
+
+    private WebDriverPool pool;
+
+    @BeforeEach
+    void setUp() {
+        PopMartConfig config = new PopMartConfig();
+        PopMartConfig.Pool poolConfig = config.getMonitor().getSelenium().getPool();
+        poolConfig.setMinSize(0);
+        poolConfig.setMaxSize(2);
+        poolConfig.setBorrowTimeout(5);
+        config.getMonitor().getSelenium().getSession().setWarm(false);
+
+        WebDriverFactory factory = mock(WebDriverFactory.class);
+        when(factory.createWebDriver()).thenAnswer(invocation -> {
+            creatorThreads.add(Thread.currentThread().getName());
+            return mock(WebDriver.class, RETURNS_DEEP_STUBS);
+        });
+
+        SessionWarmer sessionWarmer = new SessionWarmer();
+        ReflectionTestUtils.setField(sessionWarmer, "config", config);
+
+        pool = new WebDriverPool();
+        ReflectionTestUtils.setField(pool, "config", config);
+        ReflectionTestUtils.setField(pool, "webDriverFactory", factory);
+        ReflectionTestUtils.setField(pool, "sessionWarmer", sessionWarmer);
+        pool.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void growsOnReplenishThreadInsteadOfBorrower() throws InterruptedException {
+        WebDriver driver = pool.borrow();
+
+        assertEquals(1, creatorThreads.size());
+        assertTrue(creatorThreads.get(0).startsWith("webdriver-pool-replenish-"));
+        assertEquals(1, pool.getLeasedCount());
+        pool.release(driver);
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    void discardsDeadIdleDriverBeforeLending() throws InterruptedException {
+        WebDriver dead = pool.borrow();
+        pool.release(dead);
+        when(dead.getWindowHandle()).thenThrow(new WebDriverException("chrome not reachable"));
+
+        WebDriver driver = pool.borrow();
+
+        assertNotSame(dead, driver);
+        verify(dead).quit();
+        assertEquals(1, pool.getTotalCount());
+    }
+}
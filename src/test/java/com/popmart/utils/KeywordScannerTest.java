@@ -0,0 +1,67 @@
+package com.popmart.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeywordScannerTest {
+
+    private final KeywordScanner scanner = KeywordScanner.builder()
+        .add("Add to Bag", 0)
+        .addAll(Arrays.asList("sold out", "notify me", "缺货"), 1)
+        .build();
+
+    @Test
+    void matchesCaseInsensitively() {
+        assertEquals(1, scanner.scan("<button>ADD TO BAG</button>"));
+        assertEquals(2, scanner.scan("<span>Sold Out</span>"));
+    }
+
+    @Test
+    void reportsEveryMatchedGroup() {
+        assertEquals(3, scanner.scan("add to bag ... notify me"));
+        assertEquals(0, scanner.scan("nothing to see here"));
+    }
+
+    @Test
+    void matchesNonAsciiKeywords() {
+        assertEquals(2, scanner.scan("该商品已缺货"));
+        assertEquals(0, scanner.scan("缺"));
+    }
+
+    @Test
+    void matchesKeywordAfterPartialPrefix() {
+        // "sold sold out" 需要沿失败链回退才能命中
+        assertEquals(2, scanner.scan("sold sold out"));
+        assertEquals(1, scanner.scan("add add to bag"));
+    }
+
+    @Test
+    void scansOnlyTheGivenRange() {
+        String text = "sold out | add to bag";
+        assertEquals(2, scanner.scan(text, 0, 8, 0));
+        assertEquals(1, scanner.scan(text, 11, text.length(), 0));
+        assertEquals(0, scanner.scan(text, 1, 8, 0));
+    }
+
+    @Test
+    void stopsOnceStopMaskIsSatisfied() {
+        assertEquals(2, scanner.scan("sold out add to bag", 0, 19, 2));
+        assertEquals(3, scanner.scan("sold out add to bag", 0, 19, 3));
+    }
+
+    @Test
+    void rejectsGroupsOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> KeywordScanner.builder().add("x", 32));
+        assertThrows(IllegalArgumentException.class, () -> KeywordScanner.builder().add("x", -1));
+    }
+
+    @Test
+    void ignoresEmptyKeywords() {
+        KeywordScanner empty = KeywordScanner.builder().add("", 0).add(null, 0).build();
+        assertEquals(0, empty.scan("anything"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.popmart.utils;
+
+import com.popmart.service.StockStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 使用 fixtures 中录制的页面验证解析结果
+ */
+class ProductPageParserTest {
+
+    @Test
+    void parsesInStockPage() throws IOException {
+        String html = fixture("in-stock");
+        assertEquals(StockStatus.IN_STOCK, ProductPageParser.parse(html));
+        assertEquals(StockStatus.IN_STOCK, ProductPageParser.parseEmbeddedJson(html));
+    }
+
+    @Test
+    void parsesSoldOutPage() throws IOException {
+        String html = fixture("sold-out");
+        assertEquals(StockStatus.OUT_OF_STOCK, ProductPageParser.parse(html));
+        assertEquals(StockStatus.OUT_OF_STOCK, ProductPageParser.parseEmbeddedJson(html));
+    }
+
+    @Test
+    void parsesNotifyMePageAsOutOfStock() throws IOException {
+        assertEquals(StockStatus.OUT_OF_STOCK, ProductPageParser.parse(fixture("notify-me")));
+    }
+
+    @Test
+    void buttonTextAloneIsUnknown() {
+        assertEquals(StockStatus.UNKNOWN, ProductPageParser.parse(
+            "<html><body><button class=\"btn\">Add to Bag</button></body></html>"));
+        assertEquals(StockStatus.UNKNOWN, ProductPageParser.parse(
+            "<html><body><div class=\"usBtn\">Sold Out</div></body></html>"));
+    }
+
+    @Test
+    void brokenPageIsUnknown() throws IOException {
+        String html = fixture("broken");
+        assertEquals(StockStatus.UNKNOWN, ProductPageParser.parse(html));
+        assertNull(ProductPageParser.extractStockRegion(html));
+    }
+
+    @Test
+    void emptyPageIsUnknown() {
+        assertEquals(StockStatus.UNKNOWN, ProductPageParser.parse(""));
+        assertEquals(StockStatus.UNKNOWN, ProductPageParser.parse(null));
+    }
+
+    @Test
+    void stockRegionIsOnlyExtractedFromDecisiveSkus() throws IOException {
+        assertNotNull(ProductPageParser.extractStockRegion(fixture("in-stock")));
+        assertNotNull(ProductPageParser.extractStockRegion(fixture("sold-out")));
+        assertNull(ProductPageParser.extractStockRegion(
+            "<html><button class=\"btn\">Add to Bag</button></html>"));
+    }
+
+    @Test
+    void parsesProductApiJson() {
+        assertEquals(StockStatus.IN_STOCK, ProductPageParser.parseProductJson(
+            "{\"data\":{\"skus\":[{\"stock\":{\"onlineStock\":0}},{\"stock\":{\"onlineStock\":3}}]}}"));
+        assertEquals(StockStatus.OUT_OF_STOCK, ProductPageParser.parseProductJson(
+            "{\"data\":{\"skus\":[{\"soldOut\":true},{\"available\":false}]}}"));
+        assertEquals(StockStatus.UNKNOWN, ProductPageParser.parseProductJson("{\"data\":{}}"));
+        assertEquals(StockStatus.UNKNOWN, ProductPageParser.parseProductJson("not json"));
+    }
+
+    @Test
+    void parsesListingPage() throws IOException {
+        List<ProductPageParser.ListingEntry> entries = ProductPageParser.parseListing(fixture("listing"));
+        assertFalse(entries.isEmpty());
+        boolean anyInStock = false;
+        boolean anyOutOfStock = false;
+        for (ProductPageParser.ListingEntry entry : entries) {
+            assertNotNull(entry.getProductId());
+            anyInStock |= entry.getStatus() == StockStatus.IN_STOCK;
+            anyOutOfStock |= entry.getStatus() == StockStatus.OUT_OF_STOCK;
+        }
+        assertEquals(true, anyInStock);
+        assertEquals(true, anyOutOfStock);
+    }
+
+    static String fixture(String name) throws IOException {
+        try (InputStream in = new ClassPathResource("fixtures/" + name + ".html").getInputStream()) {
+            return StreamUtils.copyToString(in, StandardCharsets.UTF_8);
+        }
+    }
+}